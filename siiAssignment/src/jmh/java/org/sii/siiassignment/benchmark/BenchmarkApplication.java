@@ -0,0 +1,86 @@
+package org.sii.siiassignment.benchmark;
+
+import org.sii.siiassignment.SiiAssignmentApplication;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the full application context (JPA, H2, services) for benchmarks, with the exchange rate API
+ * replaced by {@link StubRates}. Each call gets its own in-memory database, and returns once the stub
+ * rates have been loaded.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the services without the web server, for benchmarks calling them directly.
+     *
+     * @param extraProperties Additional {@code key=value} properties overriding application.properties.
+     */
+    public static ConfigurableApplicationContext start(String... extraProperties) {
+        return start(WebApplicationType.NONE, extraProperties);
+    }
+
+    /**
+     * Starts the application with its embedded web server on a random port, see {@code local.server.port}.
+     *
+     * @param extraProperties Additional {@code key=value} properties overriding application.properties.
+     */
+    public static ConfigurableApplicationContext startServer(String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(extraProperties));
+        properties.add("server.port=0");
+        return start(WebApplicationType.SERVLET, properties.toArray(new String[0]));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraProperties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "--exchange.rate.api.key=benchmark",
+                "--exchange.rate.snapshot.enabled=false",
+                "--logging.level.root=WARN"));
+        for (String property : extraProperties) {
+            args.add("--" + property);
+        }
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SiiAssignmentApplication.class, StubRatesConfig.class)
+                .web(webApplicationType)
+                .run(args.toArray(new String[0]));
+        awaitRates(context.getBean(ExchangeRateService.class));
+        return context;
+    }
+
+    /**
+     * Waits for the initial rate load, which is started by the scheduler during startup.
+     */
+    private static void awaitRates(ExchangeRateService exchangeRateService) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (exchangeRateService.getRefreshStatus().getCurrencyCount() == 0) {
+            if (!exchangeRateService.refreshRates() && System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Stub rates were not loaded: "
+                        + exchangeRateService.getRefreshStatus().getLastError());
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Configuration
+    static class StubRatesConfig {
+
+        @Bean
+        @Primary
+        public WebClient stubRatesWebClient() {
+            return StubRates.webClient();
+        }
+    }
+}
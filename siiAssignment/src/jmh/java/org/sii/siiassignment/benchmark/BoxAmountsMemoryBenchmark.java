@@ -0,0 +1,84 @@
+package org.sii.siiassignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Footprint of the balances of many collection boxes: a {@code HashMap} from currency to {@link BigDecimal}, as the
+ * boxes held them before, against {@link BoxAmounts}. Each iteration builds the balances of {@code boxes} boxes and
+ * prints the heap they retain per box after a full GC. The decimal side gets a fresh currency string per entry,
+ * like a map filled from result set rows.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BoxAmountsMemoryBenchmark {
+
+    @Param({"decimalMap", "minorUnits"})
+    private String representation;
+
+    @Param({"1000000"})
+    private int boxes;
+
+    @Param({"2"})
+    private int currenciesPerBox;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private Object[] balances;
+    private long heapBefore;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        balances = null;
+        heapBefore = usedHeapAfterGc();
+    }
+
+    @Benchmark
+    public Object[] build() {
+        Random random = new Random(17);
+        Object[] built = new Object[boxes];
+        for (int i = 0; i < boxes; i++) {
+            if (representation.equals("minorUnits")) {
+                BoxAmounts amounts = new BoxAmounts();
+                for (int j = 0; j < currenciesPerBox; j++) {
+                    amounts.add(CurrencyCodes.pack(StubRates.CURRENCIES.get(j)), random.nextInt(1_000_000));
+                }
+                built[i] = amounts;
+            } else {
+                Map<String, BigDecimal> amounts = new HashMap<>();
+                for (int j = 0; j < currenciesPerBox; j++) {
+                    amounts.put(new String(StubRates.CURRENCIES.get(j)), BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+                }
+                built[i] = amounts;
+            }
+        }
+        balances = built;
+        return built;
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long retained = usedHeapAfterGc() - heapBefore;
+        System.out.printf("%n%s: %d bytes per box%n", representation, retained / Math.max(1, balances.length));
+        balances = null;
+    }
+
+    private long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,83 @@
+package org.sii.siiassignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.model.CollectionBox;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.repository.CollectionBoxRepository;
+import org.sii.siiassignment.service.BalanceLedger;
+import org.sii.siiassignment.service.CollectionBoxServiceImpl;
+import org.sii.siiassignment.service.DataVersion;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-box work done when listing and returning collection boxes: the emptiness check and the mapping
+ * to {@link CollectionBoxResponse}, for boxes holding between 1 and 20 currencies.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CollectionBoxBenchmark {
+
+    private static final int BOXES = 256;
+
+    @Param({"1", "5", "20"})
+    private int currenciesPerBox;
+
+    /** Empty boxes are the worst case for the emptiness check, which has to look at every amount. */
+    @Param({"false", "true"})
+    private boolean emptyBoxes;
+
+    private CollectionBox[] boxes;
+    private CollectionBoxServiceImpl collectionBoxService;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        Map<UUID, CollectionBox> boxesById = new HashMap<>();
+        boxes = new CollectionBox[BOXES];
+        for (int i = 0; i < BOXES; i++) {
+            CollectionBox box = new CollectionBox();
+            box.setId(UUID.randomUUID());
+            List<String> currencies = new ArrayList<>(StubRates.CURRENCIES);
+            Collections.shuffle(currencies, random);
+            for (String currency : currencies.subList(0, currenciesPerBox)) {
+                box.getAmounts().add(CurrencyCodes.pack(currency), emptyBoxes ? 0 : random.nextInt(50_000));
+            }
+            boxes[i] = box;
+            boxesById.put(box.getId(), box);
+        }
+
+        CollectionBoxRepository repository = (CollectionBoxRepository) Proxy.newProxyInstance(
+                CollectionBoxRepository.class.getClassLoader(),
+                new Class<?>[]{CollectionBoxRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return Optional.ofNullable(boxesById.get(args[0]));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        collectionBoxService = new CollectionBoxServiceImpl(repository, null, StubRates.exchangeRateService(), null, null, event -> {}, new BalanceLedger(null, null, null, new DataVersion()), null);
+    }
+
+    @Benchmark
+    public boolean isEmpty() {
+        return boxes[next()].isEmpty();
+    }
+
+    @Benchmark
+    public CollectionBoxResponse mapToCollectionBoxResponse() {
+        return collectionBoxService.getCollectionBoxById(boxes[next()].getId());
+    }
+
+    private int next() {
+        return index = (index + 1) & (BOXES - 1);
+    }
+}
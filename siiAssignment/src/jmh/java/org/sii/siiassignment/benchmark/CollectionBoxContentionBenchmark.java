@@ -0,0 +1,137 @@
+package org.sii.siiassignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.service.BalanceLedger;
+import org.sii.siiassignment.service.CollectionBoxService;
+import org.sii.siiassignment.service.DepositCoalescer;
+import org.sii.siiassignment.service.FundraisingEventService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent deposits and emptying against the real services and an H2 database, as many terminals
+ * and collectors would do during an event.
+ * <p>
+ * Every deposit is 1.00 EUR into a box assigned to a EUR event, so at the end of a trial the money in
+ * the boxes plus the money credited to the event must equal the money deposited; any difference is
+ * reported as lost updates. Run with several thread counts to see scaling, e.g.
+ * {@code -Djmh.args="CollectionBoxContentionBenchmark.deposit -t 8"} or, for the mixed workload of
+ * depositing terminals and emptying collectors, {@code -Djmh.args="CollectionBoxContentionBenchmark.mixed -tg 7,1"}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectionBoxContentionBenchmark {
+
+    private static final BigDecimal DEPOSIT = new BigDecimal("1.00");
+
+    /** "hot": a few popular boxes everyone deposits into, "cold": deposits spread over many boxes. */
+    @Param({"hot", "cold"})
+    private String keyDistribution;
+
+    /**
+     * "direct": one upsert transaction per deposit, "coalescing": concurrent deposits batched by the
+     * {@link DepositCoalescer}, "ledger": the in-memory {@link BalanceLedger} with write-behind persistence.
+     */
+    @Param({"direct", "coalescing", "ledger"})
+    private String depositPath;
+
+    private ConfigurableApplicationContext context;
+    private CollectionBoxService collectionBoxService;
+    private FundraisingEventService fundraisingEventService;
+    private UUID eventId;
+    private UUID[] boxIds;
+
+    private final LongAdder depositedCents = new LongAdder();
+    private final LongAdder failedDeposits = new LongAdder();
+    private final LongAdder failedEmpties = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "collection-box.coalescing.enabled=" + "coalescing".equals(depositPath),
+                "collection-box.ledger.enabled=" + "ledger".equals(depositPath));
+        collectionBoxService = context.getBean(CollectionBoxService.class);
+        fundraisingEventService = context.getBean(FundraisingEventService.class);
+
+        eventId = fundraisingEventService
+                .createFundraisingEvent(new CreateFundraisingEventRequest("Contention benchmark", "EUR"))
+                .getId();
+        boxIds = new UUID["hot".equals(keyDistribution) ? 4 : 4096];
+        for (int i = 0; i < boxIds.length; i++) {
+            UUID boxId = collectionBoxService.registerCollectionBox().getId();
+            collectionBoxService.assignCollectionBoxToEvent(boxId, eventId);
+            boxIds[i] = boxId;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.getBean(BalanceLedger.class).flushAll();
+        long inBoxes = 0;
+        for (UUID boxId : boxIds) {
+            BigDecimal amount = collectionBoxService.getCollectionBoxById(boxId).getAmounts().get("EUR");
+            inBoxes += amount == null ? 0 : amount.movePointRight(2).longValueExact();
+        }
+        long credited = fundraisingEventService.getFundraisingEventById(eventId)
+                .getAccountBalance().movePointRight(2).longValueExact();
+        long deposited = depositedCents.sum();
+
+        System.out.printf("%n[%s, %s] deposited=%d cents, in boxes=%d, credited to event=%d, lost updates=%d cents, "
+                        + "failed deposits=%d, failed empties=%d%n",
+                keyDistribution, depositPath, deposited, inBoxes, credited, deposited - inBoxes - credited,
+                failedDeposits.sum(), failedEmpties.sum());
+        context.close();
+    }
+
+    @Benchmark
+    public CollectionBoxResponse deposit() {
+        return depositIntoRandomBox();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public CollectionBoxResponse mixedDeposit() {
+        return depositIntoRandomBox();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public CollectionBoxResponse mixedEmpty() {
+        try {
+            return collectionBoxService.emptyCollectionBox(randomBox());
+        } catch (RuntimeException e) {
+            failedEmpties.increment();
+            return null;
+        }
+    }
+
+    private CollectionBoxResponse depositIntoRandomBox() {
+        try {
+            CollectionBoxResponse response = collectionBoxService.depositMoneyToCollectionBox(
+                    randomBox(), new DepositMoneyRequest("EUR", DEPOSIT));
+            depositedCents.add(100);
+            return response;
+        } catch (RuntimeException e) {
+            failedDeposits.increment();
+            return null;
+        }
+    }
+
+    private UUID randomBox() {
+        return boxIds[ThreadLocalRandom.current().nextInt(boxIds.length)];
+    }
+}
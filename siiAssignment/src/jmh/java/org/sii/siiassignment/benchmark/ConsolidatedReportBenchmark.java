@@ -0,0 +1,89 @@
+package org.sii.siiassignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.DTO.FundraisingEvent.ConsolidatedReportResponse;
+import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
+import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.repository.FundraisingEventRepository;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.sii.siiassignment.service.FinancialReportModel;
+import org.sii.siiassignment.service.FundraisingEventServiceImpl;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consolidated financial report for a growing number of events: bulk conversion against one rate snapshot
+ * (in parallel above {@code PARALLEL_CONVERSION_THRESHOLD} events) compared with converting row by row
+ * through {@link ExchangeRateService#getExchangeRate}. Divide the score by {@code eventCount} for the cost
+ * per event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsolidatedReportBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int eventCount;
+
+    private ExchangeRateService exchangeRateService;
+    private FundraisingEventServiceImpl fundraisingEventService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        List<FundraisingEvent> events = new ArrayList<>(eventCount);
+        Map<String, BigDecimal> totals = new HashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < eventCount; i++) {
+            FundraisingEvent event = new FundraisingEvent();
+            event.setId(UUID.randomUUID());
+            event.setName("Event " + i);
+            event.setAccountCurrency(StubRates.CURRENCIES.get(random.nextInt(StubRates.CURRENCIES.size())));
+            event.setAccountBalance(BigDecimal.valueOf(random.nextDouble() * 100_000).setScale(2, RoundingMode.HALF_UP));
+            event.setVersion(0L);
+            events.add(event);
+            totals.merge(event.getAccountCurrency(), event.getAccountBalance(), BigDecimal::add);
+            counts.merge(event.getAccountCurrency(), 1L, Long::sum);
+        }
+
+        FundraisingEventRepository repository = (FundraisingEventRepository) Proxy.newProxyInstance(
+                FundraisingEventRepository.class.getClassLoader(),
+                new Class<?>[]{FundraisingEventRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> events;
+                    case "sumAccountBalancesByCurrency" -> totals.entrySet().stream()
+                            .map(e -> new Object[]{e.getKey(), e.getValue(), counts.get(e.getKey())})
+                            .toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        FinancialReportModel reportModel = new FinancialReportModel(repository);
+        reportModel.rebuild();
+
+        exchangeRateService = StubRates.exchangeRateService();
+        fundraisingEventService = new FundraisingEventServiceImpl(
+                repository, exchangeRateService, null, reportModel, event -> {}, null);
+    }
+
+    @Benchmark
+    public ConsolidatedReportResponse consolidatedReport() {
+        return fundraisingEventService.getConsolidatedReport("PLN");
+    }
+
+    /** The conversion as it would be done without bulk support: one rate lookup per report row. */
+    @Benchmark
+    public BigDecimal perRowLookup() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (FinancialReportEntry entry : fundraisingEventService.getFinancialReport()) {
+            BigDecimal rate = exchangeRateService.getExchangeRate(entry.getCurrency(), "PLN");
+            total = total.add(entry.getAmount().multiply(rate).setScale(2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+}
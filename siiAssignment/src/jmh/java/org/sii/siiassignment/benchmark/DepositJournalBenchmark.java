@@ -0,0 +1,73 @@
+package org.sii.siiassignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.DepositJournal;
+import org.sii.siiassignment.journal.FsyncPolicy;
+import org.sii.siiassignment.journal.JournalState;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appending single deposits to the {@link DepositJournal} from several threads under each {@link FsyncPolicy}.
+ * With {@code GROUP} concurrent appends share one force, so its throughput should grow with the thread count
+ * while {@code ALWAYS} stays at one sync per append.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class DepositJournalBenchmark {
+
+    private static final int BOX_COUNT = 1_000;
+
+    @Param({"ALWAYS", "GROUP", "NONE"})
+    private FsyncPolicy fsync;
+
+    private Path directory;
+    private DepositJournal journal;
+    private UUID[] boxIds;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new DepositJournal();
+        DirectFieldAccessor fields = new DirectFieldAccessor(journal);
+        fields.setPropertyValue("enabled", true);
+        fields.setPropertyValue("directory", directory);
+        fields.setPropertyValue("segmentSize", 64 << 20);
+        fields.setPropertyValue("fsyncPolicy", fsync);
+
+        JournalState state = new JournalState();
+        boxIds = new UUID[BOX_COUNT];
+        for (int i = 0; i < BOX_COUNT; i++) {
+            boxIds[i] = UUID.randomUUID();
+            state.apply(BoxOperation.register(boxIds[i]));
+        }
+        journal.open(state, 0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long append() throws IOException {
+        UUID boxId = boxIds[ThreadLocalRandom.current().nextInt(BOX_COUNT)];
+        return journal.append(List.of(BoxOperation.deposit(boxId, "EUR", BigDecimal.ONE)));
+    }
+}
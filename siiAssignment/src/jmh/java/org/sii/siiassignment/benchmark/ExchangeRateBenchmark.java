@@ -0,0 +1,64 @@
+package org.sii.siiassignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.service.ExchangeRateService;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate lookups and currency validation as performed on every deposit, event creation and box emptying.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExchangeRateBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private ExchangeRateService exchangeRateService;
+    private String[] fromCurrencies;
+    private String[] toCurrencies;
+    private String[] codesToValidate;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        exchangeRateService = StubRates.exchangeRateService();
+
+        Random random = new Random(7);
+        fromCurrencies = new String[SAMPLES];
+        toCurrencies = new String[SAMPLES];
+        codesToValidate = new String[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            fromCurrencies[i] = randomCurrency(random);
+            toCurrencies[i] = randomCurrency(random);
+            // Mostly valid codes, with some unknown and malformed ones as seen from real clients
+            int kind = random.nextInt(10);
+            codesToValidate[i] = kind < 8 ? randomCurrency(random) : kind == 8 ? "ABC" : "eur";
+        }
+    }
+
+    @Benchmark
+    public BigDecimal getExchangeRate() {
+        int i = next();
+        return exchangeRateService.getExchangeRate(fromCurrencies[i], toCurrencies[i]);
+    }
+
+    @Benchmark
+    public boolean isCurrencySupported() {
+        return exchangeRateService.isCurrencySupported(codesToValidate[next()]);
+    }
+
+    private int next() {
+        return index = (index + 1) & (SAMPLES - 1);
+    }
+
+    private static String randomCurrency(Random random) {
+        return StubRates.CURRENCIES.get(random.nextInt(StubRates.CURRENCIES.size()));
+    }
+}
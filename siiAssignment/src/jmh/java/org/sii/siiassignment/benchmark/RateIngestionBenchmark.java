@@ -0,0 +1,71 @@
+package org.sii.siiassignment.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.rates.HttpRateProvider;
+import org.sii.siiassignment.rates.RateResponseParser;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning an ExchangeRate-API response with ~160 currencies into a {@link RateSnapshot}: binding it to a map of
+ * rates with an {@link ObjectMapper} as the rates used to be read, against the token-level
+ * {@link RateResponseParser}, and a whole refresh through the {@link HttpRateProvider} with a stubbed web client.
+ * Every variant includes building the snapshot's cross rates; {@code snapshotOnly} measures that part alone. Run
+ * with {@code -prof gc} for the bytes allocated per refresh ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RateIngestionBenchmark {
+
+    /** Configured like the mapper WebClient used to bind the response with. */
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private byte[] body;
+    private Map<String, BigDecimal> rates;
+    private HttpRateProvider provider;
+
+    private static class MapResponse {
+        @JsonProperty("conversion_rates")
+        private Map<String, BigDecimal> rates;
+    }
+
+    @Setup
+    public void setUp() {
+        body = StubRates.responseBody().getBytes(StandardCharsets.UTF_8);
+        rates = StubRates.rates();
+        provider = new HttpRateProvider(StubRates.webClient());
+        StubRates.setField(provider, "apiKey", "");
+    }
+
+    @Benchmark
+    public RateSnapshot bindToMap() throws IOException {
+        MapResponse response = objectMapper.readValue(body, MapResponse.class);
+        return RateSnapshot.of(response.rates, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public RateSnapshot streaming() throws IOException {
+        return RateResponseParser.parse(body, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public RateSnapshot providerFetch() {
+        return provider.fetch().block();
+    }
+
+    @Benchmark
+    public RateSnapshot snapshotOnly() {
+        return RateSnapshot.of(rates, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,124 @@
+package org.sii.siiassignment.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositItem;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.service.CollectionBoxService;
+import org.sii.siiassignment.service.FundraisingEventService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assigning boxes to an event and emptying them, with and without the Hibernate second-level cache for fundraising
+ * events. Each iteration calls the operation once for each of {@value #BOXES} prepared boxes and prints the SQL
+ * statements Hibernate prepared per call, and how many event lookups the cache answered. Statements run through
+ * {@code JdbcTemplate} are not counted, but neither operation uses it.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, batchSize = SecondLevelCacheBenchmark.BOXES)
+@Measurement(iterations = 3, batchSize = SecondLevelCacheBenchmark.BOXES)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecondLevelCacheBenchmark {
+
+    static final int BOXES = 2_000;
+
+    @Param({"false", "true"})
+    private boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private CollectionBoxService collectionBoxService;
+    private FundraisingEventService fundraisingEventService;
+    private Statistics statistics;
+    private UUID eventId;
+    private List<UUID> boxIds;
+    private int next;
+    private long statementsBefore;
+    private long cacheHitsBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache);
+        collectionBoxService = context.getBean(CollectionBoxService.class);
+        fundraisingEventService = context.getBean(FundraisingEventService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        eventId = fundraisingEventService
+                .createFundraisingEvent(new CreateFundraisingEventRequest("Second-level cache benchmark", "EUR"))
+                .getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Benchmark)
+    public static class UnassignedBoxes {
+
+        @Setup(Level.Iteration)
+        public void setUp(SecondLevelCacheBenchmark benchmark) {
+            benchmark.prepare(false);
+        }
+
+        @TearDown(Level.Iteration)
+        public void report(SecondLevelCacheBenchmark benchmark) {
+            benchmark.report("assign");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class AssignedBoxesWithMoney {
+
+        @Setup(Level.Iteration)
+        public void setUp(SecondLevelCacheBenchmark benchmark) {
+            benchmark.prepare(true);
+        }
+
+        @TearDown(Level.Iteration)
+        public void report(SecondLevelCacheBenchmark benchmark) {
+            benchmark.report("empty");
+        }
+    }
+
+    @Benchmark
+    public CollectionBoxResponse assign(UnassignedBoxes boxes) {
+        return collectionBoxService.assignCollectionBoxToEvent(boxIds.get(next++), eventId);
+    }
+
+    @Benchmark
+    public CollectionBoxResponse empty(AssignedBoxesWithMoney boxes) {
+        return collectionBoxService.emptyCollectionBox(boxIds.get(next++));
+    }
+
+    private void prepare(boolean assignedWithMoney) {
+        boxIds = collectionBoxService.registerCollectionBoxes(BOXES).getResults().stream()
+                .map(result -> result.getBoxId())
+                .toList();
+        if (assignedWithMoney) {
+            collectionBoxService.assignCollectionBoxesToEvent(boxIds, eventId);
+            collectionBoxService.depositMoneyBatch(boxIds.stream()
+                    .map(boxId -> new BatchDepositItem(boxId, "EUR", BigDecimal.ONE))
+                    .toList());
+        }
+        next = 0;
+        statementsBefore = statistics.getPrepareStatementCount();
+        cacheHitsBefore = statistics.getSecondLevelCacheHitCount();
+    }
+
+    private void report(String operation) {
+        double statements = (double) (statistics.getPrepareStatementCount() - statementsBefore) / next;
+        double cacheHits = (double) (statistics.getSecondLevelCacheHitCount() - cacheHitsBefore) / next;
+        System.out.printf("%n%s, second-level cache %s: %.2f SQL statements and %.2f cache hits per call%n",
+                operation, secondLevelCache ? "on" : "off", statements, cacheHits);
+    }
+}
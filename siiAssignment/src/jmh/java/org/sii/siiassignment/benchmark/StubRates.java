@@ -0,0 +1,106 @@
+package org.sii.siiassignment.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.sii.siiassignment.rates.HttpRateProvider;
+import org.sii.siiassignment.rates.RateProviderChain;
+import org.sii.siiassignment.rates.RateSnapshotStore;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Offline rate source for benchmarks: serves a fixed ExchangeRate-API style response with ~160
+ * currencies through a stubbed {@link WebClient}, so benchmarks exercise the real parsing and
+ * snapshot building code without network access.
+ */
+public final class StubRates {
+
+    public static final List<String> CURRENCIES = List.of(
+            "EUR", "USD", "PLN", "GBP", "JPY", "CHF", "AED", "AFN", "ALL", "AMD", "ANG", "AOA", "ARS", "AUD",
+            "AWG", "AZN", "BAM", "BBD", "BDT", "BGN", "BHD", "BIF", "BMD", "BND", "BOB", "BRL", "BSD", "BTN",
+            "BWP", "BYN", "BZD", "CAD", "CDF", "CLP", "CNY", "COP", "CRC", "CUP", "CVE", "CZK", "DJF", "DKK",
+            "DOP", "DZD", "EGP", "ERN", "ETB", "FJD", "FKP", "FOK", "GEL", "GGP", "GHS", "GIP", "GMD", "GNF",
+            "GTQ", "GYD", "HKD", "HNL", "HRK", "HTG", "HUF", "IDR", "ILS", "IMP", "INR", "IQD", "IRR", "ISK",
+            "JEP", "JMD", "JOD", "KES", "KGS", "KHR", "KID", "KMF", "KRW", "KWD", "KYD", "KZT", "LAK", "LBP",
+            "LKR", "LRD", "LSL", "LYD", "MAD", "MDL", "MGA", "MKD", "MMK", "MNT", "MOP", "MRU", "MUR", "MVR",
+            "MWK", "MXN", "MYR", "MZN", "NAD", "NGN", "NIO", "NOK", "NPR", "NZD", "OMR", "PAB", "PEN", "PGK",
+            "PHP", "PKR", "PYG", "QAR", "RON", "RSD", "RUB", "RWF", "SAR", "SBD", "SCR", "SDG", "SEK", "SGD",
+            "SHP", "SLE", "SLL", "SOS", "SRD", "SSP", "STN", "SYP", "SZL", "THB", "TJS", "TMT", "TND", "TOP",
+            "TRY", "TTD", "TVD", "TWD", "TZS", "UAH", "UGX", "UYU", "UZS", "VES", "VND", "VUV", "WST", "XAF",
+            "XCD", "XDR", "XOF", "XPF", "YER", "ZAR", "ZMW", "ZWL");
+
+    private StubRates() {
+    }
+
+    /**
+     * @return Deterministic rates against EUR for every code in {@link #CURRENCIES}.
+     */
+    public static Map<String, BigDecimal> rates() {
+        Random random = new Random(42);
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        for (String currency : CURRENCIES) {
+            rates.put(currency, currency.equals("EUR")
+                    ? BigDecimal.ONE
+                    : BigDecimal.valueOf(0.1 + random.nextDouble() * 20000).setScale(4, RoundingMode.HALF_UP));
+        }
+        return rates;
+    }
+
+    /**
+     * @return The rates rendered as an ExchangeRate-API {@code /latest/EUR} response body.
+     */
+    public static String responseBody() {
+        StringBuilder json = new StringBuilder("{\"result\":\"success\",\"base_code\":\"EUR\",\"conversion_rates\":{");
+        rates().forEach((currency, rate) -> json.append('"').append(currency).append("\":").append(rate.toPlainString()).append(','));
+        json.setCharAt(json.length() - 1, '}');
+        return json.append('}').toString();
+    }
+
+    public static WebClient webClient() {
+        String body = responseBody();
+        return WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(body)
+                        .build()))
+                .build();
+    }
+
+    /**
+     * @return An {@link ExchangeRateService} that has already loaded the stub rates.
+     */
+    public static ExchangeRateService exchangeRateService() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HttpRateProvider provider = new HttpRateProvider(webClient());
+        setField(provider, "apiKey", "");
+        setField(provider, "fetchTimeoutMillis", 5000L);
+        RateProviderChain chain = new RateProviderChain(List.of(provider), meterRegistry, List.of(HttpRateProvider.NAME), 3, 60_000);
+        ExchangeRateService service = new ExchangeRateService(chain, new RateSnapshotStore(), meterRegistry);
+        if (!service.refreshRates()) {
+            throw new IllegalStateException("Could not load stub rates: " + service.getRefreshStatus().getLastError());
+        }
+        return service;
+    }
+
+    static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + name + " on " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
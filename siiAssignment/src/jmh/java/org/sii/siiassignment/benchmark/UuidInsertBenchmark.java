@@ -0,0 +1,111 @@
+package org.sii.siiassignment.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.model.TimeOrderedUuidGenerator;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting collection boxes with random (version 4) ids against time-ordered (version 7) ids into a file-based H2
+ * database with the application's box and balance tables. Each iteration starts from an empty database and
+ * inserts {@code rows} boxes, each with balances in two currencies, in batches of {@code BATCH_SIZE}; divide
+ * {@code rows} by the score for rows per millisecond. After each iteration it prints the disk space the tables and
+ * their indexes take per box.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"random", "timeOrdered"})
+    private String idType;
+
+    @Param({"200000"})
+    private int rows;
+
+    private Path directory;
+    private Connection connection;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("uuid-bench");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("boxes"), "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE COLLECTION_BOX (id UUID PRIMARY KEY, fundraising_event_id UUID)");
+            statement.execute("CREATE INDEX COLLECTION_BOX_EVENT ON COLLECTION_BOX (fundraising_event_id)");
+            statement.execute("""
+                    CREATE TABLE COLLECTION_BOX_AMOUNTS (
+                        collection_box_id UUID NOT NULL,
+                        currency VARCHAR(3) NOT NULL,
+                        minor_units BIGINT NOT NULL,
+                        PRIMARY KEY (collection_box_id, currency),
+                        FOREIGN KEY (collection_box_id) REFERENCES COLLECTION_BOX (id)
+                    )""");
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        boolean timeOrdered = idType.equals("timeOrdered");
+        UUID event = UUID.randomUUID();
+        try (PreparedStatement boxes = connection.prepareStatement(
+                "INSERT INTO COLLECTION_BOX (id, fundraising_event_id) VALUES (?, ?)");
+             PreparedStatement amounts = connection.prepareStatement(
+                     "INSERT INTO COLLECTION_BOX_AMOUNTS (collection_box_id, currency, minor_units) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                UUID id = timeOrdered ? TimeOrderedUuidGenerator.next() : UUID.randomUUID();
+                boxes.setObject(1, id);
+                boxes.setObject(2, event);
+                boxes.addBatch();
+                for (String currency : new String[]{"EUR", "PLN"}) {
+                    amounts.setObject(1, id);
+                    amounts.setString(2, currency);
+                    amounts.setLong(3, i);
+                    amounts.addBatch();
+                }
+                if (i % BATCH_SIZE == 0 || i == rows) {
+                    boxes.executeBatch();
+                    amounts.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        return rows;
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() throws IOException, SQLException {
+        long boxBytes = diskSpaceUsed("COLLECTION_BOX");
+        long amountBytes = diskSpaceUsed("COLLECTION_BOX_AMOUNTS");
+        System.out.printf("%n%s: %d bytes per box (boxes %d, balances %d)%n",
+                idType, (boxBytes + amountBytes) / rows, boxBytes / rows, amountBytes / rows);
+        connection.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    private long diskSpaceUsed(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("CALL DISK_SPACE_USED('" + table + "')")) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
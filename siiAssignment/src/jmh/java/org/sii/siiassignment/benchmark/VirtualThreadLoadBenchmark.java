@@ -0,0 +1,163 @@
+package org.sii.siiassignment.benchmark;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.openjdk.jmh.annotations.*;
+import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.service.CollectionBoxService;
+import org.sii.siiassignment.service.FundraisingEventService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of the deposit endpoint over HTTP, with Tomcat's default pool of 200 platform request threads
+ * against a virtual thread per request ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * Every operation is a burst of {@code concurrency} simultaneous deposits, so the score is the time to serve
+ * the whole burst; divide {@code concurrency} by it for requests per millisecond. The concurrency at which that
+ * stops growing is the ceiling of the configuration. In virtual mode a JFR stream records every virtual thread
+ * that parks while pinned to its carrier, and the top application frames are printed after each trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadLoadBenchmark {
+
+    private static final int BOX_COUNT = 64;
+    private static final String DEPOSIT = "{\"currency\":\"EUR\",\"amount\":1.00}";
+
+    /** "platform": Tomcat's thread pool, "virtual": a virtual thread per request. */
+    @Param({"platform", "virtual"})
+    private String requestThreads;
+
+    /** "direct": a transaction per request, "coalescing": requests wait for a shared batch without a connection. */
+    @Param({"direct", "coalescing"})
+    private String depositPath;
+
+    @Param({"100", "400", "1600"})
+    private int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private RecordingStream pinnedEvents;
+    private URI[] depositUris;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder pinned = new LongAdder();
+    private final Map<String, LongAdder> pinnedAt = new ConcurrentHashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(requestThreads);
+        if (virtual) {
+            pinnedEvents = new RecordingStream();
+            pinnedEvents.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            pinnedEvents.onEvent("jdk.VirtualThreadPinned", event -> {
+                pinned.increment();
+                pinnedAt.computeIfAbsent(applicationFrame(event.getStackTrace().getFrames()), frame -> new LongAdder())
+                        .increment();
+            });
+            pinnedEvents.startAsync();
+        }
+
+        context = BenchmarkApplication.startServer(
+                "spring.threads.virtual.enabled=" + virtual,
+                "collection-box.coalescing.enabled=" + "coalescing".equals(depositPath));
+        CollectionBoxService collectionBoxService = context.getBean(CollectionBoxService.class);
+        UUID eventId = context.getBean(FundraisingEventService.class)
+                .createFundraisingEvent(new CreateFundraisingEventRequest("Load test", "EUR"))
+                .getId();
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        depositUris = new URI[BOX_COUNT];
+        for (int i = 0; i < BOX_COUNT; i++) {
+            UUID boxId = collectionBoxService.registerCollectionBox().getId();
+            collectionBoxService.assignCollectionBoxToEvent(boxId, eventId);
+            depositUris[i] = URI.create("http://localhost:" + port + "/api/collection-boxes/" + boxId + "/deposit");
+        }
+
+        // The client side always uses virtual threads, so it can keep any number of requests in flight.
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        client.close();
+        clientExecutor.close();
+
+        System.out.printf("%n[%s, %s, %d] requests=%d, failed=%d%n",
+                requestThreads, depositPath, concurrency, requests.sum(), failedRequests.sum());
+        if (pinnedEvents != null) {
+            pinnedEvents.close();
+            System.out.printf("pinned virtual threads=%d%n", pinned.sum());
+            pinnedAt.entrySet().stream()
+                    .sorted(Comparator.comparing((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                    .limit(5)
+                    .forEach(entry -> System.out.printf("  %6d at %s%n", entry.getValue().sum(), entry.getKey()));
+        }
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = HttpRequest.newBuilder(depositUris[ThreadLocalRandom.current().nextInt(BOX_COUNT)])
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(DEPOSIT))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int succeeded = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            try {
+                if (response.join().statusCode() == 200) {
+                    succeeded++;
+                } else {
+                    failedRequests.increment();
+                }
+            } catch (RuntimeException e) {
+                failedRequests.increment();
+            }
+        }
+        requests.add(concurrency);
+        return succeeded;
+    }
+
+    /**
+     * @return The innermost frame outside the JDK, or the innermost frame if there is none.
+     */
+    private static String applicationFrame(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> !frame.getMethod().getType().getName().matches("(java|javax|jdk|sun)\\..*"))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .orElse("unknown");
+    }
+}
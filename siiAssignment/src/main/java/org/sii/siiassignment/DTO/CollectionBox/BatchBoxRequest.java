@@ -0,0 +1,15 @@
+package org.sii.siiassignment.DTO.CollectionBox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBoxRequest {
+    private List<UUID> boxIds;
+}
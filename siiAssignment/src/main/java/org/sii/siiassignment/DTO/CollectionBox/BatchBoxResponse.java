@@ -0,0 +1,16 @@
+package org.sii.siiassignment.DTO.CollectionBox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBoxResponse {
+    private int accepted;
+    private int rejected;
+    private List<BatchBoxResult> results;
+}
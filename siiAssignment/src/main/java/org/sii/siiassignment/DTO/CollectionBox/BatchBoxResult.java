@@ -0,0 +1,26 @@
+package org.sii.siiassignment.DTO.CollectionBox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBoxResult {
+    /** Position of the box in the request. */
+    private int index;
+    private UUID boxId;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        ACCEPTED,
+        BOX_NOT_FOUND,
+        BOX_NOT_EMPTY,
+        ALREADY_ASSIGNED,
+        FAILED
+    }
+}
@@ -0,0 +1,17 @@
+package org.sii.siiassignment.DTO.CollectionBox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDepositItem {
+    private UUID boxId;
+    private String currency;
+    private BigDecimal amount;
+}
@@ -0,0 +1,14 @@
+package org.sii.siiassignment.DTO.CollectionBox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDepositRequest {
+    private List<BatchDepositItem> deposits;
+}
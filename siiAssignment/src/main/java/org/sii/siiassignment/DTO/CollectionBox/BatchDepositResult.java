@@ -0,0 +1,26 @@
+package org.sii.siiassignment.DTO.CollectionBox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchDepositResult {
+    /** Position of the item in the request. */
+    private int index;
+    private UUID boxId;
+    private Status status;
+    private String message;
+
+    public enum Status {
+        ACCEPTED,
+        INVALID_AMOUNT,
+        INVALID_CURRENCY,
+        BOX_NOT_FOUND,
+        FAILED
+    }
+}
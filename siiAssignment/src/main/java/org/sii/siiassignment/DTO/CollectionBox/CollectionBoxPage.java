@@ -0,0 +1,17 @@
+package org.sii.siiassignment.DTO.CollectionBox;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectionBoxPage {
+    private List<CollectionBoxSummaryResponse> boxes;
+    /** Id to pass as {@code after} to fetch the next page, or null if this is the last page. */
+    private UUID nextCursor;
+}
@@ -0,0 +1,27 @@
+package org.sii.siiassignment.DTO.ExchangeRate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.sii.siiassignment.rates.CircuitBreaker;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateStatusResponse {
+    private Instant lastRefreshTime;
+    private long refreshAgeMillis;
+    private boolean stale;
+    private int currencyCount;
+    private long consecutiveFailures;
+    private long totalFailures;
+    private String lastError;
+    /** Name of the provider the current rates came from. */
+    private String source;
+    /** State of the circuit breaker of each provider, in the order they are tried. */
+    private Map<String, CircuitBreaker.State> providers;
+}
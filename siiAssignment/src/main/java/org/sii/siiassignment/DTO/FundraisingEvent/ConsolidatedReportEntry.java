@@ -0,0 +1,18 @@
+package org.sii.siiassignment.DTO.FundraisingEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsolidatedReportEntry {
+    private String fundraisingEventName;
+    private BigDecimal amount;
+    private String currency;
+    /** The amount converted into the report currency. */
+    private BigDecimal convertedAmount;
+}
@@ -0,0 +1,17 @@
+package org.sii.siiassignment.DTO.FundraisingEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsolidatedReportResponse {
+    private String currency;
+    private BigDecimal total;
+    private List<ConsolidatedReportEntry> entries;
+}
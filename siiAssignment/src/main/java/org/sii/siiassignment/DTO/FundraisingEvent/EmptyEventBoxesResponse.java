@@ -0,0 +1,22 @@
+package org.sii.siiassignment.DTO.FundraisingEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmptyEventBoxesResponse {
+    private UUID eventId;
+    /** Money taken out of the event's boxes, per original currency. */
+    private Map<String, BigDecimal> collectedAmounts;
+    /** The collected money converted into the event's account currency. */
+    private BigDecimal creditedAmount;
+    private String accountCurrency;
+    private BigDecimal accountBalance;
+}
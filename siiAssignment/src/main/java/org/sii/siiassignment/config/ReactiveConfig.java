@@ -0,0 +1,62 @@
+package org.sii.siiassignment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * The {@code reactive} profile runs WebFlux on Netty with R2DBC next to JPA. Spring Boot would pick Tomcat, which is
+ * on the classpath for the servlet stack, and backs off from the JDBC data source when there is an R2DBC connection
+ * factory and from the JPA transaction manager when there is an R2DBC one, so all three are declared here. The JPA
+ * transaction manager stays the default for {@code @Transactional}; reactive code uses the auto-configured
+ * {@code TransactionalOperator} instead.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    @Value("${collection-box.ledger.enabled:false}")
+    private boolean ledgerEnabled;
+    @Value("${collection-box.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    /**
+     * The ledger and the coalescer hold deposits outside the database, where the reactive deposit and empty paths
+     * would not see them.
+     */
+    @PostConstruct
+    void checkDepositPath() {
+        if (ledgerEnabled || coalescingEnabled) {
+            throw new IllegalStateException("The reactive profile does not support collection-box.ledger.enabled "
+                    + "or collection-box.coalescing.enabled");
+        }
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory reactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
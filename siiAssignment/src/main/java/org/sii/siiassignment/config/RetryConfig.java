@@ -0,0 +1,13 @@
+package org.sii.siiassignment.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Enables {@code @Retryable} on service methods. The retry advice is ordered before the transaction
+ * advice, so every attempt runs in a fresh transaction.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
@@ -1,16 +1,36 @@
 package org.sii.siiassignment.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.Executor;
+
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * With {@code spring.threads.virtual.enabled} the client runs on the JDK HTTP client instead of the Reactor
+     * Netty event loop, which is otherwise used. Its exchanges then run on the application task executor, which
+     * Spring Boot backs with virtual threads in that mode and closes with the context.
+     */
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder()
-                .baseUrl("https://v6.exchangerate-api.com/v6/")
-                .build();
+    public WebClient webClient(@Value("${exchange.rate.api.base-url:https://v6.exchangerate-api.com/v6/}") String baseUrl,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                               @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                               ObjectProvider<Executor> applicationTaskExecutor) {
+        WebClient.Builder builder = WebClient.builder().baseUrl(baseUrl);
+        if (virtualThreads) {
+            builder.clientConnector(new JdkClientHttpConnector(HttpClient.newBuilder()
+                    .executor(applicationTaskExecutor.getObject())
+                    .build()));
+        }
+        return builder.build();
     }
-}
\ No newline at end of file
+}
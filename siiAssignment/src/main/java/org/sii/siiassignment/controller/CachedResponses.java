@@ -0,0 +1,87 @@
+package org.sii.siiassignment.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Serialized bodies of polled GET responses, tagged with a strong ETag built from a
+ * {@link org.sii.siiassignment.service.DataVersion DataVersion} tag. As long as the tag is unchanged, a poll is
+ * answered with the stored bytes, without querying or serializing again; a conditional poll is answered with
+ * {@code 304 Not Modified} by the controller before it gets here.
+ * <p>
+ * One body is kept per key (the endpoint and its parameters). The cache is cleared when it reaches
+ * {@value #MAX_ENTRIES} keys, which only happens when clients page through many different listings.
+ */
+@Component
+@RequiredArgsConstructor
+public class CachedResponses {
+
+    private static final int MAX_ENTRIES = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Cached> responses = new ConcurrentHashMap<>();
+
+    private record Cached(String eTag, HttpHeaders headers, byte[] body) {
+    }
+
+    public static String eTag(String versionTag) {
+        return "\"" + versionTag + "\"";
+    }
+
+    /**
+     * @param response Builds the response when no body is stored for the key and ETag; only the body and the
+     *                 headers of a {@code 200 OK} response are stored.
+     */
+    public ResponseEntity<byte[]> get(String key, String eTag, Supplier<ResponseEntity<?>> response) {
+        Cached cached = responses.get(key);
+        if (cached == null || !cached.eTag().equals(eTag)) {
+            cached = store(key, eTag, response.get());
+        }
+        return toResponse(cached);
+    }
+
+    /**
+     * Reactive variant of {@link #get(String, String, Supplier)}; {@code response} is only subscribed to when no
+     * body is stored for the key and ETag.
+     */
+    public Mono<ResponseEntity<byte[]>> get(String key, String eTag, Mono<? extends ResponseEntity<?>> response) {
+        Cached cached = responses.get(key);
+        if (cached != null && cached.eTag().equals(eTag)) {
+            return Mono.just(toResponse(cached));
+        }
+        return response.map(built -> toResponse(store(key, eTag, built)));
+    }
+
+    private Cached store(String key, String eTag, ResponseEntity<?> response) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(response.getBody());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize the response for " + key, e);
+        }
+        Cached cached = new Cached(eTag, HttpHeaders.readOnlyHttpHeaders(response.getHeaders()), body);
+        if (responses.size() >= MAX_ENTRIES) {
+            responses.clear();
+        }
+        responses.put(key, cached);
+        return cached;
+    }
+
+    private static ResponseEntity<byte[]> toResponse(Cached cached) {
+        return ResponseEntity.ok()
+                .headers(cached.headers())
+                .eTag(cached.eTag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cached.body());
+    }
+}
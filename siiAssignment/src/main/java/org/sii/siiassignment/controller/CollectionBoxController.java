@@ -2,23 +2,38 @@
 package org.sii.siiassignment.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxRequest;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositRequest;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResponse;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxPage;
 import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
 import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxSummaryResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchRegisterRequest;
 import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
+import org.sii.siiassignment.exception.InvalidRequestException;
 import org.sii.siiassignment.service.CollectionBoxService;
+import org.sii.siiassignment.service.DataVersion;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/collection-boxes")
 @RequiredArgsConstructor
 public class CollectionBoxController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final CollectionBoxService collectionBoxService;
+    private final DataVersion dataVersion;
+    private final CachedResponses cachedResponses;
 
     /**
      * Endpoint 2: Register a new collection box.
@@ -31,14 +46,53 @@ public class CollectionBoxController {
     }
 
     /**
-     * Endpoint 3: List all collection boxes.
+     * Register many new collection boxes at once, e.g. when deploying boxes for a city-wide event.
+     * @param request The number of boxes to register.
+     * @return The ids of the registered boxes, in the results.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchBoxResponse> registerCollectionBoxes(@RequestBody BatchRegisterRequest request) {
+        BatchBoxResponse response = collectionBoxService.registerCollectionBoxes(request.getCount());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    /**
+     * Endpoint 3: List collection boxes, one page at a time, ordered by id.
      * Includes information if the box is assigned and if it is empty, without exposing sensitive details.
-     * @return A list of collection boxes with limited information.
+     * If there are more boxes, the {@value #NEXT_CURSOR_HEADER} response header holds the value to pass as
+     * {@code after} to get the next page. The response carries an ETag that changes with the boxes; a request
+     * whose {@code If-None-Match} holds the current one gets 304 Not Modified.
+     * @param assigned Only boxes that are (or are not) assigned to a fundraising event.
+     * @param empty Only boxes that are (or are not) empty.
+     * @param eventId Only boxes assigned to this fundraising event.
+     * @param after Cursor returned with the previous page.
+     * @param limit Maximum number of boxes to return.
+     * @return A list of collection boxes with limited information, as {@link CollectionBoxSummaryResponse} JSON.
      */
     @GetMapping
-    public ResponseEntity<List<CollectionBoxSummaryResponse>> listCollectionBoxes() {
-        List<CollectionBoxSummaryResponse> boxes = collectionBoxService.listAllCollectionBoxes();
-        return ResponseEntity.ok(boxes);
+    public ResponseEntity<byte[]> listCollectionBoxes(
+            @RequestParam(required = false) Boolean assigned,
+            @RequestParam(required = false) Boolean empty,
+            @RequestParam(required = false) UUID eventId,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request) {
+        String eTag = CachedResponses.eTag(dataVersion.tag(DataVersion.Scope.COLLECTION_BOXES));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return cachedResponses.get(listingKey(assigned, empty, eventId, after, limit), eTag, () -> {
+            CollectionBoxPage page = collectionBoxService.listCollectionBoxes(assigned, empty, eventId, after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+            }
+            return response.body(page.getBoxes());
+        });
+    }
+
+    static String listingKey(Boolean assigned, Boolean empty, UUID eventId, UUID after, int limit) {
+        return "boxes?assigned=" + assigned + "&empty=" + empty + "&eventId=" + eventId + "&after=" + after + "&limit=" + limit;
     }
 
     /**
@@ -52,6 +106,18 @@ public class CollectionBoxController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Unregister many collection boxes at once.
+     * Every box is removed or rejected on its own; the response lists the outcome per box, in request order.
+     * @param request The ids of the boxes to unregister.
+     * @return The per-box results.
+     */
+    @PostMapping("/batch/unregister")
+    public ResponseEntity<BatchBoxResponse> unregisterCollectionBoxes(@RequestBody BatchBoxRequest request) {
+        BatchBoxResponse response = collectionBoxService.unregisterCollectionBoxes(requireBoxIds(request));
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Endpoint 5: Assign the collection box to an existing fundraising event.
      * @param boxId The ID of the collection box.
@@ -64,6 +130,19 @@ public class CollectionBoxController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Assign many collection boxes to an existing fundraising event at once.
+     * Every box is assigned or rejected on its own; the response lists the outcome per box, in request order.
+     * @param eventId The ID of the fundraising event.
+     * @param request The ids of the boxes to assign.
+     * @return The per-box results.
+     */
+    @PutMapping("/batch/assign/{eventId}")
+    public ResponseEntity<BatchBoxResponse> assignCollectionBoxesToEvent(@PathVariable UUID eventId, @RequestBody BatchBoxRequest request) {
+        BatchBoxResponse response = collectionBoxService.assignCollectionBoxesToEvent(requireBoxIds(request), eventId);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Endpoint 6: Put (add) some money inside the collection box.
      * @param boxId The ID of the collection box.
@@ -76,6 +155,21 @@ public class CollectionBoxController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Put money into many collection boxes at once, e.g. when reconciling a counting day.
+     * Every item is accepted or rejected on its own; the response lists the outcome per item, in request order.
+     * @param request The deposits to make.
+     * @return The per-item results.
+     */
+    @PostMapping("/deposits")
+    public ResponseEntity<BatchDepositResponse> depositMoneyBatch(@RequestBody BatchDepositRequest request) {
+        if (request.getDeposits() == null || request.getDeposits().isEmpty()) {
+            throw new InvalidRequestException("At least one deposit is required.");
+        }
+        BatchDepositResponse response = collectionBoxService.depositMoneyBatch(request.getDeposits());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Endpoint 7: Empty the collection box.
      * Transfers money from the box to the fundraising event's account.
@@ -87,4 +181,11 @@ public class CollectionBoxController {
         CollectionBoxResponse response = collectionBoxService.emptyCollectionBox(boxId);
         return ResponseEntity.ok(response);
     }
+
+    private static List<UUID> requireBoxIds(BatchBoxRequest request) {
+        if (request.getBoxIds() == null || request.getBoxIds().isEmpty()) {
+            throw new InvalidRequestException("At least one box id is required.");
+        }
+        return request.getBoxIds();
+    }
 }
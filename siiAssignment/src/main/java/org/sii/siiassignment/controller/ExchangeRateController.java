@@ -0,0 +1,26 @@
+package org.sii.siiassignment.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.ExchangeRate.ExchangeRateStatusResponse;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/exchange-rates")
+@RequiredArgsConstructor
+public class ExchangeRateController {
+
+    private final ExchangeRateService exchangeRateService;
+
+    /**
+     * Reports the state of the background exchange rate refresh, for monitoring and alerting.
+     * @return Age of the cached rates and refresh failure counters.
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ExchangeRateStatusResponse> getRefreshStatus() {
+        return ResponseEntity.ok(exchangeRateService.getRefreshStatus());
+    }
+}
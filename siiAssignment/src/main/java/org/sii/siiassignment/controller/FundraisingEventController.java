@@ -1,22 +1,32 @@
 package org.sii.siiassignment.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.FundraisingEvent.ConsolidatedReportResponse;
 import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.EmptyEventBoxesResponse;
 import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
 import org.sii.siiassignment.DTO.FundraisingEvent.FundraisingEventResponse;
+import org.sii.siiassignment.service.DataVersion;
+import org.sii.siiassignment.service.ExchangeRateService;
 import org.sii.siiassignment.service.FundraisingEventService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.util.UUID;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/fundraising-events")
 @RequiredArgsConstructor
 public class FundraisingEventController {
 
     private final FundraisingEventService fundraisingEventService;
+    private final ExchangeRateService exchangeRateService;
+    private final DataVersion dataVersion;
+    private final CachedResponses cachedResponses;
 
     /**
      * Endpoint 1: Create a new fundraising event.
@@ -29,13 +39,47 @@ public class FundraisingEventController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    /**
+     * Empty every collection box assigned to the fundraising event in one operation, e.g. when the event closes.
+     * Transfers the money from all boxes to the event's account.
+     * @param id The ID of the fundraising event.
+     * @return The amounts collected per currency and the event's new balance.
+     */
+    @PutMapping("/{id}/empty-boxes")
+    public ResponseEntity<EmptyEventBoxesResponse> emptyAllCollectionBoxes(@PathVariable UUID id) {
+        EmptyEventBoxesResponse response = fundraisingEventService.emptyAllCollectionBoxes(id);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Endpoint 8: Display a financial report with all fundraising events and the sum of their accounts.
-     * @return A list of financial report entries.
+     * The response carries an ETag that changes with the events; a request whose {@code If-None-Match} holds the
+     * current one gets 304 Not Modified.
+     * @return A list of financial report entries, as {@link FinancialReportEntry} JSON.
      */
     @GetMapping("/report")
-    public ResponseEntity<List<FinancialReportEntry>> getFinancialReport() {
-        List<FinancialReportEntry> report = fundraisingEventService.getFinancialReport();
-        return ResponseEntity.ok(report);
+    public ResponseEntity<byte[]> getFinancialReport(WebRequest request) {
+        String eTag = CachedResponses.eTag(dataVersion.tag(DataVersion.Scope.FUNDRAISING_EVENTS));
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return cachedResponses.get("report", eTag, () -> ResponseEntity.ok(fundraisingEventService.getFinancialReport()));
+    }
+
+    /**
+     * Financial report with every event's balance also converted into one currency, plus the grand total.
+     * Its ETag also changes when new exchange rates are fetched.
+     * @param currency ISO 4217 code of the currency to convert into.
+     * @return The converted report, as {@link ConsolidatedReportResponse} JSON.
+     */
+    @GetMapping(value = "/report", params = "currency")
+    public ResponseEntity<byte[]> getConsolidatedReport(@RequestParam String currency, WebRequest request) {
+        String eTag = CachedResponses.eTag(dataVersion.tag(DataVersion.Scope.FUNDRAISING_EVENTS)
+                + "-" + exchangeRateService.getSnapshot().getFetchedAt());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return cachedResponses.get("report?currency=" + currency, eTag,
+                () -> ResponseEntity.ok(fundraisingEventService.getConsolidatedReport(currency)));
     }
 }
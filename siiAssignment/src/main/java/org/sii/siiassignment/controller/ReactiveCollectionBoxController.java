@@ -0,0 +1,114 @@
+package org.sii.siiassignment.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxRequest;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositRequest;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResponse;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchRegisterRequest;
+import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
+import org.sii.siiassignment.exception.InvalidRequestException;
+import org.sii.siiassignment.service.DataVersion;
+import org.sii.siiassignment.service.ReactiveCollectionBoxService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * The endpoints of {@link CollectionBoxController} on WebFlux, for the {@code reactive} profile.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/collection-boxes")
+@RequiredArgsConstructor
+public class ReactiveCollectionBoxController {
+
+    private final ReactiveCollectionBoxService collectionBoxService;
+    private final DataVersion dataVersion;
+    private final CachedResponses cachedResponses;
+
+    @PostMapping
+    public Mono<ResponseEntity<CollectionBoxResponse>> registerCollectionBox() {
+        return collectionBoxService.registerCollectionBox()
+                .map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<BatchBoxResponse>> registerCollectionBoxes(@RequestBody BatchRegisterRequest request) {
+        return collectionBoxService.registerCollectionBoxes(request.getCount())
+                .map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<byte[]>> listCollectionBoxes(
+            @RequestParam(required = false) Boolean assigned,
+            @RequestParam(required = false) Boolean empty,
+            @RequestParam(required = false) UUID eventId,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int limit,
+            ServerWebExchange exchange) {
+        String eTag = CachedResponses.eTag(dataVersion.tag(DataVersion.Scope.COLLECTION_BOXES));
+        if (exchange.checkNotModified(eTag)) {
+            return Mono.empty();
+        }
+        String key = CollectionBoxController.listingKey(assigned, empty, eventId, after, limit);
+        return cachedResponses.get(key, eTag, collectionBoxService.listCollectionBoxes(assigned, empty, eventId, after, limit).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(CollectionBoxController.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+            }
+            return response.body(page.getBoxes());
+        }));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> unregisterCollectionBox(@PathVariable UUID id) {
+        return collectionBoxService.unregisterCollectionBox(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @PostMapping("/batch/unregister")
+    public Mono<ResponseEntity<BatchBoxResponse>> unregisterCollectionBoxes(@RequestBody BatchBoxRequest request) {
+        if (request.getBoxIds() == null || request.getBoxIds().isEmpty()) {
+            return Mono.error(new InvalidRequestException("At least one box id is required."));
+        }
+        return collectionBoxService.unregisterCollectionBoxes(request.getBoxIds()).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{boxId}/assign/{eventId}")
+    public Mono<ResponseEntity<CollectionBoxResponse>> assignCollectionBoxToEvent(@PathVariable UUID boxId, @PathVariable UUID eventId) {
+        return collectionBoxService.assignCollectionBoxToEvent(boxId, eventId).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/batch/assign/{eventId}")
+    public Mono<ResponseEntity<BatchBoxResponse>> assignCollectionBoxesToEvent(@PathVariable UUID eventId, @RequestBody BatchBoxRequest request) {
+        if (request.getBoxIds() == null || request.getBoxIds().isEmpty()) {
+            return Mono.error(new InvalidRequestException("At least one box id is required."));
+        }
+        return collectionBoxService.assignCollectionBoxesToEvent(request.getBoxIds(), eventId).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{boxId}/deposit")
+    public Mono<ResponseEntity<CollectionBoxResponse>> depositMoneyToCollectionBox(@PathVariable UUID boxId, @RequestBody DepositMoneyRequest request) {
+        return collectionBoxService.depositMoneyToCollectionBox(boxId, request).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/deposits")
+    public Mono<ResponseEntity<BatchDepositResponse>> depositMoneyBatch(@RequestBody BatchDepositRequest request) {
+        if (request.getDeposits() == null || request.getDeposits().isEmpty()) {
+            return Mono.error(new InvalidRequestException("At least one deposit is required."));
+        }
+        return collectionBoxService.depositMoneyBatch(request.getDeposits()).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{boxId}/empty")
+    public Mono<ResponseEntity<CollectionBoxResponse>> emptyCollectionBox(@PathVariable UUID boxId) {
+        return collectionBoxService.emptyCollectionBox(boxId).map(ResponseEntity::ok);
+    }
+}
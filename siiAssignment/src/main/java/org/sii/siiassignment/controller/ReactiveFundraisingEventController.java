@@ -0,0 +1,64 @@
+package org.sii.siiassignment.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.EmptyEventBoxesResponse;
+import org.sii.siiassignment.DTO.FundraisingEvent.FundraisingEventResponse;
+import org.sii.siiassignment.service.DataVersion;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.sii.siiassignment.service.ReactiveFundraisingEventService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * The endpoints of {@link FundraisingEventController} on WebFlux, for the {@code reactive} profile.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/fundraising-events")
+@RequiredArgsConstructor
+public class ReactiveFundraisingEventController {
+
+    private final ReactiveFundraisingEventService fundraisingEventService;
+    private final ExchangeRateService exchangeRateService;
+    private final DataVersion dataVersion;
+    private final CachedResponses cachedResponses;
+
+    @PostMapping
+    public Mono<ResponseEntity<FundraisingEventResponse>> createFundraisingEvent(@RequestBody CreateFundraisingEventRequest request) {
+        return fundraisingEventService.createFundraisingEvent(request)
+                .map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+
+    @PutMapping("/{id}/empty-boxes")
+    public Mono<ResponseEntity<EmptyEventBoxesResponse>> emptyAllCollectionBoxes(@PathVariable UUID id) {
+        return fundraisingEventService.emptyAllCollectionBoxes(id).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/report")
+    public Mono<ResponseEntity<byte[]>> getFinancialReport(ServerWebExchange exchange) {
+        String eTag = CachedResponses.eTag(dataVersion.tag(DataVersion.Scope.FUNDRAISING_EVENTS));
+        if (exchange.checkNotModified(eTag)) {
+            return Mono.empty();
+        }
+        return cachedResponses.get("report", eTag, fundraisingEventService.getFinancialReport().map(ResponseEntity::ok));
+    }
+
+    @GetMapping(value = "/report", params = "currency")
+    public Mono<ResponseEntity<byte[]>> getConsolidatedReport(@RequestParam String currency, ServerWebExchange exchange) {
+        return exchangeRateService.rates().flatMap(rates -> {
+            String eTag = CachedResponses.eTag(dataVersion.tag(DataVersion.Scope.FUNDRAISING_EVENTS) + "-" + rates.getFetchedAt());
+            if (exchange.checkNotModified(eTag)) {
+                return Mono.empty();
+            }
+            return cachedResponses.get("report?currency=" + currency, eTag,
+                    fundraisingEventService.getConsolidatedReport(currency).map(ResponseEntity::ok));
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package org.sii.siiassignment.exception;
+
+/**
+ * A deposit that was not confirmed in time, so it may or may not have been applied.
+ */
+public class DepositTimeoutException extends RuntimeException {
+    public DepositTimeoutException(String message) {
+        super(message);
+    }
+}
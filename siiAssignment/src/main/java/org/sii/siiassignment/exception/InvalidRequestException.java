@@ -0,0 +1,10 @@
+package org.sii.siiassignment.exception;
+
+/**
+ * A request body that is malformed as a whole, such as a batch without items.
+ */
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,39 @@
+package org.sii.siiassignment.journal;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A change to a collection box as recorded in the {@link DepositJournal}. Balance changes are recorded as
+ * deltas, so replaying them gives the same balances whatever order concurrent operations were journaled in.
+ *
+ * @param eventId  The event the box is assigned to ({@link Type#ASSIGN}) or was emptied into ({@link Type#WITHDRAW}).
+ * @param currency Null unless the operation changes a balance.
+ * @param amount   Null unless the operation changes a balance; always positive.
+ */
+public record BoxOperation(Type type, UUID boxId, UUID eventId, String currency, BigDecimal amount) {
+
+    public enum Type {
+        REGISTER, UNREGISTER, ASSIGN, DEPOSIT, WITHDRAW
+    }
+
+    public static BoxOperation register(UUID boxId) {
+        return new BoxOperation(Type.REGISTER, boxId, null, null, null);
+    }
+
+    public static BoxOperation unregister(UUID boxId) {
+        return new BoxOperation(Type.UNREGISTER, boxId, null, null, null);
+    }
+
+    public static BoxOperation assign(UUID boxId, UUID eventId) {
+        return new BoxOperation(Type.ASSIGN, boxId, eventId, null, null);
+    }
+
+    public static BoxOperation deposit(UUID boxId, String currency, BigDecimal amount) {
+        return new BoxOperation(Type.DEPOSIT, boxId, null, currency, amount);
+    }
+
+    public static BoxOperation withdraw(UUID boxId, UUID eventId, String currency, BigDecimal amount) {
+        return new BoxOperation(Type.WITHDRAW, boxId, eventId, currency, amount);
+    }
+}
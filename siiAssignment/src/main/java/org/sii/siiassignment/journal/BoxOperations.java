@@ -0,0 +1,14 @@
+package org.sii.siiassignment.journal;
+
+import java.util.List;
+
+/**
+ * Published by the services for every change to collection boxes. The {@link DepositJournal} records the
+ * operations once the transaction making them commits, all of them with a single sync to disk.
+ */
+public record BoxOperations(List<BoxOperation> operations) {
+
+    public static BoxOperations of(BoxOperation operation) {
+        return new BoxOperations(List.of(operation));
+    }
+}
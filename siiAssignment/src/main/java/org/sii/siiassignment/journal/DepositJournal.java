@@ -0,0 +1,375 @@
+package org.sii.siiassignment.journal;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only record of every committed change to collection boxes, enabled with
+ * {@code collection-box.journal.enabled}.
+ * <p>
+ * Entries are appended sequentially to memory-mapped segment files of {@code collection-box.journal.segment-size-bytes},
+ * each entry framed by its length and a CRC32C so that a write torn by a crash is detected on replay. When entries
+ * are forced to disk is governed by the {@link FsyncPolicy}. The journal also keeps the resulting {@link JournalState}
+ * in memory and periodically writes it to a snapshot file, so that replay only has to read the entries appended
+ * after the latest snapshot. Old segments are kept as the audit trail.
+ * <p>
+ * The journal is opened by {@link JournalRecovery} at startup, after it has been replayed.
+ */
+@Slf4j
+@Component
+public class DepositJournal {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    /** Length and CRC preceding every entry; a zero length marks the end of the written part of a segment. */
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final ByteBuffer encodeBuffer = ByteBuffer.allocate(JournalEntry.MAX_ENCODED_SIZE);
+    private final CRC32C crc = new CRC32C();
+    @Value("${collection-box.journal.enabled:false}")
+    private boolean enabled;
+    @Value("${collection-box.journal.directory:journal}")
+    private Path directory;
+    @Value("${collection-box.journal.segment-size-bytes:16777216}")
+    private int segmentSize;
+    @Value("${collection-box.journal.fsync:GROUP}")
+    private FsyncPolicy fsyncPolicy;
+    private JournalState state;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private long lastSequence;
+    private volatile long durableSequence;
+    private volatile boolean open;
+
+    public record Replay(Optional<JournalState.Snapshot> snapshot, JournalState state, long lastSequence) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rebuilds the state from the latest valid snapshot and the entries appended after it. A torn or corrupt
+     * entry ends its segment; replay stops at the first gap in the sequence and everything before it is used.
+     *
+     * @return The replayed state, or an empty state with no snapshot if the journal has never been written.
+     */
+    public Replay replay() throws IOException {
+        Files.createDirectories(directory);
+        Optional<JournalState.Snapshot> snapshot = readLatestSnapshot();
+        JournalState replayed = snapshot.map(found -> found.state().copy()).orElseGet(JournalState::new);
+        long snapshotSequence = snapshot.map(JournalState.Snapshot::sequence).orElse(0L);
+
+        long[] last = {snapshotSequence};
+        List<Path> segments = listFiles(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            boolean coveredBySnapshot = i + 1 < segments.size()
+                    && firstSequenceOf(segments.get(i + 1)) <= snapshotSequence + 1;
+            if (coveredBySnapshot) {
+                continue;
+            }
+            if (!readSegment(segments.get(i), entry -> replayed.apply(entry.operation()), last)) {
+                break;
+            }
+        }
+        return new Replay(snapshot, replayed, last[0]);
+    }
+
+    /**
+     * Starts appending to a new segment after the given sequence number, with the given state as the
+     * result of all entries up to it.
+     */
+    public void open(JournalState recovered, long sequence) throws IOException {
+        appendLock.lock();
+        try {
+            state = recovered;
+            lastSequence = sequence;
+            durableSequence = sequence;
+            startSegment(sequence + 1);
+            open = true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Journals the operations of a committed transaction. A failure to journal is logged rather than thrown:
+     * the operations have already been committed, and failing the request would make the client repeat them.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBoxOperations(BoxOperations operations) {
+        if (!enabled) {
+            return;
+        }
+        if (!open) {
+            log.error("Journal is not open, {} operations were not journaled: {}",
+                    operations.operations().size(), operations.operations());
+            return;
+        }
+        try {
+            append(operations.operations());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to journal {} operations: {}", operations.operations().size(), operations.operations(), e);
+        }
+    }
+
+    /**
+     * Appends the operations and, unless the policy is {@link FsyncPolicy#NONE}, returns once they are on disk.
+     *
+     * @return The sequence number of the last appended entry.
+     */
+    public long append(List<BoxOperation> operations) throws IOException {
+        if (operations.isEmpty()) {
+            return lastSequence;
+        }
+        long sequence;
+        appendLock.lock();
+        try {
+            if (!open) {
+                throw new IllegalStateException("Journal is not open");
+            }
+            long timestamp = System.currentTimeMillis();
+            for (BoxOperation operation : operations) {
+                write(new JournalEntry(lastSequence + 1, timestamp, operation));
+                lastSequence++;
+                state.apply(operation);
+            }
+            sequence = lastSequence;
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                segment.force();
+                durableSequence = sequence;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            awaitDurable(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Writes the current state to a snapshot file and deletes older snapshots. The entries the snapshot covers
+     * are forced to disk first, so the journal never has a gap before a snapshot.
+     */
+    @Scheduled(initialDelayString = "${collection-box.journal.snapshot-interval-ms:300000}",
+            fixedDelayString = "${collection-box.journal.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!open) {
+            return;
+        }
+        JournalState copy;
+        long sequence;
+        appendLock.lock();
+        try {
+            copy = state.copy();
+            sequence = lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            awaitDurable(sequence);
+            writeSnapshot(copy, sequence);
+        } catch (IOException e) {
+            log.warn("Failed to write journal snapshot at sequence {}: {}", sequence, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given state at the given sequence number and deletes older snapshots.
+     */
+    public void writeSnapshot(JournalState snapshotState, long sequence) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(fileName(SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        snapshotState.writeSnapshot(file, sequence);
+        for (Path older : listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (!older.equals(file)) {
+                Files.deleteIfExists(older);
+            }
+        }
+        log.info("Wrote journal snapshot of {} boxes at sequence {}", snapshotState.boxes().size(), sequence);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            open = false;
+            segment.force();
+            durableSequence = lastSequence;
+            segmentChannel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Group commit: the first waiting thread forces everything appended so far, and threads whose entries
+     * that force covered return without forcing again.
+     */
+    private void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long covered;
+            MappedByteBuffer current;
+            appendLock.lock();
+            try {
+                covered = lastSequence;
+                current = segment;
+            } finally {
+                appendLock.unlock();
+            }
+            // Earlier segments were forced when they were rolled over.
+            current.force();
+            durableSequence = covered;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void write(JournalEntry entry) throws IOException {
+        encodeBuffer.clear();
+        entry.writeTo(encodeBuffer);
+        encodeBuffer.flip();
+        int length = encodeBuffer.remaining();
+        // Leave room for the zero length that marks the end of the segment.
+        if (segment.remaining() < FRAME_HEADER_SIZE + length + Integer.BYTES) {
+            segment.force();
+            segmentChannel.close();
+            startSegment(entry.sequence());
+        }
+        crc.reset();
+        crc.update(encodeBuffer.duplicate());
+        segment.putInt(length);
+        segment.putInt((int) crc.getValue());
+        segment.put(encodeBuffer);
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(fileName(SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        // A segment with this name can only exist if the previous run crashed before writing a valid entry to it.
+        segmentChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    /**
+     * Reads the entries of a segment in order, skipping those up to {@code last[0]} and advancing it. A torn or
+     * corrupt entry ends the segment; the next run continues in a new segment from the last valid entry.
+     *
+     * @return false if entries are missing between {@code last[0]} and the rest of the segment, after which
+     * nothing can be replayed.
+     */
+    private boolean readSegment(Path file, Consumer<JournalEntry> consumer, long[] last) throws IOException {
+        if (firstSequenceOf(file) > last[0] + 1) {
+            log.error("Journal segment {} starts after sequence {}, entries are missing; stopping replay", file, last[0] + 1);
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C entryCrc = new CRC32C();
+            while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+                int length = buffer.getInt();
+                if (length == 0) {
+                    break;
+                }
+                int storedCrc = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    log.warn("Journal segment {} ends with a torn entry after sequence {}", file, last[0]);
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                entryCrc.reset();
+                entryCrc.update(payload.duplicate());
+                if ((int) entryCrc.getValue() != storedCrc) {
+                    log.warn("Journal segment {} has a corrupt entry after sequence {}", file, last[0]);
+                    break;
+                }
+                JournalEntry entry = JournalEntry.readFrom(payload);
+                if (entry.sequence() <= last[0]) {
+                    continue;
+                }
+                if (entry.sequence() != last[0] + 1) {
+                    log.error("Journal segment {} jumps from sequence {} to {}; stopping replay", file, last[0], entry.sequence());
+                    return false;
+                }
+                consumer.accept(entry);
+                last[0] = entry.sequence();
+            }
+            return true;
+        }
+    }
+
+    private Optional<JournalState.Snapshot> readLatestSnapshot() throws IOException {
+        List<Path> snapshots = new ArrayList<>(listFiles(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX));
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                return Optional.of(JournalState.readSnapshot(snapshots.get(i)));
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable journal snapshot {}: {}", snapshots.get(i), e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return The files with the given prefix and suffix, in sequence order.
+     */
+    private List<Path> listFiles(String prefix, String suffix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSequenceOf(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static String fileName(String prefix, long sequence, String suffix) {
+        // Zero-padded so that files sort by sequence.
+        return String.format("%s%020d%s", prefix, sequence, suffix);
+    }
+}
@@ -0,0 +1,16 @@
+package org.sii.siiassignment.journal;
+
+/**
+ * When journal writes are forced to disk, set with {@code collection-box.journal.fsync}.
+ */
+public enum FsyncPolicy {
+    /** Every append is forced to disk before the next one is written. */
+    ALWAYS,
+    /**
+     * Appending threads wait until their entries are on disk, but one force covers every entry appended
+     * before it, so concurrent appends share a sync (group commit).
+     */
+    GROUP,
+    /** Entries are written to the page cache only and reach the disk when the OS writes them back. */
+    NONE
+}
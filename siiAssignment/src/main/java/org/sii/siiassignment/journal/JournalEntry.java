@@ -0,0 +1,88 @@
+package org.sii.siiassignment.journal;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * A journaled {@link BoxOperation} with its position in the journal and the time it was appended.
+ * <p>
+ * Binary layout, big-endian: sequence (8), timestamp (8), type (1), flags (1), box id (16), then the event
+ * id (16), the currency (1-byte length + ASCII) and the amount (4-byte scale + 1-byte length + unscaled
+ * two's-complement bytes), each only if its flag is set.
+ */
+public record JournalEntry(long sequence, long timestamp, BoxOperation operation) {
+
+    /** Upper bound of the encoded size of an entry. */
+    static final int MAX_ENCODED_SIZE = 8 + 8 + 1 + 1 + 16 + 16 + 1 + 255 + 4 + 1 + 255;
+
+    private static final int HAS_EVENT = 1;
+    private static final int HAS_CURRENCY = 2;
+    private static final int HAS_AMOUNT = 4;
+    private static final BoxOperation.Type[] TYPES = BoxOperation.Type.values();
+
+    void writeTo(ByteBuffer buffer) {
+        byte[] currency = operation.currency() == null ? null : operation.currency().getBytes(StandardCharsets.US_ASCII);
+        byte[] unscaled = operation.amount() == null ? null : operation.amount().unscaledValue().toByteArray();
+        if ((currency != null && currency.length > 255) || (unscaled != null && unscaled.length > 255)) {
+            throw new IllegalArgumentException("Operation too large to journal: " + operation);
+        }
+
+        buffer.putLong(sequence);
+        buffer.putLong(timestamp);
+        buffer.put((byte) operation.type().ordinal());
+        buffer.put((byte) ((operation.eventId() != null ? HAS_EVENT : 0)
+                | (currency != null ? HAS_CURRENCY : 0)
+                | (unscaled != null ? HAS_AMOUNT : 0)));
+        putUuid(buffer, operation.boxId());
+        if (operation.eventId() != null) {
+            putUuid(buffer, operation.eventId());
+        }
+        if (currency != null) {
+            buffer.put((byte) currency.length);
+            buffer.put(currency);
+        }
+        if (unscaled != null) {
+            buffer.putInt(operation.amount().scale());
+            buffer.put((byte) unscaled.length);
+            buffer.put(unscaled);
+        }
+    }
+
+    /**
+     * @throws RuntimeException If the bytes do not hold a valid entry.
+     */
+    static JournalEntry readFrom(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        long timestamp = buffer.getLong();
+        BoxOperation.Type type = TYPES[buffer.get()];
+        int flags = buffer.get();
+        UUID boxId = getUuid(buffer);
+        UUID eventId = (flags & HAS_EVENT) != 0 ? getUuid(buffer) : null;
+        String currency = null;
+        if ((flags & HAS_CURRENCY) != 0) {
+            byte[] bytes = new byte[Byte.toUnsignedInt(buffer.get())];
+            buffer.get(bytes);
+            currency = new String(bytes, StandardCharsets.US_ASCII);
+        }
+        BigDecimal amount = null;
+        if ((flags & HAS_AMOUNT) != 0) {
+            int scale = buffer.getInt();
+            byte[] unscaled = new byte[Byte.toUnsignedInt(buffer.get())];
+            buffer.get(unscaled);
+            amount = new BigDecimal(new BigInteger(unscaled), scale);
+        }
+        return new JournalEntry(sequence, timestamp, new BoxOperation(type, boxId, eventId, currency, amount));
+    }
+
+    static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,112 @@
+package org.sii.siiassignment.journal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Replays the {@link DepositJournal} on startup, before the application accepts requests.
+ * <p>
+ * On the very first start the journal is seeded with a snapshot of the database. Afterwards only the latest snapshot
+ * and the entries after it are read, not the database. With {@code collection-box.journal.recovery=VERIFY} the
+ * replayed state is also compared with every box in the database and the boxes that differ are reported. The
+ * journal is appended after each commit, so it can lag behind the database if an append fails; it is never written
+ * back to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JournalRecovery implements SmartInitializingSingleton {
+
+    private static final int REPORTED_MISMATCHES = 10;
+
+    private final DepositJournal depositJournal;
+    private final CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+    @Value("${collection-box.journal.recovery:NONE}")
+    private Mode mode;
+
+    public enum Mode {
+        /** Only replay the journal. */
+        NONE,
+        /** Also read the database and report boxes that differ from the journal. */
+        VERIFY
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!depositJournal.isEnabled()) {
+            return;
+        }
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover the collection box journal", e);
+        }
+    }
+
+    public void recover() throws IOException {
+        long started = System.nanoTime();
+        DepositJournal.Replay replay = depositJournal.replay();
+        long replayMillis = (System.nanoTime() - started) / 1_000_000;
+
+        if (replay.snapshot().isEmpty()) {
+            // Nothing to replay yet: the database is where the journal starts.
+            JournalState database = loadDatabaseState();
+            log.info("No journal snapshot found, starting the journal from the {} boxes in the database at sequence {}",
+                    database.boxes().size(), replay.lastSequence());
+            depositJournal.writeSnapshot(database, replay.lastSequence());
+            depositJournal.open(database, replay.lastSequence());
+            return;
+        }
+
+        JournalState journaled = replay.state();
+        log.info("Replayed the journal up to sequence {} ({} boxes) in {} ms",
+                replay.lastSequence(), journaled.boxes().size(), replayMillis);
+        if (mode == Mode.VERIFY) {
+            verify(journaled);
+        }
+        depositJournal.open(journaled, replay.lastSequence());
+    }
+
+    private void verify(JournalState journaled) {
+        long started = System.nanoTime();
+        JournalState database = loadDatabaseState();
+        Set<UUID> mismatched = findMismatches(journaled, database);
+        log.info("Compared the journal with the {} boxes in the database in {} ms",
+                database.boxes().size(), (System.nanoTime() - started) / 1_000_000);
+        if (!mismatched.isEmpty()) {
+            log.warn("{} collection boxes differ from the journal, e.g. {}", mismatched.size(),
+                    mismatched.stream().limit(REPORTED_MISMATCHES).toList());
+        }
+    }
+
+    private JournalState loadDatabaseState() {
+        JournalState state = new JournalState();
+        collectionBoxAmountJdbcRepository.findAllBalances(balance ->
+                state.put(balance.boxId(), balance.eventId(), balance.currency(), balance.minorUnits()));
+        return state;
+    }
+
+    private static Set<UUID> findMismatches(JournalState journaled, JournalState database) {
+        Set<UUID> mismatched = new HashSet<>();
+        journaled.boxes().forEach((boxId, box) -> {
+            if (!Objects.equals(box, database.boxes().get(boxId))) {
+                mismatched.add(boxId);
+            }
+        });
+        database.boxes().keySet().stream()
+                .filter(boxId -> !journaled.boxes().containsKey(boxId))
+                .forEach(mismatched::add);
+        return mismatched;
+    }
+}
@@ -0,0 +1,195 @@
+package org.sii.siiassignment.journal;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The state of all collection boxes as recorded by the journal: which event each box is assigned to and how
+ * much it holds per currency, in minor units. Zero balances are dropped, so two states holding the same money
+ * compare equal. Not thread-safe.
+ */
+public class JournalState {
+
+    private static final int SNAPSHOT_MAGIC = 0x4a534e50; // "JSNP"
+    /** Format 1 stored amounts as decimals; it is still read. */
+    private static final int LEGACY_SNAPSHOT_FORMAT = 1;
+    private static final int SNAPSHOT_FORMAT = 2;
+
+    private final Map<UUID, Box> boxes = new HashMap<>();
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static final class Box {
+        private UUID eventId;
+        private final BoxAmounts amounts = new BoxAmounts();
+
+        private void add(int currency, long minorUnits) {
+            amounts.add(currency, minorUnits);
+            if (amounts.get(currency) == 0) {
+                amounts.remove(currency);
+            }
+        }
+
+        private void add(String currency, BigDecimal amount) {
+            int code = CurrencyCodes.pack(currency);
+            add(code, CurrencyCodes.toMinorUnits(amount, code));
+        }
+    }
+
+    public record Snapshot(long sequence, JournalState state) {
+    }
+
+    public Map<UUID, Box> boxes() {
+        return Collections.unmodifiableMap(boxes);
+    }
+
+    public void apply(BoxOperation operation) {
+        switch (operation.type()) {
+            case REGISTER -> boxes.putIfAbsent(operation.boxId(), new Box());
+            case UNREGISTER -> boxes.remove(operation.boxId());
+            case ASSIGN -> box(operation.boxId()).eventId = operation.eventId();
+            case DEPOSIT -> box(operation.boxId()).add(operation.currency(), operation.amount());
+            case WITHDRAW -> box(operation.boxId()).add(operation.currency(), operation.amount().negate());
+        }
+    }
+
+    /**
+     * Adds a box, or a balance of a box, as read from the database. Used to build the first snapshot.
+     *
+     * @param currency {@link CurrencyCodes#INVALID} for a box without any balance.
+     */
+    public void put(UUID boxId, UUID eventId, int currency, long minorUnits) {
+        Box box = box(boxId);
+        box.eventId = eventId;
+        if (currency != CurrencyCodes.INVALID) {
+            box.add(currency, minorUnits);
+        }
+    }
+
+    public JournalState copy() {
+        JournalState copy = new JournalState();
+        boxes.forEach((boxId, box) -> {
+            Box boxCopy = copy.box(boxId);
+            boxCopy.eventId = box.eventId;
+            boxCopy.amounts.addAll(box.amounts);
+        });
+        return copy;
+    }
+
+    /**
+     * Writes the state to a temporary file, forces it to disk and then moves it into place, so a snapshot
+     * file is either complete or absent. The file ends with a CRC32C of its contents.
+     */
+    public void writeSnapshot(Path file, long sequence) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream fileOut = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(fileOut, crc)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeLong(sequence);
+            out.writeInt(boxes.size());
+            for (Map.Entry<UUID, Box> entry : boxes.entrySet()) {
+                writeUuid(out, entry.getKey());
+                Box box = entry.getValue();
+                out.writeBoolean(box.eventId != null);
+                if (box.eventId != null) {
+                    writeUuid(out, box.eventId);
+                }
+                out.writeShort(box.amounts.size());
+                for (int i = 0; i < box.amounts.size(); i++) {
+                    out.writeShort(box.amounts.currencyAt(i));
+                    out.writeLong(box.amounts.minorUnitsAt(i));
+                }
+            }
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(crc.getValue());
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @throws IOException If the file cannot be read or is not a complete, valid snapshot.
+     */
+    public static Snapshot readSnapshot(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream fileIn = new BufferedInputStream(Files.newInputStream(file));
+             DataInputStream in = new DataInputStream(new CheckedInputStream(fileIn, crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a journal snapshot: " + file);
+            }
+            int format = in.readInt();
+            if (format != SNAPSHOT_FORMAT && format != LEGACY_SNAPSHOT_FORMAT) {
+                throw new IOException("Unsupported journal snapshot format " + format + ": " + file);
+            }
+            long sequence = in.readLong();
+            JournalState state = new JournalState();
+            int boxCount = in.readInt();
+            for (int i = 0; i < boxCount; i++) {
+                Box box = state.box(readUuid(in));
+                if (in.readBoolean()) {
+                    box.eventId = readUuid(in);
+                }
+                int amountCount = in.readUnsignedShort();
+                for (int j = 0; j < amountCount; j++) {
+                    if (format == SNAPSHOT_FORMAT) {
+                        box.add(in.readUnsignedShort(), in.readLong());
+                        continue;
+                    }
+                    String currency = in.readUTF();
+                    int scale = in.readInt();
+                    byte[] unscaled = new byte[in.readUnsignedShort()];
+                    in.readFully(unscaled);
+                    box.add(currency, new BigDecimal(new BigInteger(unscaled), scale));
+                }
+            }
+            long expectedCrc = crc.getValue();
+            if (new DataInputStream(fileIn).readLong() != expectedCrc) {
+                throw new IOException("Journal snapshot is corrupt: " + file);
+            }
+            return new Snapshot(sequence, state);
+        }
+    }
+
+    private Box box(UUID boxId) {
+        return boxes.computeIfAbsent(boxId, id -> new Box());
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -2,9 +2,12 @@ package org.sii.siiassignment.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.proxy.HibernateProxy;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
 
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -18,7 +21,8 @@ import java.util.UUID;
 @Entity
 public class CollectionBox {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -26,30 +30,43 @@ public class CollectionBox {
     @ToString.Exclude
     private FundraisingEvent fundraisingEvent;
 
+    /**
+     * The balances as stored in {@code collection_box_amounts}: minor units per currency code, loaded with the box.
+     * They are only ever changed there with set-based statements, which is why the collection is read-only.
+     */
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "collection_box_amounts", joinColumns = @JoinColumn(name = "collection_box_id"))
-    @MapKeyColumn(name = "currency")
-    @Column(name = "amount")
-    private Map<String, BigDecimal> amounts = new HashMap<>();
+    @MapKeyColumn(name = "currency", length = 3)
+    @Column(name = "minor_units", nullable = false)
+    @Immutable
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private Map<String, Long> minorUnits = new HashMap<>();
 
-    public boolean isEmpty() {
-        if (amounts == null || amounts.isEmpty()) {
-            return true;
+    /** The balances in the packed form the services work with, built from {@link #minorUnits} on first use. */
+    @Transient
+    private BoxAmounts amounts;
+
+    @Version
+    private Long version;
+
+    public BoxAmounts getAmounts() {
+        if (amounts == null) {
+            amounts = new BoxAmounts();
+            minorUnits.forEach((currency, units) -> amounts.add(CurrencyCodes.pack(currency), units));
         }
+        return amounts;
+    }
 
-        return amounts.values().stream().allMatch(amount -> amount == null || amount.compareTo(BigDecimal.ZERO) == 0);
+    public boolean isEmpty() {
+        return getAmounts().isEmpty();
     }
 
     public boolean isAssigned() {
         return this.fundraisingEvent != null;
     }
 
-    public void clearAmounts() {
-        if (this.amounts != null) {
-            this.amounts.clear();
-        }
-    }
-
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -2,28 +2,42 @@ package org.sii.siiassignment.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UuidGenerator;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.math.BigDecimal;
 import java.util.Objects;
 import java.util.UUID;
 
+/**
+ * Kept in the second-level cache (see {@code ehcache.xml}), so looking an event up by id, or through the lazy
+ * association of a collection box, does not query the database. Events must therefore only be changed through
+ * Hibernate, which updates the cache when the transaction commits.
+ */
 @Getter
 @Setter
 @ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class FundraisingEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedValue
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     private String name;
     private String accountCurrency;
     private BigDecimal accountBalance;
 
+    @Version
+    private Long version;
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
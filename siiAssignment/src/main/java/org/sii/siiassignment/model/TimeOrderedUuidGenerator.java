@@ -0,0 +1,39 @@
+package org.sii.siiassignment.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates version 7 UUIDs (RFC 9562): the first 48 bits are the Unix time in milliseconds, so ids created later
+ * sort later and new rows are appended at the end of the primary and foreign key indexes instead of landing on
+ * random pages. The 12 bits after the version are a counter, which keeps ids created in the same millisecond in
+ * order too; the remaining 62 bits are random.
+ * <p>
+ * Used by the entities through {@link org.hibernate.annotations.UuidGenerator}, and directly where boxes are
+ * inserted without Hibernate.
+ */
+public class TimeOrderedUuidGenerator implements UuidValueGenerator {
+
+    private static final int COUNTER_BITS = 12;
+
+    /** Unix millis and counter of the last id, as {@code millis << 12 | counter}. */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return next();
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        // A counter that runs out within a millisecond carries into the timestamp, which stays close to the clock.
+        long stamp = LAST.updateAndGet(last -> Math.max(last + 1, now));
+        long mostSignificant = (stamp >>> COUNTER_BITS) << 16 | 0x7000L | (stamp & 0xfffL);
+        long leastSignificant = ThreadLocalRandom.current().nextLong() & 0x3fffffffffffffffL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,170 @@
+package org.sii.siiassignment.money;
+
+import org.sii.siiassignment.exception.InvalidCurrencyException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The balances of a collection box: a number of minor units per {@link CurrencyCodes currency code}, held in two
+ * parallel primitive arrays sorted by code. A box with two currencies takes about 80 bytes this way, where a map
+ * from currency strings to {@link BigDecimal} takes over 250. Amounts are only turned into decimals at the
+ * API boundary, with {@link #toDecimalMap()}.
+ * <p>
+ * Balances of zero are kept until {@link #remove removed}, but {@link #isEmpty()} ignores them. Not thread-safe.
+ */
+public final class BoxAmounts {
+
+    private static final short[] NO_CURRENCIES = new short[0];
+    private static final long[] NO_AMOUNTS = new long[0];
+
+    private short[] currencies = NO_CURRENCIES;
+    private long[] minorUnits = NO_AMOUNTS;
+    private int size;
+
+    /**
+     * @throws InvalidCurrencyException If a key is not a three-letter currency code.
+     * @throws org.sii.siiassignment.exception.InvalidAmountException If an amount does not fit its currency's minor unit.
+     */
+    public static BoxAmounts of(Map<String, BigDecimal> amounts) {
+        BoxAmounts box = new BoxAmounts();
+        amounts.forEach((currency, amount) -> {
+            int code = CurrencyCodes.pack(currency);
+            if (code == CurrencyCodes.INVALID) {
+                throw new InvalidCurrencyException("Unsupported or invalid currency code: " + currency);
+            }
+            box.add(code, CurrencyCodes.toMinorUnits(amount, code));
+        });
+        return box;
+    }
+
+    /**
+     * @return The number of currencies held, including those with a balance of zero.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int currencyAt(int index) {
+        return currencies[index];
+    }
+
+    public long minorUnitsAt(int index) {
+        return minorUnits[index];
+    }
+
+    /**
+     * @return The balance in the currency, or 0 if the box holds none.
+     */
+    public long get(int currency) {
+        int index = indexOf(currency);
+        return index < 0 ? 0 : minorUnits[index];
+    }
+
+    /**
+     * Adds to the balance in the currency, which may be negative to subtract.
+     *
+     * @throws ArithmeticException If the balance overflows.
+     */
+    public void add(int currency, long amount) {
+        int index = indexOf(currency);
+        if (index >= 0) {
+            minorUnits[index] = Math.addExact(minorUnits[index], amount);
+            return;
+        }
+        index = -index - 1;
+        if (size == currencies.length) {
+            int capacity = Math.max(2, size * 2);
+            currencies = Arrays.copyOf(currencies, capacity);
+            minorUnits = Arrays.copyOf(minorUnits, capacity);
+        }
+        System.arraycopy(currencies, index, currencies, index + 1, size - index);
+        System.arraycopy(minorUnits, index, minorUnits, index + 1, size - index);
+        currencies[index] = (short) currency;
+        minorUnits[index] = amount;
+        size++;
+    }
+
+    public void addAll(BoxAmounts other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.currencies[i], other.minorUnits[i]);
+        }
+    }
+
+    public void remove(int currency) {
+        int index = indexOf(currency);
+        if (index >= 0) {
+            System.arraycopy(currencies, index + 1, currencies, index, size - index - 1);
+            System.arraycopy(minorUnits, index + 1, minorUnits, index, size - index - 1);
+            size--;
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return True if no currency has a balance other than zero.
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < size; i++) {
+            if (minorUnits[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public BoxAmounts copy() {
+        BoxAmounts copy = new BoxAmounts();
+        if (size > 0) {
+            copy.currencies = Arrays.copyOf(currencies, size);
+            copy.minorUnits = Arrays.copyOf(minorUnits, size);
+            copy.size = size;
+        }
+        return copy;
+    }
+
+    /**
+     * @return The balances as decimals by currency, in alphabetical order of the currencies.
+     */
+    public Map<String, BigDecimal> toDecimalMap() {
+        Map<String, BigDecimal> amounts = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            amounts.put(CurrencyCodes.unpack(currencies[i]), CurrencyCodes.toDecimal(minorUnits[i], currencies[i]));
+        }
+        return amounts;
+    }
+
+    private int indexOf(int currency) {
+        return Arrays.binarySearch(currencies, 0, size, (short) currency);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BoxAmounts other
+                && Arrays.equals(currencies, 0, size, other.currencies, 0, other.size)
+                && Arrays.equals(minorUnits, 0, size, other.minorUnits, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * (31 * hash + currencies[i]) + Long.hashCode(minorUnits[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            text.append(i == 0 ? "" : ", ").append(CurrencyCodes.unpack(currencies[i])).append('=').append(minorUnits[i]);
+        }
+        return text.append('}').toString();
+    }
+}
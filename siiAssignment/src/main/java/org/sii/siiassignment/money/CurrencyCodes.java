@@ -0,0 +1,110 @@
+package org.sii.siiassignment.money;
+
+import org.sii.siiassignment.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * Currencies as small integer codes and amounts as whole numbers of a currency's minor unit.
+ * <p>
+ * A three-letter code packs into {@code (c0 - 'A') * 676 + (c1 - 'A') * 26 + (c2 - 'A')}, a dense number below
+ * {@link #COUNT} that fits in a {@code short} and sorts like the letters do. The minor unit is the ISO 4217 one
+ * known to {@link Currency}: cents for EUR (exponent 2), yen for JPY (0), fils for KWD (3); codes the JDK does
+ * not know are given exponent 2.
+ */
+public final class CurrencyCodes {
+
+    /** Number of possible codes; every packed code is below it. */
+    public static final int COUNT = 26 * 26 * 26;
+    /** Returned by {@link #pack} for anything that is not three upper-case letters. */
+    public static final int INVALID = -1;
+
+    private static final byte[] EXPONENTS = new byte[COUNT];
+    private static final String[] NAMES = new String[COUNT];
+
+    static {
+        Arrays.fill(EXPONENTS, (byte) 2);
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            int code = pack(currency.getCurrencyCode());
+            if (code != INVALID && currency.getDefaultFractionDigits() >= 0) {
+                EXPONENTS[code] = (byte) currency.getDefaultFractionDigits();
+            }
+        }
+    }
+
+    private CurrencyCodes() {
+    }
+
+    /**
+     * @return The packed code, or {@link #INVALID} if the currency is not three letters from A to Z.
+     */
+    public static int pack(String currency) {
+        if (currency == null || currency.length() != 3) {
+            return INVALID;
+        }
+        int code = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = currency.charAt(i) - 'A';
+            if (letter < 0 || letter >= 26) {
+                return INVALID;
+            }
+            code = code * 26 + letter;
+        }
+        return code;
+    }
+
+    /**
+     * Variant of {@link #pack(String)} for a code held in a character buffer, such as a parser's, without creating
+     * a string.
+     */
+    public static int pack(char[] chars, int offset, int length) {
+        if (length != 3) {
+            return INVALID;
+        }
+        int code = 0;
+        for (int i = offset; i < offset + 3; i++) {
+            int letter = chars[i] - 'A';
+            if (letter < 0 || letter >= 26) {
+                return INVALID;
+            }
+            code = code * 26 + letter;
+        }
+        return code;
+    }
+
+    public static String unpack(int code) {
+        String name = NAMES[code];
+        if (name == null) {
+            // Racing threads build equal strings; either may end up cached.
+            name = new String(new char[]{(char) ('A' + code / 676), (char) ('A' + code / 26 % 26), (char) ('A' + code % 26)});
+            NAMES[code] = name;
+        }
+        return name;
+    }
+
+    /**
+     * @return The number of decimal places of the currency's minor unit.
+     */
+    public static int exponent(int code) {
+        return EXPONENTS[code];
+    }
+
+    /**
+     * @throws InvalidAmountException If the amount has more decimal places than the currency's minor unit,
+     *                                or too many minor units to count in a {@code long}.
+     */
+    public static long toMinorUnits(BigDecimal amount, int code) {
+        try {
+            return amount.movePointRight(exponent(code)).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException("Amount " + amount.toPlainString() + " cannot be held in " + unpack(code)
+                    + ", which has " + exponent(code) + " decimal places.");
+        }
+    }
+
+    public static BigDecimal toDecimal(long minorUnits, int code) {
+        return BigDecimal.valueOf(minorUnits, exponent(code));
+    }
+}
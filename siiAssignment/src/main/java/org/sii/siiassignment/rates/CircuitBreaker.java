@@ -0,0 +1,77 @@
+package org.sii.siiassignment.rates;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for one {@link RateProvider}. After {@code failureThreshold} consecutive failures the circuit opens
+ * and calls are rejected without reaching the provider for {@code openMillis}. The first call after that is let
+ * through as a trial: it closes the circuit if it succeeds and opens it again if it fails. Other calls are rejected
+ * while the trial runs.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    /**
+     * @param clock Current time in milliseconds.
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return True if the call may go ahead; it must then be followed by {@link #onSuccess}, {@link #onFailure} or
+     * {@link #onCancel}.
+     */
+    public synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (clock.getAsLong() - openedAt < openMillis) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            failures = 0;
+        }
+    }
+
+    /**
+     * Ends a call that was abandoned before it had a result, so that a trial call does not keep the circuit half
+     * open; the next call is then let through as a new trial.
+     */
+    public synchronized void onCancel() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
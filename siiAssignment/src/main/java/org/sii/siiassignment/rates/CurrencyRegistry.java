@@ -0,0 +1,80 @@
+package org.sii.siiassignment.rates;
+
+import org.sii.siiassignment.money.CurrencyCodes;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of supported currencies with dense ids, built together with each {@link RateSnapshot}.
+ * <p>
+ * A currency is looked up by its {@link CurrencyCodes#pack packed code}: a bitset with one bit for each of the
+ * 26³ possible codes tells whether it is supported, and a table indexed by the same code holds its dense id.
+ * Checking a currency is therefore a few arithmetic operations and two array reads, without hashing or allocating.
+ */
+public final class CurrencyRegistry {
+
+    public static final CurrencyRegistry EMPTY = new CurrencyRegistry(new String[0]);
+
+    private final long[] supported = new long[(CurrencyCodes.COUNT + 63) >>> 6];
+    private final short[] ids;
+    private final String[] currencies;
+
+    private CurrencyRegistry(String[] currencies) {
+        this.currencies = currencies;
+        this.ids = new short[currencies.length == 0 ? 0 : CurrencyCodes.COUNT];
+        for (int id = 0; id < currencies.length; id++) {
+            int code = CurrencyCodes.pack(currencies[id]);
+            if (code == CurrencyCodes.INVALID || isSupported(code)) {
+                throw new IllegalArgumentException("Invalid or duplicate currency code: " + currencies[id]);
+            }
+            supported[code >>> 6] |= 1L << code;
+            ids[code] = (short) id;
+        }
+    }
+
+    /**
+     * @param currencies Three-letter codes, each given the id of its position in the list.
+     * @throws IllegalArgumentException If a code is not three upper-case letters or appears twice.
+     */
+    public static CurrencyRegistry of(List<String> currencies) {
+        return new CurrencyRegistry(currencies.toArray(new String[0]));
+    }
+
+    /**
+     * @return The packed code of the currency, or {@link CurrencyCodes#INVALID} if it is not supported.
+     */
+    public int codeOf(String currency) {
+        int code = CurrencyCodes.pack(currency);
+        return code != CurrencyCodes.INVALID && isSupported(code) ? code : CurrencyCodes.INVALID;
+    }
+
+    public boolean contains(String currency) {
+        return codeOf(currency) != CurrencyCodes.INVALID;
+    }
+
+    /**
+     * @return Dense id of the currency, or -1 if it is not supported.
+     */
+    public int idOf(String currency) {
+        int code = codeOf(currency);
+        return code == CurrencyCodes.INVALID ? -1 : ids[code];
+    }
+
+    public String currencyOf(int id) {
+        return currencies[id];
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+
+    private boolean isSupported(int code) {
+        return (supported[code >>> 6] & (1L << code)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(currencies);
+    }
+}
@@ -0,0 +1,168 @@
+package org.sii.siiassignment.rates;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.sii.siiassignment.exception.ExchangeRateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rates read from the local file {@code exchange.rate.file.path}, against a common base. A {@code .csv} file holds
+ * one {@code CODE,rate} line per currency, with optional {@code #} comments and a {@code currency,rate} header; any
+ * other file is JSON, either an ExchangeRate-API response or a plain object of codes to rates. Disabled when the
+ * path is empty.
+ * <p>
+ * The file is read at startup and again whenever it changes, as reported by a {@link WatchService} on its
+ * directory; every successful reload publishes a {@link RateSourceChanged}. A file that cannot be read or parsed
+ * is logged and the rates read before are kept. The rates are dated with the file's modification time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileRateProvider implements RateProvider {
+
+    public static final String NAME = "file";
+
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    @Value("${exchange.rate.file.path:}")
+    private String path;
+    private volatile RateSnapshot rates;
+    private volatile String loadError;
+    private WatchService watchService;
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Path file = Path.of(path).toAbsolutePath();
+        reload(file);
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(() -> watch(file), "rate-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !path.isEmpty();
+    }
+
+    @Override
+    public Duration timeout() {
+        return Duration.ofSeconds(1);
+    }
+
+    @Override
+    public Mono<RateSnapshot> fetch() {
+        return Mono.fromCallable(() -> {
+            RateSnapshot current = rates;
+            if (current == null) {
+                throw new ExchangeRateException("No exchange rates could be read from " + path
+                        + (loadError != null ? ": " + loadError : ""));
+            }
+            return current;
+        });
+    }
+
+    private void watch(Path file) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed && reload(file)) {
+                    eventPublisher.publishEvent(new RateSourceChanged(NAME));
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Stopped watching {}", file);
+        }
+    }
+
+    /**
+     * @return True if the file was read and its rates replace the previous ones.
+     */
+    boolean reload(Path file) {
+        try {
+            long modifiedAt = Files.getLastModifiedTime(file).toMillis();
+            String content = Files.readString(file);
+            Map<String, BigDecimal> parsed = file.getFileName().toString().endsWith(".csv")
+                    ? parseCsv(content)
+                    : parseJson(content);
+            RateSnapshot snapshot = RateSnapshot.of(parsed, modifiedAt);
+            if (snapshot.isEmpty()) {
+                throw new ExchangeRateException("no valid rates");
+            }
+            rates = snapshot;
+            loadError = null;
+            log.info("Read {} exchange rates from {}", snapshot.size(), file);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            loadError = e.getMessage();
+            log.warn("Could not read exchange rates from {}, keeping the previous ones: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private Map<String, BigDecimal> parseJson(String content) throws IOException {
+        JsonNode root = objectMapper.readTree(content);
+        JsonNode rateNodes = root.has("conversion_rates") ? root.get("conversion_rates") : root;
+        Map<String, BigDecimal> parsed = new LinkedHashMap<>();
+        rateNodes.properties().forEach(entry -> parsed.put(entry.getKey(), entry.getValue().decimalValue()));
+        return parsed;
+    }
+
+    private static Map<String, BigDecimal> parseCsv(String content) {
+        Map<String, BigDecimal> parsed = new LinkedHashMap<>();
+        for (String line : content.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.regionMatches(true, 0, "currency,", 0, 9)) {
+                continue;
+            }
+            int separator = trimmed.indexOf(',');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid line, expected CODE,rate: " + trimmed);
+            }
+            parsed.put(trimmed.substring(0, separator).trim(), new BigDecimal(trimmed.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+}
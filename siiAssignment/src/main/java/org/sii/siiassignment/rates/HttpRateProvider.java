@@ -0,0 +1,61 @@
+package org.sii.siiassignment.rates;
+
+import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.exception.ExchangeRateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+/**
+ * Fetches the latest rates against EUR from ExchangeRate-API, at the base URL of the {@link WebClient}. The
+ * response body is read as raw buffers and parsed by the {@link RateResponseParser}, without binding it to objects.
+ */
+@Component
+@RequiredArgsConstructor
+public class HttpRateProvider implements RateProvider {
+
+    public static final String NAME = "http";
+
+    private final WebClient webClient;
+    @Value("${exchange.rate.api.key:}")
+    private String apiKey;
+    @Value("${exchange.rate.fetch-timeout-ms:5000}")
+    private long fetchTimeoutMillis;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Duration timeout() {
+        return Duration.ofMillis(fetchTimeoutMillis);
+    }
+
+    @Override
+    public Mono<RateSnapshot> fetch() {
+        return webClient.get()
+                .uri((apiKey.isEmpty() ? "" : "/" + apiKey) + "/latest/EUR")
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .as(DataBufferUtils::join)
+                .map(HttpRateProvider::parse)
+                .switchIfEmpty(Mono.error(new ExchangeRateException("Failed to fetch exchange rates: empty response")));
+    }
+
+    private static RateSnapshot parse(DataBuffer body) {
+        try (InputStream in = body.asInputStream(true)) {
+            return RateResponseParser.parse(in, System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse exchange rates: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.sii.siiassignment.rates;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * A source of exchange rates. The providers are tried in the order of {@code exchange.rate.providers} by the
+ * {@link RateProviderChain}, which applies the {@link #timeout()} and a circuit breaker to each of them.
+ */
+public interface RateProvider {
+
+    /**
+     * @return The name the provider is listed under in {@code exchange.rate.providers}, logs and metrics.
+     */
+    String name();
+
+    /**
+     * @return False if the provider is not configured, in which case the chain leaves it out.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * @return How long a fetch may take before the chain gives up on it and moves on to the next provider.
+     */
+    Duration timeout();
+
+    /**
+     * Nothing is fetched until the result is subscribed to.
+     *
+     * @return Emits the current rates, or fails if the provider has none.
+     */
+    Mono<RateSnapshot> fetch();
+}
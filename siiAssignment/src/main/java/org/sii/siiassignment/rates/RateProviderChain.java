@@ -0,0 +1,140 @@
+package org.sii.siiassignment.rates;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.sii.siiassignment.exception.ExchangeRateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fetches rates from the first {@link RateProvider} in {@code exchange.rate.providers} that has them.
+ * <p>
+ * Each provider is given its {@link RateProvider#timeout()} and guarded by a {@link CircuitBreaker}: after
+ * {@code exchange.rate.circuit-breaker.failure-threshold} consecutive failures or timeouts it is skipped for
+ * {@code exchange.rate.circuit-breaker.open-ms}, so a provider that is down costs nothing instead of its timeout on
+ * every refresh. Providers that are not configured are left out of the chain.
+ * <p>
+ * Metrics: {@code exchange.rates.provider.fetches} counts fetches by provider and outcome ({@code success},
+ * {@code failure}, {@code timeout}, {@code rejected} while the circuit is open), and
+ * {@code exchange.rates.provider.circuit.open} is 1 for each provider whose circuit is not closed.
+ */
+@Slf4j
+@Component
+public class RateProviderChain {
+
+    private final List<Link> links = new ArrayList<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param result   The rates.
+     * @param provider Name of the provider that served them.
+     * @param fallback True if they come from a provider after the first one of the chain.
+     */
+    public record Result(RateSnapshot snapshot, String provider, boolean fallback) {
+    }
+
+    private record Link(RateProvider provider, CircuitBreaker breaker) {
+    }
+
+    /**
+     * @throws IllegalStateException If {@code exchange.rate.providers} names an unknown provider.
+     */
+    public RateProviderChain(List<RateProvider> providers,
+                             MeterRegistry meterRegistry,
+                             @Value("${exchange.rate.providers:http,file,static}") List<String> order,
+                             @Value("${exchange.rate.circuit-breaker.failure-threshold:3}") int failureThreshold,
+                             @Value("${exchange.rate.circuit-breaker.open-ms:60000}") long openMillis) {
+        this.meterRegistry = meterRegistry;
+        Map<String, RateProvider> byName = providers.stream()
+                .collect(Collectors.toMap(RateProvider::name, Function.identity()));
+        for (String name : order) {
+            RateProvider provider = byName.get(name.trim());
+            if (provider == null) {
+                throw new IllegalStateException("Unknown exchange rate provider '" + name + "', expected one of "
+                        + byName.keySet());
+            }
+            if (provider.isEnabled()) {
+                CircuitBreaker breaker = new CircuitBreaker(failureThreshold, openMillis, System::currentTimeMillis);
+                links.add(new Link(provider, breaker));
+                Gauge.builder("exchange.rates.provider.circuit.open", breaker,
+                                b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                        .description("Whether the circuit breaker of the exchange rate provider is open")
+                        .tag("provider", provider.name())
+                        .register(meterRegistry);
+            }
+        }
+        if (links.isEmpty()) {
+            throw new IllegalStateException("None of the exchange rate providers " + order + " is configured");
+        }
+        log.info("Exchange rate providers: {}", links.stream().map(link -> link.provider().name()).toList());
+    }
+
+    /**
+     * Nothing is fetched until the result is subscribed to.
+     *
+     * @return Emits the rates of the first provider that has them, or fails with {@link ExchangeRateException}
+     * listing why each provider could not serve them.
+     */
+    public Mono<Result> fetch() {
+        return Mono.defer(() -> fetchFrom(0, new ArrayList<>()));
+    }
+
+    /**
+     * @return The state of each provider's circuit breaker, in the order of the chain.
+     */
+    public Map<String, CircuitBreaker.State> getCircuitStates() {
+        Map<String, CircuitBreaker.State> states = new LinkedHashMap<>();
+        links.forEach(link -> states.put(link.provider().name(), link.breaker().state()));
+        return states;
+    }
+
+    private Mono<Result> fetchFrom(int index, List<String> errors) {
+        if (index == links.size()) {
+            return Mono.error(new ExchangeRateException("Failed to fetch exchange rates: " + String.join("; ", errors)));
+        }
+        Link link = links.get(index);
+        RateProvider provider = link.provider();
+        if (!link.breaker().tryAcquire()) {
+            fetches(provider, "rejected").increment();
+            errors.add(provider.name() + ": circuit open");
+            return fetchFrom(index + 1, errors);
+        }
+        return provider.fetch()
+                .timeout(provider.timeout())
+                .switchIfEmpty(Mono.error(new ExchangeRateException("no rates")))
+                .doOnCancel(link.breaker()::onCancel)
+                .map(snapshot -> {
+                    link.breaker().onSuccess();
+                    fetches(provider, "success").increment();
+                    return new Result(snapshot, provider.name(), index > 0);
+                })
+                .onErrorResume(e -> {
+                    boolean timedOut = e instanceof TimeoutException;
+                    link.breaker().onFailure();
+                    fetches(provider, timedOut ? "timeout" : "failure").increment();
+                    String error = timedOut ? "timed out after " + provider.timeout().toMillis() + " ms" : e.getMessage();
+                    errors.add(provider.name() + ": " + error);
+                    log.warn("Exchange rate provider {} failed: {}", provider.name(), error);
+                    return fetchFrom(index + 1, errors);
+                });
+    }
+
+    private Counter fetches(RateProvider provider, String outcome) {
+        return Counter.builder("exchange.rates.provider.fetches")
+                .description("Fetches from exchange rate providers")
+                .tag("provider", provider.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,124 @@
+package org.sii.siiassignment.rates;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.sii.siiassignment.exception.ExchangeRateException;
+import org.sii.siiassignment.money.CurrencyCodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+
+/**
+ * Reads an ExchangeRate-API {@code /latest} response with Jackson's streaming parser, token by token, straight
+ * into a {@link RateSnapshot.Builder}.
+ * <p>
+ * Currency codes are packed from the parser's character buffer and rates are read from the digits of the number
+ * token, so no map, string or intermediate number is created per currency: the only object per entry is the
+ * {@link BigDecimal} the snapshot keeps. Rates with more than 18 significant digits are left to Jackson. Fields
+ * other than {@code conversion_rates} are skipped.
+ */
+public final class RateResponseParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final String RATES_FIELD = "conversion_rates";
+    /** Digits that always fit in a {@code long}. */
+    private static final int MAX_DIGITS = 18;
+
+    private RateResponseParser() {
+    }
+
+    /**
+     * @param fetchedAt Epoch millis at which the response was received.
+     * @throws IOException           If the response is not valid JSON.
+     * @throws ExchangeRateException If it holds no valid rates.
+     */
+    public static RateSnapshot parse(InputStream response, long fetchedAt) throws IOException {
+        try (JsonParser parser = JSON.createParser(response)) {
+            return parse(parser, fetchedAt);
+        }
+    }
+
+    public static RateSnapshot parse(byte[] response, long fetchedAt) throws IOException {
+        try (JsonParser parser = JSON.createParser(response)) {
+            return parse(parser, fetchedAt);
+        }
+    }
+
+    private static RateSnapshot parse(JsonParser parser, long fetchedAt) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new ExchangeRateException("Failed to fetch exchange rates: response is not a JSON object");
+        }
+        RateSnapshot.Builder rates = new RateSnapshot.Builder();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean ratesField = RATES_FIELD.equals(parser.currentName());
+            if (parser.nextToken() == JsonToken.START_OBJECT && ratesField) {
+                readRates(parser, rates);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        RateSnapshot snapshot = rates.build(fetchedAt);
+        if (snapshot.isEmpty()) {
+            throw new ExchangeRateException("Failed to fetch exchange rates: empty response");
+        }
+        return snapshot;
+    }
+
+    private static void readRates(JsonParser parser, RateSnapshot.Builder rates) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            int code = CurrencyCodes.pack(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            JsonToken value = parser.nextToken();
+            if (value.isNumeric()) {
+                rates.add(code, decimalValue(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Parses the current number token from its characters, such as {@code 4.2735}, {@code 1} or {@code 1.2e-5}.
+     */
+    private static BigDecimal decimalValue(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int end = parser.getTextOffset() + parser.getTextLength();
+        int i = parser.getTextOffset();
+        boolean negative = chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.') {
+                fraction = true;
+            } else if (c == 'e' || c == 'E') {
+                break;
+            } else {
+                if (unscaled != 0 || c != '0') {
+                    if (++digits > MAX_DIGITS) {
+                        return parser.getDecimalValue();
+                    }
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (fraction) {
+                    scale++;
+                }
+            }
+        }
+        if (i < end) {
+            // Exponents are rare in rate responses; those that do not fit in an int scale are left to Jackson
+            try {
+                scale = Math.subtractExact(scale, Integer.parseInt(new String(chars, i + 1, end - i - 1)));
+            } catch (ArithmeticException | NumberFormatException e) {
+                return parser.getDecimalValue();
+            }
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+}
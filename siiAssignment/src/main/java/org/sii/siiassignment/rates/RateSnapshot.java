@@ -0,0 +1,166 @@
+package org.sii.siiassignment.rates;
+
+import org.sii.siiassignment.money.CurrencyCodes;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of exchange rates fetched at one point in time.
+ * <p>
+ * Currencies are mapped to dense integer ids by a {@link CurrencyRegistry} and every from/to rate is computed once
+ * when the snapshot is built, so converting between two currencies is a single array lookup. A new snapshot
+ * is built for every refresh and published by swapping the reference, so readers always see
+ * a complete and consistent set of rates.
+ * <p>
+ * Snapshots are built either from a map of rates or, by parsers reading rates one at a time, with a
+ * {@link Builder}.
+ */
+public final class RateSnapshot {
+
+    /** Scale of the precomputed cross rates. */
+    public static final int SCALE = 6;
+
+    public static final RateSnapshot EMPTY = new Builder().build(0);
+
+    private final CurrencyRegistry currencies;
+    private final BigDecimal[] crossRates;
+    private final BigDecimal[] baseRates;
+    private final long fetchedAt;
+
+    private RateSnapshot(String[] codes, BigDecimal[] rates, long fetchedAt) {
+        int size = codes.length;
+        this.currencies = CurrencyRegistry.of(Arrays.asList(codes));
+        this.crossRates = new BigDecimal[size * size];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                crossRates[from * size + to] = from == to
+                        ? BigDecimal.ONE
+                        : rates[to].divide(rates[from], SCALE, RoundingMode.HALF_UP);
+            }
+        }
+
+        this.baseRates = rates;
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Builds a snapshot from rates quoted against a common base currency.
+     * Entries with missing or non-positive rates, or codes that are not three upper-case letters, are ignored.
+     *
+     * @param ratesAgainstBase Currency code to the amount of that currency worth one unit of the base currency.
+     * @param fetchedAt        Epoch millis at which the rates were fetched.
+     */
+    public static RateSnapshot of(Map<String, BigDecimal> ratesAgainstBase, long fetchedAt) {
+        Builder builder = new Builder();
+        ratesAgainstBase.forEach(builder::add);
+        return builder.build(fetchedAt);
+    }
+
+    /**
+     * @return Dense id of the currency, or -1 if the snapshot has no rate for it.
+     */
+    public int idOf(String currency) {
+        return currencies.idOf(currency);
+    }
+
+    public boolean contains(String currency) {
+        return currencies.contains(currency);
+    }
+
+    public String currencyOf(int id) {
+        return currencies.currencyOf(id);
+    }
+
+    /**
+     * @return The currencies of this snapshot, for validating currency codes.
+     */
+    public CurrencyRegistry getCurrencies() {
+        return currencies;
+    }
+
+    /**
+     * @return Amount of the {@code to} currency worth one unit of the {@code from} currency.
+     */
+    public BigDecimal rate(int fromId, int toId) {
+        return crossRates[fromId * currencies.size() + toId];
+    }
+
+    /**
+     * @return Amount of the currency worth one unit of the base currency, as fetched.
+     */
+    public BigDecimal baseRate(int id) {
+        return baseRates[id];
+    }
+
+    /**
+     * @return The rates as fetched, keyed by currency code and quoted against the base currency. The map is built
+     * on every call.
+     */
+    public Map<String, BigDecimal> getBaseRates() {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        for (int id = 0; id < baseRates.length; id++) {
+            rates.put(currencies.currencyOf(id), baseRates[id]);
+        }
+        return Collections.unmodifiableMap(rates);
+    }
+
+    public int size() {
+        return currencies.size();
+    }
+
+    public boolean isEmpty() {
+        return currencies.size() == 0;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    /**
+     * Collects rates against a common base one currency at a time. Currencies are given ids in the order they are
+     * added. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private final long[] added = new long[(CurrencyCodes.COUNT + 63) >>> 6];
+        private String[] codes = new String[64];
+        private BigDecimal[] rates = new BigDecimal[64];
+        private int size;
+
+        public Builder add(String currency, BigDecimal rate) {
+            return add(CurrencyCodes.pack(currency), rate);
+        }
+
+        /**
+         * Ignores invalid codes, missing or non-positive rates, and currencies that were already added.
+         *
+         * @param code A {@link CurrencyCodes#pack packed} currency code.
+         */
+        public Builder add(int code, BigDecimal rate) {
+            if (code == CurrencyCodes.INVALID || rate == null || rate.signum() <= 0
+                    || (added[code >>> 6] & (1L << code)) != 0) {
+                return this;
+            }
+            added[code >>> 6] |= 1L << code;
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+            }
+            codes[size] = CurrencyCodes.unpack(code);
+            rates[size++] = rate;
+            return this;
+        }
+
+        /**
+         * @param fetchedAt Epoch millis at which the rates were fetched.
+         */
+        public RateSnapshot build(long fetchedAt) {
+            return new RateSnapshot(Arrays.copyOf(codes, size), Arrays.copyOf(rates, size), fetchedAt);
+        }
+    }
+}
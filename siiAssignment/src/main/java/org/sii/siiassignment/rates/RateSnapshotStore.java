@@ -0,0 +1,162 @@
+package org.sii.siiassignment.rates;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps the last good rates in the local file {@code exchange.rate.snapshot.path}, so that after a restart rates
+ * can be served before any provider has answered, and while none can. Enabled with
+ * {@code exchange.rate.snapshot.enabled}.
+ * <p>
+ * The file holds the time the rates were fetched and, per currency, its packed code and its rate as an unscaled
+ * {@code long} with a scale: 11 bytes per currency, under 2 KB for all ExchangeRate-API currencies. It is written
+ * to a temporary file, forced to disk and moved into place, and ends with a CRC32C of its contents. It is read by
+ * memory-mapping it, and rejected if the checksum does not match or the rates are older than
+ * {@code exchange.rate.snapshot.max-age-ms}.
+ */
+@Slf4j
+@Component
+public class RateSnapshotStore {
+
+    private static final int MAGIC = 0x52534e50; // "RSNP"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int ENTRY_BYTES = 2 + 1 + 8;
+    private static final int CRC_BYTES = 8;
+    /** Significant digits of a rate that always fit in a {@code long}. */
+    private static final MathContext LONG_PRECISION = new MathContext(18);
+
+    @Value("${exchange.rate.snapshot.enabled:false}")
+    private boolean enabled;
+    @Value("${exchange.rate.snapshot.path:rates.snapshot}")
+    private Path path;
+    @Value("${exchange.rate.snapshot.max-age-ms:86400000}")
+    private long maxAgeMillis;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The persisted rates, or nothing if there are none, or they are corrupt or too old.
+     */
+    public Optional<RateSnapshot> load() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            RateSnapshot snapshot = read(path);
+            long age = System.currentTimeMillis() - snapshot.getFetchedAt();
+            if (age > maxAgeMillis) {
+                log.info("Ignoring persisted exchange rates in {}: they are {} ms old", path, age);
+                return Optional.empty();
+            }
+            log.info("Loaded {} persisted exchange rates from {}, {} ms old", snapshot.size(), path, age);
+            return Optional.of(snapshot);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring persisted exchange rates in {}: {}", path, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replaces the persisted rates. Failures are logged, since the rates in memory are not affected.
+     */
+    public void save(RateSnapshot snapshot) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            write(snapshot, path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not persist exchange rates to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void write(RateSnapshot snapshot, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + snapshot.size() * ENTRY_BYTES + CRC_BYTES);
+        buffer.putInt(MAGIC).putInt(FORMAT).putLong(snapshot.getFetchedAt()).putInt(snapshot.size());
+        for (int id = 0; id < snapshot.size(); id++) {
+            String currency = snapshot.currencyOf(id);
+            BigDecimal rate = snapshot.baseRate(id);
+            BigDecimal compact = rate.stripTrailingZeros();
+            if (compact.unscaledValue().bitLength() > 63) {
+                compact = compact.round(LONG_PRECISION).stripTrailingZeros();
+            }
+            if (compact.scale() != (byte) compact.scale()) {
+                throw new IllegalArgumentException("Rate of " + currency + " is out of range: " + rate);
+            }
+            buffer.putShort((short) CurrencyCodes.pack(currency))
+                    .put((byte) compact.scale())
+                    .putLong(compact.unscaledValue().longValueExact());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue()).flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @throws IOException If the file cannot be read or is not a complete, valid snapshot.
+     */
+    private static RateSnapshot read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES + CRC_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a rate snapshot: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a rate snapshot: " + file);
+        }
+        int format = buffer.getInt();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported rate snapshot format " + format + ": " + file);
+        }
+        long fetchedAt = buffer.getLong();
+        int count = buffer.getInt();
+        if (count < 0 || buffer.limit() != HEADER_BYTES + (long) count * ENTRY_BYTES + CRC_BYTES) {
+            throw new IOException("Rate snapshot is truncated: " + file);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, buffer.limit() - CRC_BYTES));
+        if (buffer.getLong(buffer.limit() - CRC_BYTES) != crc.getValue()) {
+            throw new IOException("Rate snapshot is corrupt: " + file);
+        }
+        RateSnapshot.Builder rates = new RateSnapshot.Builder();
+        for (int i = 0; i < count; i++) {
+            int code = buffer.getShort();
+            int scale = buffer.get();
+            rates.add(code, BigDecimal.valueOf(buffer.getLong(), scale));
+        }
+        return rates.build(fetchedAt);
+    }
+}
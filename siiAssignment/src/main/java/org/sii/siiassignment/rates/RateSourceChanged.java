@@ -0,0 +1,10 @@
+package org.sii.siiassignment.rates;
+
+/**
+ * Published when a {@link RateProvider} has new rates before the next scheduled refresh, such as after the rates
+ * file was edited.
+ *
+ * @param provider Name of the provider.
+ */
+public record RateSourceChanged(String provider) {
+}
@@ -0,0 +1,71 @@
+package org.sii.siiassignment.rates;
+
+import org.sii.siiassignment.exception.ExchangeRateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fixed rates against a common base, given in {@code exchange.rate.static.rates} as {@code EUR=1,PLN=4.27,...}.
+ * Meant as the last resort of the chain, and for running the application offline or in tests. Disabled when the
+ * property is empty.
+ */
+@Component
+public class StaticRateProvider implements RateProvider {
+
+    public static final String NAME = "static";
+
+    private final Map<String, BigDecimal> rates;
+
+    /**
+     * @throws IllegalArgumentException If an entry is not {@code CODE=rate}.
+     */
+    public StaticRateProvider(@Value("${exchange.rate.static.rates:}") String rates) {
+        this.rates = parse(rates);
+    }
+
+    private static Map<String, BigDecimal> parse(String rates) {
+        Map<String, BigDecimal> parsed = new LinkedHashMap<>();
+        for (String entry : rates.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid static exchange rate, expected CODE=rate: " + entry);
+            }
+            parsed.put(entry.substring(0, separator).trim(), new BigDecimal(entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !rates.isEmpty();
+    }
+
+    @Override
+    public Duration timeout() {
+        return Duration.ofSeconds(1);
+    }
+
+    @Override
+    public Mono<RateSnapshot> fetch() {
+        return Mono.fromCallable(() -> {
+            if (rates.isEmpty()) {
+                throw new ExchangeRateException("No static exchange rates are configured");
+            }
+            return RateSnapshot.of(rates, System.currentTimeMillis());
+        });
+    }
+}
@@ -0,0 +1,298 @@
+package org.sii.siiassignment.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxSummaryResponse;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set-based access to collection box balances for bulk operations, which would otherwise need to load
+ * and save every box through the persistence context one by one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CollectionBoxAmountJdbcRepository {
+
+    private static final String DEPOSIT_SQL = """
+            MERGE INTO collection_box_amounts t
+            USING (VALUES (CAST(:boxId AS UUID), CAST(:currency AS VARCHAR(3)), CAST(:minorUnits AS BIGINT)))
+                AS s(collection_box_id, currency, minor_units)
+            ON t.collection_box_id = s.collection_box_id AND t.currency = s.currency
+            WHEN MATCHED THEN UPDATE SET minor_units = t.minor_units + s.minor_units
+            WHEN NOT MATCHED THEN INSERT (collection_box_id, currency, minor_units)
+                VALUES (s.collection_box_id, s.currency, s.minor_units)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * @return The subset of the given ids that belong to existing collection boxes.
+     */
+    public Set<UUID> findExistingBoxIds(Collection<UUID> boxIds) {
+        if (boxIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM collection_box WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", boxIds),
+                UUID.class));
+    }
+
+    /**
+     * Reads the assignment and balances of the given boxes with a single query.
+     *
+     * @return The boxes that exist, by id.
+     */
+    public Map<UUID, CollectionBoxResponse> findBoxes(Collection<UUID> boxIds) {
+        Map<UUID, CollectionBoxResponse> boxes = new HashMap<>();
+        if (boxIds.isEmpty()) {
+            return boxes;
+        }
+        jdbcTemplate.query("""
+                        SELECT b.id, b.fundraising_event_id, a.currency, a.minor_units
+                        FROM collection_box b
+                        LEFT JOIN collection_box_amounts a ON a.collection_box_id = b.id
+                        WHERE b.id IN (:ids)
+                        """,
+                new MapSqlParameterSource("ids", boxIds),
+                rs -> {
+                    UUID eventId = rs.getObject("fundraising_event_id", UUID.class);
+                    CollectionBoxResponse box = boxes.computeIfAbsent(rs.getObject("id", UUID.class),
+                            id -> new CollectionBoxResponse(id, eventId, new HashMap<>(), true, eventId != null));
+                    String currency = rs.getString("currency");
+                    if (currency != null) {
+                        long minorUnits = rs.getLong("minor_units");
+                        box.getAmounts().put(currency, CurrencyCodes.toDecimal(minorUnits, CurrencyCodes.pack(currency)));
+                        box.setEmpty(box.isEmpty() && minorUnits == 0);
+                    }
+                });
+        return boxes;
+    }
+
+    /**
+     * Lists box summaries ordered by id, computing whether each box is assigned and empty in SQL so that
+     * neither the boxes nor their amounts are loaded. Null filters are ignored.
+     *
+     * @param after Only boxes with an id greater than this are returned; null to start from the first box.
+     */
+    public List<CollectionBoxSummaryResponse> findSummaries(Boolean assigned, Boolean empty, UUID eventId,
+                                                            UUID after, int limit) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT b.id,
+                       b.fundraising_event_id IS NOT NULL AS assigned,
+                       NOT EXISTS (SELECT 1 FROM collection_box_amounts a WHERE a.collection_box_id = b.id AND a.minor_units <> 0) AS empty
+                FROM collection_box b
+                WHERE 1 = 1
+                """);
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        if (after != null) {
+            sql.append(" AND b.id > :after");
+            params.addValue("after", after);
+        }
+        if (eventId != null) {
+            sql.append(" AND b.fundraising_event_id = :eventId");
+            params.addValue("eventId", eventId);
+        }
+        if (assigned != null) {
+            sql.append(assigned ? " AND b.fundraising_event_id IS NOT NULL" : " AND b.fundraising_event_id IS NULL");
+        }
+        if (empty != null) {
+            sql.append(empty ? " AND NOT" : " AND").append(
+                    " EXISTS (SELECT 1 FROM collection_box_amounts a WHERE a.collection_box_id = b.id AND a.minor_units <> 0)");
+        }
+        sql.append(" ORDER BY b.id LIMIT :limit");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new CollectionBoxSummaryResponse(
+                rs.getObject("id", UUID.class),
+                rs.getBoolean("assigned"),
+                rs.getBoolean("empty")));
+    }
+
+    /**
+     * Adds every change to the matching box balance in a single JDBC batch, creating balance rows
+     * that do not exist yet.
+     */
+    public void depositAll(List<AmountChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] params = changes.stream()
+                .map(change -> new MapSqlParameterSource()
+                        .addValue("boxId", change.boxId())
+                        .addValue("currency", change.currencyCode())
+                        .addValue("minorUnits", change.minorUnits()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(DEPOSIT_SQL, params);
+    }
+
+    /**
+     * @return The ids of the boxes assigned to the event.
+     */
+    public List<UUID> findBoxIdsByEvent(UUID eventId) {
+        return jdbcTemplate.queryForList("SELECT id FROM collection_box WHERE fundraising_event_id = :eventId",
+                new MapSqlParameterSource("eventId", eventId),
+                UUID.class);
+    }
+
+    /**
+     * Deletes the balances of every box assigned to the event and returns what was deleted, per box and currency,
+     * ordered by currency. Reading and deleting happen in the same statement, so money deposited concurrently is
+     * either included in the result or left in the box, never lost.
+     */
+    public List<AmountChange> withdrawAllForEvent(UUID eventId) {
+        return jdbcTemplate.query("""
+                        SELECT collection_box_id, currency, minor_units
+                        FROM OLD TABLE (
+                            DELETE FROM collection_box_amounts
+                            WHERE collection_box_id IN (SELECT id FROM collection_box WHERE fundraising_event_id = :eventId)
+                        )
+                        ORDER BY currency, collection_box_id
+                        """,
+                new MapSqlParameterSource("eventId", eventId),
+                (rs, rowNum) -> new AmountChange(
+                        rs.getObject("collection_box_id", UUID.class),
+                        CurrencyCodes.pack(rs.getString("currency")),
+                        rs.getLong("minor_units")));
+    }
+
+    /**
+     * Calls the consumer for every balance of every box, and once with an {@link CurrencyCodes#INVALID} currency for
+     * each box without any balance, without loading them all into memory at once.
+     */
+    public void findAllBalances(Consumer<BoxBalance> consumer) {
+        jdbcTemplate.query("""
+                        SELECT b.id, b.fundraising_event_id, a.currency, a.minor_units
+                        FROM collection_box b
+                        LEFT JOIN collection_box_amounts a ON a.collection_box_id = b.id
+                        """,
+                rs -> {
+                    consumer.accept(new BoxBalance(
+                            rs.getObject("id", UUID.class),
+                            rs.getObject("fundraising_event_id", UUID.class),
+                            CurrencyCodes.pack(rs.getString("currency")),
+                            rs.getLong("minor_units")));
+                });
+    }
+
+    /**
+     * Deletes every balance of the given boxes.
+     */
+    public void deleteAmounts(Collection<UUID> boxIds) {
+        if (!boxIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM collection_box_amounts WHERE collection_box_id IN (:ids)",
+                    new MapSqlParameterSource("ids", boxIds));
+        }
+    }
+
+    /**
+     * Creates new, unassigned and empty boxes with the given ids in a single JDBC batch.
+     */
+    public void insertBoxes(Collection<UUID> boxIds) {
+        if (boxIds.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] params = boxIds.stream()
+                .map(boxId -> new MapSqlParameterSource("boxId", boxId))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO collection_box (id, fundraising_event_id, version) VALUES (:boxId, NULL, 0)", params);
+    }
+
+    /**
+     * Assigns the boxes to the event with a single update, skipping boxes that are already assigned or hold money.
+     * The conditions are checked by the update itself, so a box assigned or deposited into concurrently is skipped
+     * rather than overwritten. Assigned boxes get a new version, so stale copies of them can no longer be saved.
+     *
+     * @return The ids of the boxes that were assigned.
+     */
+    public Set<UUID> assignEmptyBoxes(Collection<UUID> boxIds, UUID eventId) {
+        if (boxIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("""
+                        SELECT id FROM FINAL TABLE (
+                            UPDATE collection_box b SET fundraising_event_id = :eventId, version = b.version + 1
+                            WHERE b.id IN (:ids)
+                              AND b.fundraising_event_id IS NULL
+                              AND NOT EXISTS (SELECT 1 FROM collection_box_amounts a
+                                              WHERE a.collection_box_id = b.id AND a.minor_units <> 0)
+                        )
+                        """,
+                new MapSqlParameterSource("ids", boxIds).addValue("eventId", eventId),
+                UUID.class));
+    }
+
+    /**
+     * Deletes the given boxes together with their balances.
+     *
+     * @return The ids of the boxes that existed and were deleted.
+     */
+    public Set<UUID> deleteBoxes(Collection<UUID> boxIds) {
+        if (boxIds.isEmpty()) {
+            return Set.of();
+        }
+        deleteAmounts(boxIds);
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM OLD TABLE (DELETE FROM collection_box WHERE id IN (:ids))",
+                new MapSqlParameterSource("ids", boxIds),
+                UUID.class));
+    }
+
+    public BoxCounts countBoxes() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT COUNT(fundraising_event_id) AS assigned, COUNT(*) AS boxes FROM collection_box",
+                (rs, rowNum) -> new BoxCounts(rs.getLong("assigned"), rs.getLong("boxes") - rs.getLong("assigned")));
+    }
+
+    /**
+     * @return The total balance of all boxes in every currency, by currency.
+     */
+    public Map<String, BigDecimal> sumAmountsByCurrency() {
+        Map<String, BigDecimal> totals = new TreeMap<>();
+        jdbcTemplate.getJdbcTemplate().query(
+                "SELECT currency, SUM(minor_units) AS minor_units FROM collection_box_amounts GROUP BY currency",
+                rs -> {
+                    String currency = rs.getString("currency");
+                    totals.put(currency, CurrencyCodes.toDecimal(rs.getLong("minor_units"), CurrencyCodes.pack(currency)));
+                });
+        return totals;
+    }
+
+    /**
+     * @param currency Packed with {@link CurrencyCodes}.
+     */
+    public record AmountChange(UUID boxId, int currency, long minorUnits) {
+
+        public String currencyCode() {
+            return CurrencyCodes.unpack(currency);
+        }
+
+        public BigDecimal amount() {
+            return CurrencyCodes.toDecimal(minorUnits, currency);
+        }
+    }
+
+    public record BoxCounts(long assigned, long unassigned) {
+    }
+
+    /**
+     * @param currency Packed with {@link CurrencyCodes}; {@link CurrencyCodes#INVALID} for a box without any balance.
+     */
+    public record BoxBalance(UUID boxId, UUID eventId, int currency, long minorUnits) {
+    }
+}
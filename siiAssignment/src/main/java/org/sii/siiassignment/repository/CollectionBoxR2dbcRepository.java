@@ -0,0 +1,229 @@
+package org.sii.siiassignment.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
+import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.UUID;
+
+/**
+ * R2DBC access to collection boxes and fundraising events for the {@code reactive} profile. Writes are the same
+ * statements as on the servlet stack; the optimistic locking that JPA does through {@code @Version} is done with
+ * explicit version checks, reported as {@code false} when no row matched.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class CollectionBoxR2dbcRepository {
+
+    private static final String DEPOSIT_SQL = """
+            MERGE INTO collection_box_amounts t
+            USING (VALUES (CAST(:boxId AS UUID), CAST(:currency AS VARCHAR(3)), CAST(:minorUnits AS BIGINT)))
+                AS s(collection_box_id, currency, minor_units)
+            ON t.collection_box_id = s.collection_box_id AND t.currency = s.currency
+            WHEN MATCHED THEN UPDATE SET minor_units = t.minor_units + s.minor_units
+            WHEN NOT MATCHED THEN INSERT (collection_box_id, currency, minor_units)
+                VALUES (s.collection_box_id, s.currency, s.minor_units)
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * A box with its balances and, if it is assigned, its fundraising event, as read before emptying it.
+     *
+     * @param event Null if the box is not assigned.
+     */
+    public record BoxForEmptying(UUID boxId, long version, FundraisingEvent event, BoxAmounts amounts) {
+    }
+
+    /**
+     * Atomically adds the minor units to the box's balance in the given currency, see
+     * {@link CollectionBoxRepository#depositAmount}.
+     */
+    public Mono<Long> depositAmount(UUID boxId, String currency, long minorUnits) {
+        return databaseClient.sql(DEPOSIT_SQL)
+                .bind("boxId", boxId)
+                .bind("currency", currency)
+                .bind("minorUnits", minorUnits)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Boolean> existsBox(UUID boxId) {
+        return databaseClient.sql("SELECT COUNT(*) AS boxes FROM collection_box WHERE id = :id")
+                .bind("id", boxId)
+                .map(row -> row.get("boxes", Long.class))
+                .one()
+                .map(count -> count > 0);
+    }
+
+    /**
+     * Reads the assignment and balances of the box with a single query.
+     */
+    public Mono<CollectionBoxResponse> findBox(UUID boxId) {
+        return databaseClient.sql("""
+                        SELECT b.fundraising_event_id, a.currency, a.minor_units
+                        FROM collection_box b
+                        LEFT JOIN collection_box_amounts a ON a.collection_box_id = b.id
+                        WHERE b.id = :id
+                        """)
+                .bind("id", boxId)
+                .map(row -> new BoxRow(row.get("fundraising_event_id", UUID.class),
+                        row.get("currency", String.class), row.get("minor_units", Long.class)))
+                .all()
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .map(rows -> {
+                    UUID eventId = rows.get(0).eventId();
+                    CollectionBoxResponse box = new CollectionBoxResponse(boxId, eventId, new HashMap<>(), true, eventId != null);
+                    for (BoxRow row : rows) {
+                        if (row.currency() != null) {
+                            box.getAmounts().put(row.currency(),
+                                    CurrencyCodes.toDecimal(row.minorUnits(), CurrencyCodes.pack(row.currency())));
+                            box.setEmpty(box.isEmpty() && row.minorUnits() == 0);
+                        }
+                    }
+                    return box;
+                });
+    }
+
+    /**
+     * Reads the box, its balances and its fundraising event with a single query.
+     */
+    public Mono<BoxForEmptying> findBoxForEmptying(UUID boxId) {
+        return databaseClient.sql("""
+                        SELECT b.version AS box_version, e.id AS event_id, e.name, e.account_currency,
+                               e.account_balance, e.version AS event_version, a.currency, a.minor_units
+                        FROM collection_box b
+                        LEFT JOIN fundraising_event e ON e.id = b.fundraising_event_id
+                        LEFT JOIN collection_box_amounts a ON a.collection_box_id = b.id
+                        WHERE b.id = :id
+                        """)
+                .bind("id", boxId)
+                .map(row -> {
+                    UUID eventId = row.get("event_id", UUID.class);
+                    FundraisingEvent event = eventId == null ? null : new FundraisingEvent(eventId,
+                            row.get("name", String.class), row.get("account_currency", String.class),
+                            row.get("account_balance", BigDecimal.class), row.get("event_version", Long.class));
+                    BoxAmounts amounts = new BoxAmounts();
+                    String currency = row.get("currency", String.class);
+                    if (currency != null) {
+                        amounts.add(CurrencyCodes.pack(currency), row.get("minor_units", Long.class));
+                    }
+                    return new BoxForEmptying(boxId, row.get("box_version", Long.class), event, amounts);
+                })
+                .all()
+                .reduce((box, row) -> {
+                    box.amounts().addAll(row.amounts());
+                    return box;
+                });
+    }
+
+    /**
+     * Increments the box's version, like JPA's {@code OPTIMISTIC_FORCE_INCREMENT}, so concurrent empty or assign
+     * operations on the same box conflict.
+     *
+     * @return false if the box no longer has the given version.
+     */
+    public Mono<Boolean> incrementBoxVersion(UUID boxId, long version) {
+        return databaseClient.sql("UPDATE collection_box SET version = version + 1 WHERE id = :id AND version = :version")
+                .bind("id", boxId)
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated()
+                .map(updated -> updated == 1);
+    }
+
+    /**
+     * Subtracts the minor units from the box's balance in the given currency, see
+     * {@link CollectionBoxRepository#withdrawAmount}.
+     *
+     * @return false if the box no longer holds at least that amount.
+     */
+    public Mono<Boolean> withdrawAmount(UUID boxId, String currency, long minorUnits) {
+        return databaseClient.sql("""
+                        UPDATE collection_box_amounts SET minor_units = minor_units - :minorUnits
+                        WHERE collection_box_id = :boxId AND currency = :currency AND minor_units >= :minorUnits
+                        """)
+                .bind("boxId", boxId)
+                .bind("currency", currency)
+                .bind("minorUnits", minorUnits)
+                .fetch()
+                .rowsUpdated()
+                .map(updated -> updated == 1);
+    }
+
+    public Mono<Long> deleteEmptyAmounts(UUID boxId) {
+        return databaseClient.sql("DELETE FROM collection_box_amounts WHERE collection_box_id = :boxId AND minor_units = 0")
+                .bind("boxId", boxId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Removes all balances from the boxes assigned to the event, see
+     * {@link CollectionBoxAmountJdbcRepository#withdrawAllForEvent}.
+     */
+    public Flux<AmountChange> withdrawAllForEvent(UUID eventId) {
+        return databaseClient.sql("""
+                        SELECT collection_box_id, currency, minor_units
+                        FROM OLD TABLE (
+                            DELETE FROM collection_box_amounts
+                            WHERE collection_box_id IN (SELECT id FROM collection_box WHERE fundraising_event_id = :eventId)
+                        )
+                        ORDER BY currency, collection_box_id
+                        """)
+                .bind("eventId", eventId)
+                .map(row -> new AmountChange(row.get("collection_box_id", UUID.class),
+                        CurrencyCodes.pack(row.get("currency", String.class)), row.get("minor_units", Long.class)))
+                .all();
+    }
+
+    public Mono<FundraisingEvent> findEvent(UUID eventId) {
+        return databaseClient.sql("SELECT id, name, account_currency, account_balance, version FROM fundraising_event WHERE id = :id")
+                .bind("id", eventId)
+                .map(row -> new FundraisingEvent(row.get("id", UUID.class), row.get("name", String.class),
+                        row.get("account_currency", String.class), row.get("account_balance", BigDecimal.class),
+                        row.get("version", Long.class)))
+                .one();
+    }
+
+    /**
+     * Adds the amount to the event's account and increments its version.
+     *
+     * @return false if the event no longer has the given version.
+     */
+    public Mono<Boolean> creditEvent(UUID eventId, long version, BigDecimal amount) {
+        return databaseClient.sql("""
+                        UPDATE fundraising_event SET account_balance = account_balance + :amount, version = version + 1
+                        WHERE id = :id AND version = :version
+                        """)
+                .bind("id", eventId)
+                .bind("version", version)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated()
+                .map(updated -> updated == 1);
+    }
+
+    public Flux<FinancialReportEntry> findFinancialReport() {
+        return databaseClient.sql("SELECT name, account_balance, account_currency FROM fundraising_event")
+                .map(row -> new FinancialReportEntry(row.get("name", String.class),
+                        row.get("account_balance", BigDecimal.class), row.get("account_currency", String.class)))
+                .all();
+    }
+
+    private record BoxRow(UUID eventId, String currency, Long minorUnits) {
+    }
+}
@@ -1,11 +1,69 @@
 package org.sii.siiassignment.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.sii.siiassignment.model.CollectionBox;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * The native statements declare {@code collection_box_amounts} as the only table they change. Without that,
+ * Hibernate would assume they may change any table and evict the whole second-level cache on every deposit.
+ */
 @Repository
 public interface CollectionBoxRepository extends JpaRepository<CollectionBox, UUID> {
-}
\ No newline at end of file
+
+    String AMOUNTS_TABLE = "collection_box_amounts";
+
+    /**
+     * Loads the box and forces its version to be incremented on commit, so that concurrent
+     * empty/assign operations on the same box fail with an optimistic locking exception.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    Optional<CollectionBox> findForUpdateById(UUID id);
+
+    /**
+     * Atomically adds the minor units to the box's balance in the given currency, creating the balance
+     * row if the box holds no money in that currency yet. Does not load or lock the box itself.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = AMOUNTS_TABLE))
+    @Query(value = """
+            MERGE INTO collection_box_amounts t
+            USING (VALUES (CAST(:boxId AS UUID), CAST(:currency AS VARCHAR(3)), CAST(:minorUnits AS BIGINT)))
+                AS s(collection_box_id, currency, minor_units)
+            ON t.collection_box_id = s.collection_box_id AND t.currency = s.currency
+            WHEN MATCHED THEN UPDATE SET minor_units = t.minor_units + s.minor_units
+            WHEN NOT MATCHED THEN INSERT (collection_box_id, currency, minor_units)
+                VALUES (s.collection_box_id, s.currency, s.minor_units)
+            """, nativeQuery = true)
+    int depositAmount(@Param("boxId") UUID boxId, @Param("currency") String currency, @Param("minorUnits") long minorUnits);
+
+    /**
+     * Subtracts the amount from the box's balance in the given currency, leaving any money deposited
+     * concurrently in place.
+     *
+     * @return 0 if the box no longer holds at least that amount, i.e. it was emptied concurrently.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = AMOUNTS_TABLE))
+    @Query(value = """
+            UPDATE collection_box_amounts SET minor_units = minor_units - :minorUnits
+            WHERE collection_box_id = :boxId AND currency = :currency AND minor_units >= :minorUnits
+            """, nativeQuery = true)
+    int withdrawAmount(@Param("boxId") UUID boxId, @Param("currency") String currency, @Param("minorUnits") long minorUnits);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = AMOUNTS_TABLE))
+    @Query(value = "DELETE FROM collection_box_amounts WHERE collection_box_id = :boxId AND minor_units = 0", nativeQuery = true)
+    int deleteEmptyAmounts(@Param("boxId") UUID boxId);
+}
@@ -2,10 +2,18 @@ package org.sii.siiassignment.repository;
 
 import org.sii.siiassignment.model.FundraisingEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface FundraisingEventRepository extends JpaRepository<FundraisingEvent, UUID> {
+
+    /**
+     * @return One row per account currency: the currency, the sum of account balances and the number of events.
+     */
+    @Query("SELECT e.accountCurrency, SUM(e.accountBalance), COUNT(e) FROM FundraisingEvent e GROUP BY e.accountCurrency")
+    List<Object[]> sumAccountBalancesByCurrency();
 }
\ No newline at end of file
@@ -0,0 +1,413 @@
+package org.sii.siiassignment.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.model.CollectionBox;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
+import org.sii.siiassignment.repository.CollectionBoxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional in-memory ledger for high-throughput deposits, enabled with {@code collection-box.ledger.enabled}.
+ * <p>
+ * Deposits only add to a per-box, per-currency pending amount under a striped lock and return immediately.
+ * A write-behind flusher periodically persists the pending amounts of all dirty boxes as increments, in one
+ * JDBC batch, so they combine correctly with every other write to the box balances. Pending amounts are also
+ * flushed before a box is emptied and on shutdown, and are put back if the transaction writing them rolls back.
+ * <p>
+ * The ledger caches each box's persisted balances and assignment so that deposits can be answered without a
+ * database round trip. Operations that change a box in the database invalidate that cache after they commit.
+ * Amounts being flushed are kept in flight until their transaction completes, so reads never miss them.
+ * When the ledger is disabled every method is a no-op.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceLedger {
+
+    private final CollectionBoxRepository collectionBoxRepository;
+    private final CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersion dataVersion;
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    @Value("${collection-box.ledger.enabled:false}")
+    private boolean enabled;
+    @Value("${collection-box.ledger.stripes:64}")
+    private int stripeCount;
+    private ReentrantLock[] stripes;
+
+    private static final class Account {
+        private final BoxAmounts pending = new BoxAmounts();
+        /** Amounts taken out of {@link #pending} by a flush whose transaction has not completed yet. */
+        private final BoxAmounts inFlight = new BoxAmounts();
+        /** Balances as persisted, or null if they have to be reloaded from the database. */
+        private BoxAmounts persisted;
+        private UUID fundraisingEventId;
+        /** Bumped whenever the persisted balances change, so a load that raced with the change is discarded. */
+        private long generation;
+    }
+
+    /** Balances read from the database for {@code account} while it was at {@code generation}. */
+    private record Loaded(Account account, long generation, BoxAmounts amounts, UUID fundraisingEventId) {
+    }
+
+    @PostConstruct
+    void createStripes() {
+        stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records the deposit in memory. The first deposit into a box loads its balances from the database, outside
+     * the stripe lock so that deposits into other boxes of the stripe are not held up by it.
+     *
+     * @return The box with its persisted balances plus everything deposited but not yet flushed.
+     * @throws ResourceNotFoundException If the box does not exist.
+     */
+    public CollectionBoxResponse deposit(UUID boxId, int currency, long minorUnits) {
+        ReentrantLock lock = lockFor(boxId);
+        Loaded loaded = null;
+        while (true) {
+            Account account;
+            long generation;
+            lock.lock();
+            try {
+                account = accounts.computeIfAbsent(boxId, id -> new Account());
+                if (account.persisted == null && loaded != null && loaded.account() == account
+                        && loaded.generation() == account.generation) {
+                    account.persisted = loaded.amounts();
+                    account.fundraisingEventId = loaded.fundraisingEventId();
+                }
+                if (account.persisted != null) {
+                    account.pending.add(currency, minorUnits);
+                    dirty.add(boxId);
+
+                    BoxAmounts amounts = account.persisted.copy();
+                    amounts.addAll(account.inFlight);
+                    amounts.addAll(account.pending);
+                    return new CollectionBoxResponse(boxId, account.fundraisingEventId, amounts.toDecimalMap(),
+                            amounts.isEmpty(), account.fundraisingEventId != null);
+                }
+                generation = account.generation;
+            } finally {
+                lock.unlock();
+            }
+            loaded = load(boxId, account, generation);
+        }
+    }
+
+    /**
+     * @return The amounts deposited into the box that have not been persisted yet, including those being flushed.
+     */
+    public BoxAmounts pendingAmounts(UUID boxId) {
+        if (!enabled) {
+            return new BoxAmounts();
+        }
+        ReentrantLock lock = lockFor(boxId);
+        lock.lock();
+        try {
+            Account account = accounts.get(boxId);
+            if (account == null) {
+                return new BoxAmounts();
+            }
+            BoxAmounts amounts = account.inFlight.copy();
+            amounts.addAll(account.pending);
+            return amounts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Persists the pending amounts of one box. Inside a transaction the amounts are written as part of it,
+     * and are put back into the ledger if it rolls back.
+     */
+    public void flush(UUID boxId) {
+        flush(List.of(boxId));
+    }
+
+    /**
+     * Persists the pending amounts of the given boxes in one batch, like {@link #flush(UUID)}.
+     */
+    public void flush(Collection<UUID> boxIds) {
+        if (!enabled || boxIds.isEmpty()) {
+            return;
+        }
+        Map<UUID, BoxAmounts> changes = drain(boxIds);
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            write(changes);
+        } else {
+            flushInOwnTransaction(changes);
+        }
+    }
+
+    /**
+     * Persists the pending amounts of all dirty boxes in one batch. Runs every
+     * {@code collection-box.ledger.flush-interval-ms} and before the application shuts down.
+     */
+    @Scheduled(fixedDelayString = "${collection-box.ledger.flush-interval-ms:200}")
+    @PreDestroy
+    public void flushAll() {
+        if (!enabled || dirty.isEmpty()) {
+            return;
+        }
+        Map<UUID, BoxAmounts> changes = drain(new ArrayList<>(dirty));
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            write(changes);
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(changes));
+        } catch (DataAccessException e) {
+            // One box that can no longer be written to must not hold back the others.
+            log.warn("Ledger batch flush of {} boxes failed, flushing them one by one: {}", changes.size(), e.getMessage());
+            for (UUID boxId : changes.keySet()) {
+                Map<UUID, BoxAmounts> boxChanges = drain(List.of(boxId));
+                if (!boxChanges.isEmpty()) {
+                    flushInOwnTransaction(boxChanges);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the cached balances of the boxes once the current transaction commits, so that the next
+     * deposit reloads them. Pending amounts are kept.
+     */
+    public void invalidateAfterCommit(Collection<UUID> boxIds) {
+        if (enabled) {
+            afterCommit(() -> boxIds.forEach(this::invalidate));
+        }
+    }
+
+    /**
+     * Forgets the boxes, including amounts not yet persisted, once the current transaction commits.
+     * Used when boxes are removed.
+     */
+    public void evictAfterCommit(Collection<UUID> boxIds) {
+        if (enabled) {
+            afterCommit(() -> boxIds.forEach(this::evict));
+        }
+    }
+
+    private void evict(UUID boxId) {
+        ReentrantLock lock = lockFor(boxId);
+        lock.lock();
+        try {
+            accounts.remove(boxId);
+            dirty.remove(boxId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Loaded load(UUID boxId, Account account, long generation) {
+        CollectionBox box = collectionBoxRepository.findById(boxId).orElse(null);
+        if (box == null) {
+            ReentrantLock lock = lockFor(boxId);
+            lock.lock();
+            try {
+                if (accounts.remove(boxId, account)) {
+                    dirty.remove(boxId);
+                }
+            } finally {
+                lock.unlock();
+            }
+            throw new ResourceNotFoundException("CollectionBox not found with id: " + boxId);
+        }
+        return new Loaded(account, generation, box.getAmounts().copy(),
+                box.getFundraisingEvent() != null ? box.getFundraisingEvent().getId() : null);
+    }
+
+    private void invalidate(UUID boxId) {
+        ReentrantLock lock = lockFor(boxId);
+        lock.lock();
+        try {
+            Account account = accounts.get(boxId);
+            if (account != null) {
+                account.generation++;
+                if (account.pending.isEmpty() && account.inFlight.isEmpty()) {
+                    accounts.remove(boxId);
+                } else {
+                    account.persisted = null;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the pending amounts of the given boxes in flight and returns them.
+     */
+    private Map<UUID, BoxAmounts> drain(Collection<UUID> boxIds) {
+        Map<UUID, BoxAmounts> changes = new LinkedHashMap<>();
+        for (UUID boxId : boxIds) {
+            ReentrantLock lock = lockFor(boxId);
+            lock.lock();
+            try {
+                Account account = accounts.get(boxId);
+                if (account != null && !account.pending.isEmpty()) {
+                    changes.put(boxId, account.pending.copy());
+                    account.inFlight.addAll(account.pending);
+                    account.pending.clear();
+                }
+                dirty.remove(boxId);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return changes;
+    }
+
+    private void flushInOwnTransaction(Map<UUID, BoxAmounts> changes) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(changes));
+        } catch (DataIntegrityViolationException e) {
+            // The amounts were put back on rollback. If the box has been removed they can never be written.
+            changes.keySet().stream()
+                    .filter(boxId -> !collectionBoxRepository.existsById(boxId))
+                    .forEach(boxId -> {
+                        log.warn("Discarding unflushed deposits into removed collection box {}", boxId);
+                        evict(boxId);
+                    });
+        } catch (DataAccessException e) {
+            log.warn("Ledger flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the amounts in the current transaction and settles the ledger when it completes.
+     */
+    private void write(Map<UUID, BoxAmounts> changes) {
+        List<AmountChange> amountChanges = new ArrayList<>();
+        changes.forEach((boxId, amounts) -> {
+            for (int i = 0; i < amounts.size(); i++) {
+                amountChanges.add(new AmountChange(boxId, amounts.currencyAt(i), amounts.minorUnitsAt(i)));
+            }
+        });
+        try {
+            collectionBoxAmountJdbcRepository.depositAll(amountChanges);
+        } catch (RuntimeException e) {
+            restore(changes);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    applyPersisted(changes);
+                    dataVersion.increment(DataVersion.Scope.COLLECTION_BOXES);
+                } else {
+                    restore(changes);
+                }
+            }
+        });
+    }
+
+    private void applyPersisted(Map<UUID, BoxAmounts> changes) {
+        changes.forEach((boxId, amounts) -> {
+            ReentrantLock lock = lockFor(boxId);
+            lock.lock();
+            try {
+                Account account = accounts.get(boxId);
+                if (account != null) {
+                    account.generation++;
+                    land(account, amounts);
+                    if (account.persisted != null) {
+                        account.persisted.addAll(amounts);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    private void restore(Map<UUID, BoxAmounts> changes) {
+        changes.forEach((boxId, amounts) -> {
+            ReentrantLock lock = lockFor(boxId);
+            lock.lock();
+            try {
+                // The account may have been invalidated while the amounts were being written; its balances are
+                // then reloaded on the next deposit.
+                Account account = accounts.computeIfAbsent(boxId, id -> new Account());
+                land(account, amounts);
+                account.pending.addAll(amounts);
+                dirty.add(boxId);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Takes amounts whose flush completed out of flight. An account created after the flush started, because the
+     * box was evicted meanwhile, has none of them in flight.
+     */
+    private static void land(Account account, BoxAmounts amounts) {
+        if (account.inFlight.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < amounts.size(); i++) {
+            int currency = amounts.currencyAt(i);
+            account.inFlight.add(currency, -amounts.minorUnitsAt(i));
+            if (account.inFlight.get(currency) == 0) {
+                account.inFlight.remove(currency);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private ReentrantLock lockFor(UUID boxId) {
+        return stripes[Math.floorMod(boxId.hashCode(), stripes.length)];
+    }
+}
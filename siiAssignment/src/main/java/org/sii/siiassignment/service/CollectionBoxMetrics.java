@@ -0,0 +1,52 @@
+package org.sii.siiassignment.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.BoxCounts;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gauges of the registered collection boxes and of the money in them that has not been transferred to an event
+ * yet, by currency. Both are read from the database every {@code collection-box.metrics.refresh-interval-ms}
+ * instead of on every scrape.
+ */
+@Component
+public class CollectionBoxMetrics {
+
+    private final CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+    private final AtomicLong assignedBoxes = new AtomicLong();
+    private final AtomicLong unassignedBoxes = new AtomicLong();
+    private final MultiGauge pendingAmounts;
+
+    public CollectionBoxMetrics(CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository,
+                                MeterRegistry meterRegistry) {
+        this.collectionBoxAmountJdbcRepository = collectionBoxAmountJdbcRepository;
+        Gauge.builder("collection.boxes", assignedBoxes, AtomicLong::get)
+                .description("Registered collection boxes")
+                .tag("assigned", "true")
+                .register(meterRegistry);
+        Gauge.builder("collection.boxes", unassignedBoxes, AtomicLong::get)
+                .description("Registered collection boxes")
+                .tag("assigned", "false")
+                .register(meterRegistry);
+        pendingAmounts = MultiGauge.builder("collection.box.pending.amount")
+                .description("Money in collection boxes, by currency")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${collection-box.metrics.refresh-interval-ms:15000}")
+    public void refresh() {
+        BoxCounts counts = collectionBoxAmountJdbcRepository.countBoxes();
+        assignedBoxes.set(counts.assigned());
+        unassignedBoxes.set(counts.unassigned());
+        pendingAmounts.register(collectionBoxAmountJdbcRepository.sumAmountsByCurrency().entrySet().stream()
+                .map(entry -> MultiGauge.Row.of(Tags.of("currency", entry.getKey()), entry.getValue()))
+                .toList(), true);
+    }
+}
@@ -1,8 +1,11 @@
 package org.sii.siiassignment.service;
 
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositItem;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResponse;
 import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxPage;
 import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
-import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxSummaryResponse;
 
 import java.util.List;
 import java.util.UUID;
@@ -11,15 +14,38 @@ public interface CollectionBoxService {
 
     CollectionBoxResponse registerCollectionBox();
 
-    List<CollectionBoxSummaryResponse> listAllCollectionBoxes();
+    /**
+     * Registers the given number of new, empty boxes at once.
+     */
+    BatchBoxResponse registerCollectionBoxes(int count);
+
+    /**
+     * Lists collection boxes ordered by id, one page at a time. Null filters are ignored.
+     *
+     * @param after The {@link CollectionBoxPage#getNextCursor() cursor} of the previous page, or null for the first page.
+     * @param limit Maximum number of boxes on the page.
+     */
+    CollectionBoxPage listCollectionBoxes(Boolean assigned, Boolean empty, UUID eventId, UUID after, int limit);
 
     CollectionBoxResponse getCollectionBoxById(UUID id);
 
     void unregisterCollectionBox(UUID boxId);
 
+    /**
+     * Unregisters many boxes at once; the result of every box is reported separately, in request order.
+     */
+    BatchBoxResponse unregisterCollectionBoxes(List<UUID> boxIds);
+
     CollectionBoxResponse assignCollectionBoxToEvent(UUID boxId, UUID eventId);
 
+    /**
+     * Assigns many boxes to the event at once; the result of every box is reported separately, in request order.
+     */
+    BatchBoxResponse assignCollectionBoxesToEvent(List<UUID> boxIds, UUID eventId);
+
     CollectionBoxResponse depositMoneyToCollectionBox(UUID boxId, DepositMoneyRequest request);
 
+    BatchDepositResponse depositMoneyBatch(List<BatchDepositItem> items);
+
     CollectionBoxResponse emptyCollectionBox(UUID boxId);
 }
\ No newline at end of file
@@ -1,73 +1,167 @@
 package org.sii.siiassignment.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.sii.siiassignment.model.CollectionBox;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResult;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositItem;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResult;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxPage;
 import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
 import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxSummaryResponse;
 import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
 import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.model.TimeOrderedUuidGenerator;
 import org.sii.siiassignment.exception.CollectionBoxStateException;
 import org.sii.siiassignment.exception.InvalidAmountException;
 import org.sii.siiassignment.exception.InvalidCurrencyException;
 import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.BoxOperations;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
 import org.sii.siiassignment.repository.CollectionBoxRepository;
 import org.sii.siiassignment.repository.FundraisingEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CollectionBoxServiceImpl implements CollectionBoxService {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_REGISTER_COUNT = 10_000;
+
     private final CollectionBoxRepository collectionBoxRepository;
     private final FundraisingEventRepository fundraisingEventRepository;
     private final ExchangeRateService exchangeRateService;
+    private final CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BalanceLedger balanceLedger;
+    private final DepositCoalescer depositCoalescer;
+    @Value("${collection-box.batch.chunk-size:500}")
+    private int batchChunkSize;
+    @Value("${collection-box.retry.max-attempts:3}")
+    private int maxAttempts;
 
     @Override
     @Transactional
     public CollectionBoxResponse registerCollectionBox() {
         CollectionBox newBox = new CollectionBox();
         CollectionBox savedBox = collectionBoxRepository.save(newBox);
+        eventPublisher.publishEvent(BoxOperations.of(BoxOperation.register(savedBox.getId())));
         return mapToCollectionBoxResponse(savedBox);
     }
 
+    /**
+     * Creates all boxes with a single JDBC batch insert. Ids are generated here rather than by the database, so
+     * they are known without reading the boxes back.
+     */
     @Override
     @Transactional
-    public List<CollectionBoxSummaryResponse> listAllCollectionBoxes() {
-        return collectionBoxRepository.findAll().stream()
-                .map(this::mapToCollectionBoxSummaryResponse)
-                .collect(Collectors.toList());
+    public BatchBoxResponse registerCollectionBoxes(int count) {
+        if (count < 1 || count > MAX_REGISTER_COUNT) {
+            throw new InvalidAmountException("Number of boxes to register must be between 1 and " + MAX_REGISTER_COUNT + ".");
+        }
+        List<UUID> boxIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boxIds.add(TimeOrderedUuidGenerator.next());
+        }
+        collectionBoxAmountJdbcRepository.insertBoxes(boxIds);
+        eventPublisher.publishEvent(new BoxOperations(boxIds.stream().map(BoxOperation::register).toList()));
+
+        List<BatchBoxResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new BatchBoxResult(i, boxIds.get(i), BatchBoxResult.Status.ACCEPTED, null));
+        }
+        return new BatchBoxResponse(count, 0, results);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CollectionBoxPage listCollectionBoxes(Boolean assigned, Boolean empty, UUID eventId, UUID after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // One extra row tells whether there is a next page without a separate count query.
+        List<CollectionBoxSummaryResponse> boxes =
+                collectionBoxAmountJdbcRepository.findSummaries(assigned, empty, eventId, after, pageSize + 1);
+        if (boxes.size() <= pageSize) {
+            return new CollectionBoxPage(boxes, null);
+        }
+        List<CollectionBoxSummaryResponse> page = boxes.subList(0, pageSize);
+        return new CollectionBoxPage(page, page.get(pageSize - 1).getId());
     }
 
     @Override
     @Transactional
     public CollectionBoxResponse getCollectionBoxById(UUID id) {
-        return collectionBoxRepository.findById(id)
-                .map(this::mapToCollectionBoxResponse)
+        CollectionBox box = collectionBoxRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("CollectionBox not found with id: " + id));
+
+        BoxAmounts pending = balanceLedger.pendingAmounts(id);
+        if (pending.size() > 0) {
+            BoxAmounts amounts = box.getAmounts().copy();
+            amounts.addAll(pending);
+            return new CollectionBoxResponse(box.getId(), box.isAssigned() ? box.getFundraisingEvent().getId() : null,
+                    amounts.toDecimalMap(), amounts.isEmpty(), box.isAssigned());
+        }
+        return mapToCollectionBoxResponse(box);
     }
 
     @Override
     @Transactional
     public void unregisterCollectionBox(UUID boxId) {
-        CollectionBox box = collectionBoxRepository.findById(boxId)
-                .orElseThrow(() -> new RuntimeException("CollectionBox not found with id: " + boxId));
+        if (collectionBoxAmountJdbcRepository.deleteBoxes(List.of(boxId)).isEmpty()) {
+            throw new ResourceNotFoundException("CollectionBox not found with id: " + boxId);
+        }
+        balanceLedger.evictAfterCommit(List.of(boxId));
+        eventPublisher.publishEvent(BoxOperations.of(BoxOperation.unregister(boxId)));
+    }
 
-        box.clearAmounts();
-        box.setFundraisingEvent(null);
-        collectionBoxRepository.save(box);
-        collectionBoxRepository.delete(box);
+    /**
+     * Deletes the boxes and their balances with one statement per table for each chunk of boxes, one transaction
+     * per chunk. A chunk that fails does not affect the others.
+     */
+    @Override
+    public BatchBoxResponse unregisterCollectionBoxes(List<UUID> boxIds) {
+        return processBoxBatch(boxIds, (chunk, results) -> {
+            Set<UUID> deleted = collectionBoxAmountJdbcRepository.deleteBoxes(chunk.keySet());
+            balanceLedger.evictAfterCommit(deleted);
+            eventPublisher.publishEvent(new BoxOperations(deleted.stream().map(BoxOperation::unregister).toList()));
+            chunk.forEach((boxId, indexes) -> setResults(results, indexes, boxId, deleted.contains(boxId)
+                    ? BatchBoxResult.Status.ACCEPTED : BatchBoxResult.Status.BOX_NOT_FOUND,
+                    deleted.contains(boxId) ? null : "CollectionBox not found with id: " + boxId));
+        });
     }
 
     @Override
     @Transactional
+    @Retryable(retryFor = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = "${collection-box.retry.max-attempts:3}",
+            backoff = @Backoff(delay = 5, maxDelay = 50, random = true))
     public CollectionBoxResponse assignCollectionBoxToEvent(UUID boxId, UUID eventId) {
         CollectionBox collectionBox = collectionBoxRepository.findById(boxId)
                 .orElseThrow(() -> new RuntimeException("CollectionBox not found with id: " + boxId));
@@ -88,48 +182,285 @@ public class CollectionBoxServiceImpl implements CollectionBoxService {
 
         collectionBox.setFundraisingEvent(event);
         CollectionBox savedBox = collectionBoxRepository.save(collectionBox);
+        balanceLedger.invalidateAfterCommit(List.of(boxId));
+        eventPublisher.publishEvent(BoxOperations.of(BoxOperation.assign(boxId, eventId)));
         return mapToCollectionBoxResponse(savedBox);
     }
 
+    /**
+     * Reads the boxes of each chunk with one query to tell why a box cannot be assigned, then assigns the rest with
+     * a single update, one transaction per chunk. Boxes already assigned to the event are accepted, as with a single
+     * box. A box that is assigned or deposited into between the read and the update is reported as failed.
+     */
     @Override
-    @Transactional
-    public CollectionBoxResponse depositMoneyToCollectionBox(UUID boxId, DepositMoneyRequest request) {
-        CollectionBox box = collectionBoxRepository.findById(boxId)
-                .orElseThrow(() -> new RuntimeException("CollectionBox not found with id: " + boxId));
+    public BatchBoxResponse assignCollectionBoxesToEvent(List<UUID> boxIds, UUID eventId) {
+        if (!fundraisingEventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("FundraisingEvent not found with id: " + eventId);
+        }
+        return processBoxBatch(boxIds, (chunk, results) -> {
+            Map<UUID, CollectionBoxResponse> boxes = collectionBoxAmountJdbcRepository.findBoxes(chunk.keySet());
+            List<UUID> candidates = new ArrayList<>();
+            chunk.forEach((boxId, indexes) -> {
+                CollectionBoxResponse box = boxes.get(boxId);
+                if (box == null) {
+                    setResults(results, indexes, boxId, BatchBoxResult.Status.BOX_NOT_FOUND, "CollectionBox not found with id: " + boxId);
+                } else if (eventId.equals(box.getFundraisingEventId())) {
+                    setResults(results, indexes, boxId, BatchBoxResult.Status.ACCEPTED, null);
+                } else if (box.isAssigned()) {
+                    setResults(results, indexes, boxId, BatchBoxResult.Status.ALREADY_ASSIGNED,
+                            "Collection box is already assigned to a different fundraising event. Unassign first.");
+                } else if (!box.isEmpty()) {
+                    setResults(results, indexes, boxId, BatchBoxResult.Status.BOX_NOT_EMPTY,
+                            "Collection box must be empty to be assigned to a fundraising event.");
+                } else {
+                    candidates.add(boxId);
+                }
+            });
+
+            Set<UUID> assigned = collectionBoxAmountJdbcRepository.assignEmptyBoxes(candidates, eventId);
+            balanceLedger.invalidateAfterCommit(assigned);
+            eventPublisher.publishEvent(new BoxOperations(assigned.stream()
+                    .map(boxId -> BoxOperation.assign(boxId, eventId))
+                    .toList()));
+            for (UUID boxId : candidates) {
+                setResults(results, chunk.get(boxId), boxId, assigned.contains(boxId)
+                        ? BatchBoxResult.Status.ACCEPTED : BatchBoxResult.Status.FAILED,
+                        assigned.contains(boxId) ? null : "Collection box was changed concurrently, try again.");
+            }
+        });
+    }
+
+    /**
+     * Groups the ids by box, so a box listed twice is processed once, and runs the operation on chunks of
+     * {@code collection-box.batch.chunk-size} boxes, each in its own transaction. The operation sets the result
+     * of every box of its chunk; all boxes of a chunk that fails with a database error are reported as failed.
+     */
+    private BatchBoxResponse processBoxBatch(List<UUID> boxIds, BoxChunkOperation operation) {
+        BatchBoxResult[] results = new BatchBoxResult[boxIds.size()];
+        Map<UUID, List<Integer>> indexesByBox = new LinkedHashMap<>();
+        for (int i = 0; i < boxIds.size(); i++) {
+            UUID boxId = boxIds.get(i);
+            if (boxId == null) {
+                results[i] = new BatchBoxResult(i, null, BatchBoxResult.Status.BOX_NOT_FOUND, "Box id is required.");
+            } else {
+                indexesByBox.computeIfAbsent(boxId, id -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int chunkSize = Math.max(1, batchChunkSize);
+        List<UUID> ids = new ArrayList<>(indexesByBox.keySet());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            Map<UUID, List<Integer>> chunk = new LinkedHashMap<>();
+            ids.subList(from, Math.min(from + chunkSize, ids.size())).forEach(id -> chunk.put(id, indexesByBox.get(id)));
+            try {
+                transactionTemplate.execute(status -> {
+                    operation.apply(chunk, results);
+                    return null;
+                });
+            } catch (DataAccessException e) {
+                chunk.forEach((boxId, indexes) ->
+                        setResults(results, indexes, boxId, BatchBoxResult.Status.FAILED, e.getMessage()));
+            }
+        }
+
+        int accepted = 0;
+        for (BatchBoxResult result : results) {
+            if (result.getStatus() == BatchBoxResult.Status.ACCEPTED) {
+                accepted++;
+            }
+        }
+        return new BatchBoxResponse(accepted, results.length - accepted, List.of(results));
+    }
+
+    private static void setResults(BatchBoxResult[] results, List<Integer> indexes, UUID boxId,
+                                   BatchBoxResult.Status status, String message) {
+        for (int index : indexes) {
+            results[index] = new BatchBoxResult(index, boxId, status, message);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BoxChunkOperation {
+        void apply(Map<UUID, List<Integer>> indexesByBox, BatchBoxResult[] results);
+    }
 
+    /**
+     * Adds the money, as minor units of the currency, with a single atomic upsert on the box's balance row,
+     * without loading the box first, so concurrent deposits into the same box never overwrite each other. An amount
+     * with more decimal places than the currency has is rejected. A deposit that loses the race
+     * to create a new currency row is retried. With the {@link BalanceLedger} enabled the deposit is only
+     * recorded in memory and persisted later; with the {@link DepositCoalescer} enabled it is written together
+     * with other deposits arriving at the same time. The method opens its transaction only for the direct write,
+     * so callers waiting for the coalescer do not hold a database connection.
+     */
+    @Override
+    @Retryable(retryFor = DataIntegrityViolationException.class,
+            maxAttemptsExpression = "${collection-box.retry.max-attempts:3}",
+            backoff = @Backoff(delay = 5, maxDelay = 50, random = true))
+    @Timed(value = "collection.box.deposit", description = "Deposits into a single collection box", histogram = true)
+    public CollectionBoxResponse depositMoneyToCollectionBox(UUID boxId, DepositMoneyRequest request) {
         if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new InvalidAmountException("Amount must be positive.");
         }
 
-        String currency = validateCurrency(request);
+        String currency = request.getCurrency();
+        int currencyCode = validateCurrency(currency);
+        long minorUnits = CurrencyCodes.toMinorUnits(request.getAmount(), currencyCode);
 
-        BigDecimal currentAmount = box.getAmounts().getOrDefault(currency, BigDecimal.ZERO);
-        box.getAmounts().put(currency, currentAmount.add(request.getAmount()));
+        BoxOperations journaled = BoxOperations.of(BoxOperation.deposit(boxId, currency, request.getAmount()));
+        if (balanceLedger.isEnabled()) {
+            CollectionBoxResponse response = balanceLedger.deposit(boxId, currencyCode, minorUnits);
+            eventPublisher.publishEvent(journaled);
+            return response;
+        }
+        if (depositCoalescer.isEnabled()) {
+            return depositCoalescer.deposit(boxId, currencyCode, minorUnits);
+        }
 
-        CollectionBox savedBox = collectionBoxRepository.save(box);
-        return mapToCollectionBoxResponse(savedBox);
+        return transactionTemplate.execute(status -> {
+            try {
+                collectionBoxRepository.depositAmount(boxId, currency, minorUnits);
+            } catch (DataIntegrityViolationException e) {
+                if (!collectionBoxRepository.existsById(boxId)) {
+                    throw new ResourceNotFoundException("CollectionBox not found with id: " + boxId);
+                }
+                throw e;
+            }
+            eventPublisher.publishEvent(journaled);
+
+            return collectionBoxRepository.findById(boxId)
+                    .map(this::mapToCollectionBoxResponse)
+                    .orElseThrow(() -> new ResourceNotFoundException("CollectionBox not found with id: " + boxId));
+        });
     }
 
-    private String validateCurrency(DepositMoneyRequest request) {
-        String currency;
+    /**
+     * Deposits many amounts at once. Currencies are checked against a single rate snapshot, deposits into the
+     * same box and currency are summed, and the resulting balance changes are written with JDBC batching,
+     * one transaction per chunk of boxes. A chunk that fails does not affect the others.
+     */
+    @Override
+    public BatchDepositResponse depositMoneyBatch(List<BatchDepositItem> items) {
+        BatchDepositResult[] results = new BatchDepositResult[items.size()];
+        RateSnapshot rates = exchangeRateService.getSnapshot();
+
+        Map<UUID, List<Integer>> itemsByBox = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchDepositItem item = items.get(i);
+            if (item == null || item.getBoxId() == null) {
+                results[i] = new BatchDepositResult(i, null, BatchDepositResult.Status.BOX_NOT_FOUND, "Box id is required.");
+            } else if (item.getAmount() == null || item.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                results[i] = new BatchDepositResult(i, item.getBoxId(), BatchDepositResult.Status.INVALID_AMOUNT, "Amount must be positive.");
+            } else if (!rates.getCurrencies().contains(item.getCurrency())) {
+                results[i] = new BatchDepositResult(i, item.getBoxId(), BatchDepositResult.Status.INVALID_CURRENCY,
+                        "Currency " + item.getCurrency() + " is not supported for collection boxes.");
+            } else {
+                try {
+                    CurrencyCodes.toMinorUnits(item.getAmount(), CurrencyCodes.pack(item.getCurrency()));
+                    itemsByBox.computeIfAbsent(item.getBoxId(), id -> new ArrayList<>()).add(i);
+                } catch (InvalidAmountException e) {
+                    results[i] = new BatchDepositResult(i, item.getBoxId(), BatchDepositResult.Status.INVALID_AMOUNT, e.getMessage());
+                }
+            }
+        }
+
+        int chunkSize = Math.max(1, batchChunkSize);
+        Map<UUID, List<Integer>> chunk = new LinkedHashMap<>();
+        int chunkItems = 0;
+        for (Map.Entry<UUID, List<Integer>> box : itemsByBox.entrySet()) {
+            chunk.put(box.getKey(), box.getValue());
+            chunkItems += box.getValue().size();
+            if (chunkItems >= chunkSize) {
+                depositChunk(chunk, items, results);
+                chunk = new LinkedHashMap<>();
+                chunkItems = 0;
+            }
+        }
+        depositChunk(chunk, items, results);
+
+        int accepted = 0;
+        for (BatchDepositResult result : results) {
+            if (result.getStatus() == BatchDepositResult.Status.ACCEPTED) {
+                accepted++;
+            }
+        }
+        return new BatchDepositResponse(accepted, results.length - accepted, List.of(results));
+    }
+
+    private void depositChunk(Map<UUID, List<Integer>> itemsByBox, List<BatchDepositItem> items, BatchDepositResult[] results) {
+        if (itemsByBox.isEmpty()) {
+            return;
+        }
+        RetryTemplate retryTemplate = RetryTemplate.builder()
+                .maxAttempts(Math.max(1, maxAttempts))
+                .retryOn(DataIntegrityViolationException.class)
+                .uniformRandomBackoff(5, 50)
+                .build();
+        Set<UUID> existing;
         try {
-            currency = request.getCurrency();
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid currency code provided: " + request.getCurrency(), e);
+            existing = retryTemplate.execute(context -> transactionTemplate.execute(status -> {
+                Set<UUID> found = collectionBoxAmountJdbcRepository.findExistingBoxIds(itemsByBox.keySet());
+                List<AmountChange> changes = new ArrayList<>();
+                for (Map.Entry<UUID, List<Integer>> box : itemsByBox.entrySet()) {
+                    if (!found.contains(box.getKey())) {
+                        continue;
+                    }
+                    BoxAmounts totals = new BoxAmounts();
+                    for (int index : box.getValue()) {
+                        BatchDepositItem item = items.get(index);
+                        int currency = CurrencyCodes.pack(item.getCurrency());
+                        totals.add(currency, CurrencyCodes.toMinorUnits(item.getAmount(), currency));
+                    }
+                    for (int i = 0; i < totals.size(); i++) {
+                        changes.add(new AmountChange(box.getKey(), totals.currencyAt(i), totals.minorUnitsAt(i)));
+                    }
+                }
+                collectionBoxAmountJdbcRepository.depositAll(changes);
+                balanceLedger.invalidateAfterCommit(found);
+                eventPublisher.publishEvent(new BoxOperations(changes.stream()
+                        .map(change -> BoxOperation.deposit(change.boxId(), change.currencyCode(), change.amount()))
+                        .toList()));
+                return found;
+            }));
+        } catch (DataAccessException e) {
+            itemsByBox.forEach((boxId, indexes) -> indexes.forEach(index ->
+                    results[index] = new BatchDepositResult(index, boxId, BatchDepositResult.Status.FAILED, e.getMessage())));
+            return;
         }
 
-        Set<String> availableCurrencies = exchangeRateService.getRatesCache().keySet();
-        if (!availableCurrencies.contains(currency)) {
+        itemsByBox.forEach((boxId, indexes) -> indexes.forEach(index -> results[index] = existing.contains(boxId)
+                ? new BatchDepositResult(index, boxId, BatchDepositResult.Status.ACCEPTED, null)
+                : new BatchDepositResult(index, boxId, BatchDepositResult.Status.BOX_NOT_FOUND,
+                "CollectionBox not found with id: " + boxId)));
+    }
+
+    /**
+     * @return The packed code of the currency.
+     */
+    private int validateCurrency(String currency) {
+        int code = exchangeRateService.getCurrencyRegistry().codeOf(currency);
+        if (code == CurrencyCodes.INVALID) {
             throw new InvalidCurrencyException("Currency " + currency + " is not supported for collection boxes. " +
                     "Might be a non-existent currency, use ISO 4217 code.");
         }
-        return currency;
+        return code;
     }
 
+    /**
+     * Moves the money from the box to the event's account. The box and the event are versioned, so a
+     * concurrent empty or assign of the same box, or a concurrent credit to the same event, makes this
+     * attempt fail and be retried. Money deposited while the box is being emptied stays in the box, and is in the
+     * returned balances.
+     */
     @Override
     @Transactional
+    @Retryable(retryFor = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = "${collection-box.retry.max-attempts:3}",
+            backoff = @Backoff(delay = 5, maxDelay = 50, random = true))
+    @Timed(value = "collection.box.empty", description = "Transfers from a collection box to its event", histogram = true)
     public CollectionBoxResponse emptyCollectionBox(UUID boxId) {
-        CollectionBox box = collectionBoxRepository.findById(boxId)
+        balanceLedger.flush(boxId);
+        CollectionBox box = collectionBoxRepository.findForUpdateById(boxId)
                 .orElseThrow(() -> new RuntimeException("CollectionBox not found with id: " + boxId));
 
         if (!box.isAssigned()) {
@@ -146,40 +477,58 @@ public class CollectionBoxServiceImpl implements CollectionBoxService {
 
         BigDecimal totalAmountInEventCurrency = BigDecimal.ZERO;
         String eventCurrency = event.getAccountCurrency();
+        RateSnapshot rates = exchangeRateService.getSnapshot();
+        int eventCurrencyId = rates.idOf(eventCurrency);
+        if (eventCurrencyId < 0) {
+            throw new InvalidCurrencyException("Unsupported or invalid currency code: " + eventCurrency);
+        }
 
-        for (Map.Entry<String, BigDecimal> entry : box.getAmounts().entrySet()) {
-            String boxCurrencyToConvert;
-            try {
-                boxCurrencyToConvert = entry.getKey();
-            } catch (IllegalArgumentException e) {
-                System.err.println("Skipping unknown currency in box: " + entry.getKey());
+        BoxAmounts amounts = box.getAmounts();
+        for (int i = 0; i < amounts.size(); i++) {
+            if (amounts.minorUnitsAt(i) == 0) {
                 continue;
             }
-            BigDecimal amountInBoxCurrencyToConvert = entry.getValue();
-
-            if (amountInBoxCurrencyToConvert == null || amountInBoxCurrencyToConvert.compareTo(BigDecimal.ZERO) == 0) {
-                continue;
+            String boxCurrency = CurrencyCodes.unpack(amounts.currencyAt(i));
+            int boxCurrencyId = rates.idOf(boxCurrency);
+            if (boxCurrencyId < 0) {
+                throw new InvalidCurrencyException("Unsupported or invalid currency code: " + boxCurrency);
             }
 
-            BigDecimal convertedAmount = convertCurrency(amountInBoxCurrencyToConvert, boxCurrencyToConvert, eventCurrency);
-            totalAmountInEventCurrency = totalAmountInEventCurrency.add(convertedAmount);
+            BigDecimal amount = CurrencyCodes.toDecimal(amounts.minorUnitsAt(i), amounts.currencyAt(i));
+            totalAmountInEventCurrency = totalAmountInEventCurrency.add(convertCurrency(amount, boxCurrencyId, eventCurrencyId, rates));
         }
 
         event.setAccountBalance(event.getAccountBalance().add(totalAmountInEventCurrency));
         fundraisingEventRepository.save(event);
+        eventPublisher.publishEvent(new FundraisingEventUpdated(event));
 
-        box.clearAmounts();
-        CollectionBox savedBox = collectionBoxRepository.save(box);
+        List<BoxOperation> withdrawals = new ArrayList<>();
+        for (int i = 0; i < amounts.size(); i++) {
+            long minorUnits = amounts.minorUnitsAt(i);
+            if (minorUnits == 0) {
+                continue;
+            }
+            String currency = CurrencyCodes.unpack(amounts.currencyAt(i));
+            if (collectionBoxRepository.withdrawAmount(boxId, currency, minorUnits) == 0) {
+                throw new ObjectOptimisticLockingFailureException(CollectionBox.class, boxId);
+            }
+            withdrawals.add(BoxOperation.withdraw(boxId, event.getId(), currency,
+                    CurrencyCodes.toDecimal(minorUnits, amounts.currencyAt(i))));
+        }
+        eventPublisher.publishEvent(new BoxOperations(withdrawals));
+        collectionBoxRepository.deleteEmptyAmounts(boxId);
+        balanceLedger.invalidateAfterCommit(List.of(boxId));
 
-        return mapToCollectionBoxResponse(savedBox);
+        // Re-read rather than assume an empty box: deposits committed meanwhile are still in it
+        return collectionBoxAmountJdbcRepository.findBoxes(List.of(boxId)).get(boxId);
     }
 
-    private BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String toCurrency) {
-        if (fromCurrency.equals(toCurrency)) {
+    private BigDecimal convertCurrency(BigDecimal amount, int fromCurrencyId, int toCurrencyId, RateSnapshot rates) {
+        if (fromCurrencyId == toCurrencyId) {
             return amount;
         }
 
-        BigDecimal exchangeRate = exchangeRateService.getExchangeRate(fromCurrency, toCurrency);
+        BigDecimal exchangeRate = rates.rate(fromCurrencyId, toCurrencyId);
 
         return amount.multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
 
@@ -191,18 +540,9 @@ public class CollectionBoxServiceImpl implements CollectionBoxService {
         return new CollectionBoxResponse(
                 box.getId(),
                 box.getFundraisingEvent() != null ? box.getFundraisingEvent().getId() : null,
-                box.getAmounts(),
+                box.getAmounts().toDecimalMap(),
                 box.isEmpty(),
                 box.isAssigned()
         );
     }
-
-    private CollectionBoxSummaryResponse mapToCollectionBoxSummaryResponse(CollectionBox box) {
-        if (box == null) return null;
-        return new CollectionBoxSummaryResponse(
-                box.getId(),
-                box.isAssigned(),
-                box.isEmpty()
-        );
-    }
 }
\ No newline at end of file
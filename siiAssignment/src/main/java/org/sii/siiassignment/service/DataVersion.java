@@ -0,0 +1,64 @@
+package org.sii.siiassignment.service;
+
+import org.sii.siiassignment.journal.BoxOperations;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing versions of the collection boxes and the fundraising events, used as ETags so that
+ * clients polling unchanged data get {@code 304 Not Modified}.
+ * <p>
+ * A version moves on once a change has committed, from the {@link BoxOperations} and
+ * {@link FundraisingEventUpdated} notifications every write path publishes, and after the other listeners of
+ * those notifications: anything read under the new version already includes the change. Writes that publish
+ * neither call {@link #increment} themselves. Each tag starts with the time the application started, so tags
+ * from before a restart never match.
+ */
+@Component
+public class DataVersion {
+
+    public enum Scope {
+        COLLECTION_BOXES, FUNDRAISING_EVENTS
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong boxes = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+
+    public long current(Scope scope) {
+        return counter(scope).get();
+    }
+
+    /**
+     * @return An opaque tag that changes whenever the data of the scope changes.
+     */
+    public String tag(Scope scope) {
+        return epoch + "-" + current(scope);
+    }
+
+    public void increment(Scope scope) {
+        counter(scope).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onBoxOperations(BoxOperations operations) {
+        if (!operations.operations().isEmpty()) {
+            increment(Scope.COLLECTION_BOXES);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onFundraisingEventUpdated(FundraisingEventUpdated update) {
+        increment(Scope.FUNDRAISING_EVENTS);
+    }
+
+    private AtomicLong counter(Scope scope) {
+        return scope == Scope.COLLECTION_BOXES ? boxes : events;
+    }
+}
@@ -0,0 +1,239 @@
+package org.sii.siiassignment.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.exception.DepositTimeoutException;
+import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.BoxOperations;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional micro-batching stage for deposits, enabled with {@code collection-box.coalescing.enabled}.
+ * <p>
+ * Callers hand their deposit to a worker and wait. The worker collects the deposits arriving within
+ * {@code collection-box.coalescing.window-ms} of the first one, up to {@code collection-box.coalescing.max-batch},
+ * sums them per box and currency and writes each sum as one increment, all in one transaction. Every caller then gets
+ * the state of its box after the batch. Deposits are sharded over {@code collection-box.coalescing.workers} workers by
+ * box, so deposits into the same box always end up in the same batch stream.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DepositCoalescer {
+
+    private static final long MAX_BACKOFF_MILLIS = 50;
+
+    private final CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    @Value("${collection-box.coalescing.enabled:false}")
+    private boolean enabled;
+    @Value("${collection-box.coalescing.window-ms:1}")
+    private long windowMillis;
+    @Value("${collection-box.coalescing.max-batch:256}")
+    private int maxBatch;
+    @Value("${collection-box.coalescing.workers:2}")
+    private int workerCount;
+    @Value("${collection-box.retry.max-attempts:3}")
+    private int maxAttempts;
+    @Value("${spring.transaction.default-timeout:10s}")
+    private Duration transactionTimeout;
+    private List<BlockingQueue<PendingDeposit>> queues;
+    private List<Thread> workers;
+    private volatile boolean running;
+    /** Held shared while a deposit is enqueued and exclusively while stopping, so none is enqueued after the stop. */
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    private record PendingDeposit(UUID boxId, int currency, long minorUnits,
+                                  CompletableFuture<CollectionBoxResponse> result) {
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        queues = new ArrayList<>();
+        workers = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            BlockingQueue<PendingDeposit> queue = new LinkedBlockingQueue<>();
+            Thread worker = new Thread(() -> drain(queue), "deposit-coalescer-" + i);
+            worker.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        runningLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (BlockingQueue<PendingDeposit> queue : queues) {
+            queue.forEach(deposit -> deposit.result().completeExceptionally(
+                    new IllegalStateException("Deposit coalescer has been stopped")));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Deposits the amount as part of the next batch and waits for the batch to be committed.
+     *
+     * @return The box with its balances after the batch.
+     * @throws ResourceNotFoundException If the box does not exist.
+     * @throws DepositTimeoutException   If the batch was not committed within the window and the transaction
+     *                                   timeout of each of its attempts.
+     */
+    public CollectionBoxResponse deposit(UUID boxId, int currency, long minorUnits) {
+        PendingDeposit deposit = new PendingDeposit(boxId, currency, minorUnits, new CompletableFuture<>());
+        runningLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Deposit coalescer is not running");
+            }
+            queues.get(Math.floorMod(boxId.hashCode(), queues.size())).add(deposit);
+        } finally {
+            runningLock.readLock().unlock();
+        }
+        try {
+            return deposit.result().orTimeout(maxWaitMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw new DepositTimeoutException("Deposit into box " + boxId + " was not confirmed in time");
+            }
+            throw e;
+        }
+    }
+
+    /** How long a caller waits for its batch: the window, then every attempt up to its timeout and backoff. */
+    private long maxWaitMillis() {
+        return windowMillis + Math.max(1, maxAttempts) * (transactionTimeout.toMillis() + MAX_BACKOFF_MILLIS);
+    }
+
+    private void drain(BlockingQueue<PendingDeposit> queue) {
+        List<PendingDeposit> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingDeposit first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingDeposit next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                apply(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(deposit -> deposit.result().completeExceptionally(e));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Deposit batch of {} items failed", batch.size(), e);
+                batch.forEach(deposit -> deposit.result().completeExceptionally(e));
+            } catch (Throwable e) {
+                // The worker ends; deposits still routed to its queue time out instead of waiting forever
+                log.error("Deposit worker {} stopped", Thread.currentThread().getName(), e);
+                batch.forEach(deposit -> deposit.result().completeExceptionally(e));
+                throw e;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction and completes every deposit in it with the state of its box.
+     */
+    private void apply(List<PendingDeposit> batch) {
+        Map<UUID, BoxAmounts> totals = new LinkedHashMap<>();
+        for (PendingDeposit deposit : batch) {
+            totals.computeIfAbsent(deposit.boxId(), id -> new BoxAmounts()).add(deposit.currency(), deposit.minorUnits());
+        }
+
+        RetryTemplate retryTemplate = RetryTemplate.builder()
+                .maxAttempts(Math.max(1, maxAttempts))
+                .retryOn(DataIntegrityViolationException.class)
+                .uniformRandomBackoff(5, MAX_BACKOFF_MILLIS)
+                .build();
+        Map<UUID, CollectionBoxResponse> boxes = retryTemplate.execute(context -> transactionTemplate.execute(status -> {
+            Set<UUID> found = collectionBoxAmountJdbcRepository.findExistingBoxIds(totals.keySet());
+            List<AmountChange> changes = new ArrayList<>();
+            totals.forEach((boxId, amounts) -> {
+                for (int i = 0; found.contains(boxId) && i < amounts.size(); i++) {
+                    changes.add(new AmountChange(boxId, amounts.currencyAt(i), amounts.minorUnitsAt(i)));
+                }
+            });
+            collectionBoxAmountJdbcRepository.depositAll(changes);
+            eventPublisher.publishEvent(new BoxOperations(batch.stream()
+                    .filter(deposit -> found.contains(deposit.boxId()))
+                    .map(deposit -> BoxOperation.deposit(deposit.boxId(), CurrencyCodes.unpack(deposit.currency()),
+                            CurrencyCodes.toDecimal(deposit.minorUnits(), deposit.currency())))
+                    .toList()));
+            return collectionBoxAmountJdbcRepository.findBoxes(found);
+        }));
+
+        for (PendingDeposit deposit : batch) {
+            CollectionBoxResponse box = boxes.get(deposit.boxId());
+            if (box == null) {
+                deposit.result().completeExceptionally(
+                        new ResourceNotFoundException("CollectionBox not found with id: " + deposit.boxId()));
+            } else {
+                deposit.result().complete(new CollectionBoxResponse(box.getId(), box.getFundraisingEventId(),
+                        new HashMap<>(box.getAmounts()), box.isEmpty(), box.isAssigned()));
+            }
+        }
+    }
+}
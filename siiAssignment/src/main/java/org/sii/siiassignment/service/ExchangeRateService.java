@@ -1,99 +1,269 @@
 package org.sii.siiassignment.service;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Data;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.sii.siiassignment.DTO.ExchangeRate.ExchangeRateStatusResponse;
 import org.sii.siiassignment.exception.ExchangeRateException;
 import org.sii.siiassignment.exception.InvalidCurrencyException;
+import org.sii.siiassignment.rates.CurrencyRegistry;
+import org.sii.siiassignment.rates.RateProviderChain;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.rates.RateSnapshotStore;
+import org.sii.siiassignment.rates.RateSourceChanged;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Serves exchange rates from an in-memory cache that is renewed in the background.
+ * <p>
+ * Request threads never fetch rates themselves: a scheduled refresher renews the cache shortly before it expires
+ * and, if no provider of the {@link RateProviderChain} has rates, the last good rates keep being served. Rates from
+ * a fallback provider are renewed at every check, so the first provider takes over again as soon as it is back.
+ * Every refresh is persisted by the {@link RateSnapshotStore}, and the persisted rates are served from startup until
+ * the first refresh succeeds, so deposits are accepted right after a restart even while no provider answers.
+ * <p>
+ * Every refresh publishes a new immutable {@link RateSnapshot}, together with the {@link CurrencyRegistry} used to
+ * validate currency codes, so readers never observe a partially updated set of rates.
+ * <p>
+ * The scheduled refresh does not block; {@link #refresh()} and {@link #rates()} are the reactive API for callers
+ * that must not block either.
+ * <p>
+ * Metrics: {@code exchange.rates.lookups} counts reads of the cache by result ({@code hit}, {@code stale} when
+ * the rates are older than the cache duration, {@code miss} when none are loaded), {@code exchange.rates.refresh}
+ * times refreshes through the provider chain by outcome, and gauges report the age of the rates and the consecutive
+ * failures.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ExchangeRateService {
 
+    /** Source reported for rates loaded from the {@link RateSnapshotStore}. */
+    public static final String SNAPSHOT_SOURCE = "snapshot";
     private static final long CACHE_DURATION = 3600000; // 1 hour
-    private final WebClient webClient;
-    private final Map<String, BigDecimal> ratesCache = new ConcurrentHashMap<>();
-    private long lastUpdateTime = 0;
-    @Value("${exchange.rate.api.key:}")
-    private String apiKey;
+    private final RateProviderChain rateProviders;
+    private final RateSnapshotStore snapshotStore;
+    private final MeterRegistry meterRegistry;
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean(false);
+    private final AtomicLong consecutiveFailures = new AtomicLong();
+    private final AtomicLong totalFailures = new AtomicLong();
+    private volatile RateSnapshot snapshot = RateSnapshot.EMPTY;
+    private volatile String source;
+    private volatile boolean fallback;
+    private volatile String lastRefreshError;
+    @Value("${exchange.rate.refresh-ahead-ms:300000}")
+    private long refreshAheadMillis;
+
+    public ExchangeRateService(RateProviderChain rateProviders, RateSnapshotStore snapshotStore,
+                               MeterRegistry meterRegistry) {
+        this.rateProviders = rateProviders;
+        this.snapshotStore = snapshotStore;
+        this.meterRegistry = meterRegistry;
+        hits = lookups(meterRegistry, "hit");
+        staleHits = lookups(meterRegistry, "stale");
+        misses = lookups(meterRegistry, "miss");
+        Gauge.builder("exchange.rates.age", this, service -> Math.max(service.getRefreshAgeMillis(), 0) / 1000.0)
+                .description("Age of the cached exchange rates")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rates.refresh.consecutive.failures", consecutiveFailures, AtomicLong::get)
+                .description("Upstream refreshes that failed since the last successful one")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rates.currencies", this, service -> service.snapshot.size())
+                .description("Currencies in the cached exchange rates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Serves the persisted rates, if there are any, until the first refresh. They count as fallback rates, so they
+     * are replaced as soon as a provider answers.
+     */
+    @PostConstruct
+    void loadPersistedRates() {
+        snapshotStore.load().ifPresent(persisted -> {
+            snapshot = persisted;
+            source = SNAPSHOT_SOURCE;
+            fallback = true;
+        });
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("exchange.rates.lookups")
+                .description("Reads of the cached exchange rates")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reactive variant of {@link #getSnapshot()}: emits the current rates, or fails with
+     * {@link ExchangeRateException} if they have not been loaded yet.
+     */
+    public Mono<RateSnapshot> rates() {
+        return Mono.fromCallable(this::getSnapshot);
+    }
 
     public Map<String, BigDecimal> getRatesCache() {
-        if (shouldUpdateCache()) {
-            updateRates();
+        return getSnapshot().getBaseRates();
+    }
+
+    /**
+     * @return The most recently fetched rates. Callers converting several amounts should take the
+     * snapshot once and use it for all of them.
+     */
+    public RateSnapshot getSnapshot() {
+        RateSnapshot current = snapshot;
+        if (current.isEmpty()) {
+            misses.increment();
+            throw new ExchangeRateException("Exchange rates are not available yet"
+                    + (lastRefreshError != null ? ": " + lastRefreshError : ""));
         }
-        return ratesCache;
+        (System.currentTimeMillis() - current.getFetchedAt() > CACHE_DURATION ? staleHits : hits).increment();
+        return current;
     }
 
     public BigDecimal getExchangeRate(String fromCurrency, String toCurrency) {
-        if (!isCurrencySupported(fromCurrency)) {
+        RateSnapshot rates = getSnapshot();
+        int fromId = rates.idOf(fromCurrency);
+        if (fromId < 0) {
             throw new InvalidCurrencyException("Unsupported or invalid currency code: " + fromCurrency);
         }
-        if (!isCurrencySupported(toCurrency)) {
+        int toId = rates.idOf(toCurrency);
+        if (toId < 0) {
             throw new InvalidCurrencyException("Unsupported or invalid currency code: " + toCurrency);
         }
 
-        if (fromCurrency.equals(toCurrency)) {
-            return BigDecimal.ONE;
-        }
-
-        BigDecimal fromRate = ratesCache.get(fromCurrency);
-        BigDecimal toRate = ratesCache.get(toCurrency);
+        return rates.rate(fromId, toId);
+    }
 
-        return toRate.divide(fromRate, 6, RoundingMode.HALF_UP);
+    /**
+     * @return The currencies of the current rates, which every currency code given to the API is checked against.
+     * @throws ExchangeRateException If no rates have been loaded yet.
+     */
+    public CurrencyRegistry getCurrencyRegistry() {
+        return getSnapshot().getCurrencies();
     }
 
     public boolean isCurrencySupported(String currencyCode) {
-        if (!isValidCurrencyFormat(currencyCode)) {
-            return false;
-        }
+        return getCurrencyRegistry().contains(currencyCode);
+    }
 
-        if (shouldUpdateCache()) {
-            updateRates();
+    /**
+     * Periodically checks the cache age and renews the rates once they get within
+     * {@code exchange.rate.refresh-ahead-ms} of expiring, or if they came from a fallback provider. Also performs
+     * the initial load on startup.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${exchange.rate.refresh-check-interval-ms:30000}")
+    public void refreshIfDue() {
+        if (snapshot.isEmpty() || fallback || getRefreshAgeMillis() >= CACHE_DURATION - refreshAheadMillis) {
+            refresh().subscribe();
         }
+    }
 
-        return ratesCache.containsKey(currencyCode);
+    /**
+     * Refreshes right away when a provider reports new rates, such as an edited rates file.
+     */
+    @EventListener
+    public void onRateSourceChanged(RateSourceChanged change) {
+        refresh().subscribe();
     }
 
-    private boolean isValidCurrencyFormat(String currencyCode) {
-        return currencyCode != null && currencyCode.matches("[A-Z]{3}");
+    /**
+     * Fetches fresh rates from the provider chain and waits for the result. Concurrent calls are collapsed into one:
+     * if a refresh is already running, this returns immediately. On failure the previously fetched rates are kept.
+     *
+     * @return true if this call fetched and published new rates.
+     */
+    public boolean refreshRates() {
+        return Boolean.TRUE.equals(refresh().block());
     }
 
-    private boolean shouldUpdateCache() {
-        return System.currentTimeMillis() - lastUpdateTime > CACHE_DURATION || ratesCache.isEmpty();
+    /**
+     * Non-blocking variant of {@link #refreshRates()}; nothing is fetched until the result is subscribed to.
+     *
+     * @return Emits true if this subscription fetched and published new rates, false if a refresh was already
+     * running or the fetch failed.
+     */
+    public Mono<Boolean> refresh() {
+        return Mono.defer(() -> {
+            if (!refreshInProgress.compareAndSet(false, true)) {
+                return Mono.just(false);
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return rateProviders.fetch()
+                    .map(result -> {
+                        sample.stop(refreshTimer("success"));
+                        snapshot = result.snapshot();
+                        source = result.provider();
+                        fallback = result.fallback();
+                        consecutiveFailures.set(0);
+                        lastRefreshError = null;
+                        return result.snapshot();
+                    })
+                    .flatMap(rates -> snapshotStore.isEnabled()
+                            ? Mono.fromRunnable(() -> snapshotStore.save(rates))
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    .thenReturn(true)
+                            : Mono.just(true))
+                    .onErrorResume(e -> {
+                        sample.stop(refreshTimer("failure"));
+                        consecutiveFailures.incrementAndGet();
+                        totalFailures.incrementAndGet();
+                        lastRefreshError = e.getMessage();
+                        log.warn("Exchange rate refresh failed, serving rates that are {} ms old: {}",
+                                getRefreshAgeMillis(), e.getMessage());
+                        return Mono.just(false);
+                    })
+                    .doFinally(signal -> refreshInProgress.set(false));
+        });
     }
 
-    private void updateRates() {
-        try {
-            ExchangeRateResponse response = webClient.get()
-                    .uri((apiKey.isEmpty() ? "" : "/" + apiKey) + "/latest/EUR")
-                    .retrieve()
-                    .bodyToMono(ExchangeRateResponse.class)
-                    .block();
+    /**
+     * @return Time in milliseconds since the rates were last refreshed successfully,
+     * or -1 if they have never been loaded.
+     */
+    public long getRefreshAgeMillis() {
+        long updatedAt = snapshot.getFetchedAt();
+        return updatedAt == 0 ? -1 : System.currentTimeMillis() - updatedAt;
+    }
 
-            if (response != null && response.rates != null) {
-                ratesCache.clear();
-                ratesCache.putAll(response.rates);
-                lastUpdateTime = System.currentTimeMillis();
-            } else {
-                throw new ExchangeRateException("Failed to fetch exchange rates: empty response");
-            }
-        } catch (WebClientException e) {
-            throw new ExchangeRateException("Failed to fetch exchange rates: " + e.getMessage());
-        }
+    public ExchangeRateStatusResponse getRefreshStatus() {
+        RateSnapshot current = snapshot;
+        long updatedAt = current.getFetchedAt();
+        long age = updatedAt == 0 ? -1 : System.currentTimeMillis() - updatedAt;
+        return new ExchangeRateStatusResponse(
+                updatedAt == 0 ? null : Instant.ofEpochMilli(updatedAt),
+                age,
+                age < 0 || age > CACHE_DURATION,
+                current.size(),
+                consecutiveFailures.get(),
+                totalFailures.get(),
+                lastRefreshError,
+                current.isEmpty() ? null : source,
+                rateProviders.getCircuitStates()
+        );
     }
 
-    @Data
-    private static class ExchangeRateResponse {
-        @JsonProperty("conversion_rates")
-        private Map<String, BigDecimal> rates;
+    private Timer refreshTimer(String outcome) {
+        return Timer.builder("exchange.rates.refresh")
+                .description("Exchange rate refreshes through the provider chain")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
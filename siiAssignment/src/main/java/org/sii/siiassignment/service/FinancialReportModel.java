@@ -0,0 +1,161 @@
+package org.sii.siiassignment.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
+import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.repository.FundraisingEventRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory financial report, kept up to date from committed changes to fundraising events instead of
+ * being queried from the database on every request.
+ * <p>
+ * Readers get an immutable {@link Snapshot}. An applied change only replaces the event's row and marks the
+ * snapshot stale, so committing writers never copy the whole report; the next read publishes a new snapshot with
+ * a higher version, once for all the changes since the previous one. Changes are ordered by the event's optimistic-lock version, so a stale notification arriving late never
+ * overwrites a newer balance. The model is built from the database once the application is ready, and
+ * {@link #current()} is empty until then.
+ * <p>
+ * Writers are serialized with a {@link ReentrantLock} rather than {@code synchronized}, because the initial load
+ * reads the database while holding it, which would pin the carrier of a virtual thread.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FinancialReportModel {
+
+    private final FundraisingEventRepository fundraisingEventRepository;
+    private final Map<UUID, Row> rows = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    /** Set when rows have changed since {@link #snapshot} was published. */
+    private volatile boolean stale;
+    private long version;
+
+    public record Snapshot(long version, List<FinancialReportEntry> entries) {
+    }
+
+    private record Row(String name, String currency, BigDecimal balance, long version) {
+    }
+
+    public Optional<Snapshot> current() {
+        if (!stale) {
+            return Optional.ofNullable(snapshot);
+        }
+        lock.lock();
+        try {
+            if (stale) {
+                publish();
+            }
+            return Optional.of(snapshot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        load(false);
+        if (!isConsistentWithDatabase()) {
+            log.warn("Financial report model does not match the database after startup, reloading it");
+            load(true);
+        }
+    }
+
+    /**
+     * Runs before {@link DataVersion} moves on, so a report read under the new version includes the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onFundraisingEventUpdated(FundraisingEventUpdated update) {
+        lock.lock();
+        try {
+            if (apply(update.fundraisingEvent()) && snapshot != null) {
+                stale = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Compares the number of events and the total balance per currency with the database.
+     */
+    public boolean isConsistentWithDatabase() {
+        Map<String, BigDecimal> expected = new HashMap<>();
+        long expectedCount = 0;
+        for (Object[] row : fundraisingEventRepository.sumAccountBalancesByCurrency()) {
+            expected.put((String) row[0], normalize((BigDecimal) row[1]));
+            expectedCount += ((Number) row[2]).longValue();
+        }
+
+        Snapshot current = snapshot;
+        if (current == null) {
+            return false;
+        }
+        Map<String, BigDecimal> actual = new HashMap<>();
+        current.entries().forEach(entry -> actual.merge(entry.getCurrency(), normalize(entry.getAmount()), BigDecimal::add));
+        actual.replaceAll((currency, total) -> normalize(total));
+
+        boolean consistent = expectedCount == current.entries().size() && expected.equals(actual);
+        if (!consistent) {
+            log.warn("Financial report mismatch: database has {} events with totals {}, model has {} events with totals {}",
+                    expectedCount, expected, current.entries().size(), actual);
+        }
+        return consistent;
+    }
+
+    private void load(boolean discardExisting) {
+        lock.lock();
+        List<FundraisingEvent> events;
+        try {
+            events = fundraisingEventRepository.findAll();
+            if (discardExisting) {
+                rows.clear();
+            }
+            events.forEach(this::apply);
+            publish();
+        } finally {
+            lock.unlock();
+        }
+        log.info("Financial report model built with {} fundraising events", events.size());
+    }
+
+    private boolean apply(FundraisingEvent event) {
+        long eventVersion = event.getVersion() == null ? 0 : event.getVersion();
+        Row existing = rows.get(event.getId());
+        if (existing != null && existing.version() >= eventVersion) {
+            return false;
+        }
+        rows.put(event.getId(), new Row(event.getName(), event.getAccountCurrency(), event.getAccountBalance(), eventVersion));
+        return true;
+    }
+
+    private void publish() {
+        List<FinancialReportEntry> entries = rows.values().stream()
+                .map(row -> new FinancialReportEntry(row.name(), row.balance(), row.currency()))
+                .toList();
+        snapshot = new Snapshot(++version, entries);
+        stale = false;
+    }
+
+    private static BigDecimal normalize(BigDecimal amount) {
+        return Objects.requireNonNullElse(amount, BigDecimal.ZERO).stripTrailingZeros();
+    }
+}
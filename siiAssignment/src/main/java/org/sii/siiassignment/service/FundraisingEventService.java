@@ -1,6 +1,8 @@
 package org.sii.siiassignment.service;
 
+import org.sii.siiassignment.DTO.FundraisingEvent.ConsolidatedReportResponse;
 import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.EmptyEventBoxesResponse;
 import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
 import org.sii.siiassignment.DTO.FundraisingEvent.FundraisingEventResponse;
 
@@ -13,11 +15,24 @@ public interface FundraisingEventService {
 
     FundraisingEventResponse getFundraisingEventById(UUID id);
 
+    /**
+     * Empties every collection box assigned to the event and credits the collected money to its account.
+     *
+     * @return The amounts collected per currency and the event's new balance.
+     */
+    EmptyEventBoxesResponse emptyAllCollectionBoxes(UUID eventId);
+
     /**
      * Generates a financial report listing all fundraising events and their balances.
      *
      * @return A list of DTOs, each representing an entry in the financial report.
      */
     List<FinancialReportEntry> getFinancialReport();
-}
 
+    /**
+     * Generates the financial report with every balance also converted into one currency, plus the grand total.
+     *
+     * @param currency ISO 4217 code of the currency to convert into.
+     */
+    ConsolidatedReportResponse getConsolidatedReport(String currency);
+}
@@ -1,28 +1,54 @@
 package org.sii.siiassignment.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.FundraisingEvent.ConsolidatedReportEntry;
+import org.sii.siiassignment.DTO.FundraisingEvent.ConsolidatedReportResponse;
 import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.EmptyEventBoxesResponse;
 import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
 import org.sii.siiassignment.DTO.FundraisingEvent.FundraisingEventResponse;
 import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
 import org.sii.siiassignment.exception.InvalidCurrencyException;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.BoxOperations;
 import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
 import org.sii.siiassignment.repository.FundraisingEventRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class FundraisingEventServiceImpl implements FundraisingEventService {
 
+    /** Reports with at least this many events are converted in parallel, if there is more than one CPU. */
+    static final int PARALLEL_CONVERSION_THRESHOLD = 10_000;
+
     private final FundraisingEventRepository fundraisingEventRepository;
     private final ExchangeRateService exchangeRateService;
+    private final CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+    private final FinancialReportModel financialReportModel;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BalanceLedger balanceLedger;
 
     @Override
     @Transactional
@@ -33,10 +59,7 @@ public class FundraisingEventServiceImpl implements FundraisingEventService {
         if (request.getAccountCurrency() == null) {
             throw new IllegalArgumentException("Fundraising event account currency must be specified.");
         }
-        if (!validateCurrency(request.getAccountCurrency())) {
-            throw new InvalidCurrencyException("Currency " + request.getAccountCurrency() + " is not supported for collection boxes. " +
-                    "Might be a non-existent currency, use ISO 4217 code.");
-        }
+        validateCurrency(request.getAccountCurrency());
 
         FundraisingEvent fundraisingEvent = new FundraisingEvent();
         fundraisingEvent.setName(request.getName());
@@ -44,6 +67,7 @@ public class FundraisingEventServiceImpl implements FundraisingEventService {
         fundraisingEvent.setAccountBalance(BigDecimal.ZERO);
 
         FundraisingEvent savedEvent = fundraisingEventRepository.save(fundraisingEvent);
+        eventPublisher.publishEvent(new FundraisingEventUpdated(savedEvent));
 
         return mapToFundraisingEventResponse(savedEvent);
     }
@@ -56,14 +80,138 @@ public class FundraisingEventServiceImpl implements FundraisingEventService {
                 .orElseThrow(() -> new ResourceNotFoundException("FundraisingEvent not found with id: " + id));
     }
 
+    /**
+     * Takes the money out of all the event's boxes with one set-based delete, converts each currency once and
+     * credits the event once. The event is versioned, so a concurrent credit from a single box being emptied
+     * rolls this attempt back and it is retried.
+     */
     @Override
     @Transactional
+    @Retryable(retryFor = OptimisticLockingFailureException.class,
+            maxAttemptsExpression = "${collection-box.retry.max-attempts:3}",
+            backoff = @Backoff(delay = 5, maxDelay = 50, random = true))
+    @Timed(value = "fundraising.event.empty.boxes", description = "Transfers from all boxes of an event", histogram = true)
+    public EmptyEventBoxesResponse emptyAllCollectionBoxes(UUID eventId) {
+        FundraisingEvent event = fundraisingEventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("FundraisingEvent not found with id: " + eventId));
+
+        RateSnapshot rates = exchangeRateService.getSnapshot();
+        int eventCurrencyId = rates.idOf(event.getAccountCurrency());
+        if (eventCurrencyId < 0) {
+            throw new InvalidCurrencyException("Unsupported or invalid currency code: " + event.getAccountCurrency());
+        }
+
+        List<UUID> boxIds = List.of();
+        if (balanceLedger.isEnabled()) {
+            boxIds = collectionBoxAmountJdbcRepository.findBoxIdsByEvent(eventId);
+            balanceLedger.flush(boxIds);
+        }
+        List<AmountChange> withdrawn = collectionBoxAmountJdbcRepository.withdrawAllForEvent(eventId);
+        if (balanceLedger.isEnabled()) {
+            // A box assigned after the ids were read is withdrawn too; its pending deposits just stay in it
+            Set<UUID> changed = new HashSet<>(boxIds);
+            withdrawn.forEach(change -> changed.add(change.boxId()));
+            balanceLedger.invalidateAfterCommit(changed);
+        }
+        if (!withdrawn.isEmpty()) {
+            eventPublisher.publishEvent(new BoxOperations(withdrawn.stream()
+                    .map(change -> BoxOperation.withdraw(change.boxId(), eventId, change.currencyCode(), change.amount()))
+                    .toList()));
+        }
+
+        BoxAmounts collected = new BoxAmounts();
+        withdrawn.forEach(change -> collected.add(change.currency(), change.minorUnits()));
+
+        BigDecimal credited = BigDecimal.ZERO;
+        for (int i = 0; i < collected.size(); i++) {
+            String currency = CurrencyCodes.unpack(collected.currencyAt(i));
+            int currencyId = rates.idOf(currency);
+            if (currencyId < 0) {
+                throw new InvalidCurrencyException("Unsupported or invalid currency code: " + currency);
+            }
+            BigDecimal amount = CurrencyCodes.toDecimal(collected.minorUnitsAt(i), collected.currencyAt(i));
+            credited = credited.add(currencyId == eventCurrencyId
+                    ? amount
+                    : amount.multiply(rates.rate(currencyId, eventCurrencyId)).setScale(2, RoundingMode.HALF_UP));
+        }
+
+        if (credited.signum() != 0) {
+            event.setAccountBalance(event.getAccountBalance().add(credited));
+            fundraisingEventRepository.save(event);
+            eventPublisher.publishEvent(new FundraisingEventUpdated(event));
+        }
+
+        return new EmptyEventBoxesResponse(event.getId(), collected.toDecimalMap(), credited,
+                event.getAccountCurrency(), event.getAccountBalance());
+    }
+
+    /**
+     * Served from the in-memory {@link FinancialReportModel}; falls back to the database only until the model
+     * has been built at startup.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "fundraising.event.report", description = "Financial report requests", histogram = true)
     public List<FinancialReportEntry> getFinancialReport() {
+        Optional<FinancialReportModel.Snapshot> snapshot = financialReportModel.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().entries();
+        }
         return fundraisingEventRepository.findAll().stream()
                 .map(this::mapToFinancialReportEntry)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Converts every balance against a single rate snapshot, so all rows and the total use the same rates.
+     * Each converted amount is rounded to cents and the total is the sum of the rounded amounts.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "fundraising.event.report.consolidated", description = "Consolidated report requests", histogram = true)
+    public ConsolidatedReportResponse getConsolidatedReport(String currency) {
+        RateSnapshot rates = exchangeRateService.getSnapshot();
+        return consolidate(getFinancialReport(), currency, rates);
+    }
+
+    /**
+     * Converts the report into the currency with the given rates, for both the servlet and the reactive stack.
+     */
+    static ConsolidatedReportResponse consolidate(List<FinancialReportEntry> report, String currency, RateSnapshot rates) {
+        int targetId = rates.idOf(currency);
+        if (targetId < 0) {
+            throw new InvalidCurrencyException("Unsupported or invalid currency code: " + currency);
+        }
+
+        boolean parallel = report.size() >= PARALLEL_CONVERSION_THRESHOLD
+                && Runtime.getRuntime().availableProcessors() > 1;
+        Stream<FinancialReportEntry> rows = parallel
+                ? report.parallelStream()
+                : report.stream();
+        List<ConsolidatedReportEntry> entries = rows
+                .map(entry -> new ConsolidatedReportEntry(entry.getFundraisingEventName(), entry.getAmount(),
+                        entry.getCurrency(), convert(entry, targetId, rates)))
+                .toList();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (ConsolidatedReportEntry entry : entries) {
+            total = total.add(entry.getConvertedAmount());
+        }
+        return new ConsolidatedReportResponse(currency, total, entries);
+    }
+
+    private static BigDecimal convert(FinancialReportEntry entry, int targetId, RateSnapshot rates) {
+        BigDecimal amount = entry.getAmount() == null ? BigDecimal.ZERO : entry.getAmount();
+        int sourceId = rates.idOf(entry.getCurrency());
+        if (sourceId < 0) {
+            throw new InvalidCurrencyException("Unsupported or invalid currency code: " + entry.getCurrency());
+        }
+        if (sourceId == targetId) {
+            return amount.setScale(2, RoundingMode.HALF_UP);
+        }
+        return amount.multiply(rates.rate(sourceId, targetId)).setScale(2, RoundingMode.HALF_UP);
+    }
+
     private FundraisingEventResponse mapToFundraisingEventResponse(FundraisingEvent event) {
         if (event == null) return null;
         return new FundraisingEventResponse(
@@ -83,12 +231,10 @@ public class FundraisingEventServiceImpl implements FundraisingEventService {
         );
     }
 
-    private boolean validateCurrency(String currency) {
-        Set<String> availableCurrencies = exchangeRateService.getRatesCache().keySet();
-        if (!availableCurrencies.contains(currency)) {
+    private void validateCurrency(String currency) {
+        if (!exchangeRateService.getCurrencyRegistry().contains(currency)) {
             throw new InvalidCurrencyException("Currency " + currency + " is not supported for collection boxes. " +
                     "Might be a non-existent currency, use ISO 4217 code.");
         }
-        return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package org.sii.siiassignment.service;
+
+import org.sii.siiassignment.model.FundraisingEvent;
+
+/**
+ * Published whenever a fundraising event is created or its account balance changes. Listeners that need
+ * the committed state should use {@code @TransactionalEventListener}; by then the event's version has been
+ * incremented by the flush.
+ */
+public record FundraisingEventUpdated(FundraisingEvent fundraisingEvent) {
+}
@@ -0,0 +1,39 @@
+package org.sii.siiassignment.service;
+
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositItem;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResponse;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxPage;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reactive counterpart of {@link CollectionBoxService} for the {@code reactive} profile. Deposits and emptying
+ * run on R2DBC without blocking; the other operations delegate to {@link CollectionBoxService} off the event loop.
+ */
+public interface ReactiveCollectionBoxService {
+
+    Mono<CollectionBoxResponse> registerCollectionBox();
+
+    Mono<BatchBoxResponse> registerCollectionBoxes(int count);
+
+    Mono<CollectionBoxPage> listCollectionBoxes(Boolean assigned, Boolean empty, UUID eventId, UUID after, int limit);
+
+    Mono<Void> unregisterCollectionBox(UUID boxId);
+
+    Mono<BatchBoxResponse> unregisterCollectionBoxes(List<UUID> boxIds);
+
+    Mono<CollectionBoxResponse> assignCollectionBoxToEvent(UUID boxId, UUID eventId);
+
+    Mono<BatchBoxResponse> assignCollectionBoxesToEvent(List<UUID> boxIds, UUID eventId);
+
+    Mono<CollectionBoxResponse> depositMoneyToCollectionBox(UUID boxId, DepositMoneyRequest request);
+
+    Mono<BatchDepositResponse> depositMoneyBatch(List<BatchDepositItem> items);
+
+    Mono<CollectionBoxResponse> emptyCollectionBox(UUID boxId);
+}
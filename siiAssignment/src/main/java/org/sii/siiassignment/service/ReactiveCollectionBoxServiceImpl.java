@@ -0,0 +1,206 @@
+package org.sii.siiassignment.service;
+
+import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositItem;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResponse;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxPage;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
+import org.sii.siiassignment.exception.InvalidAmountException;
+import org.sii.siiassignment.exception.InvalidCurrencyException;
+import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.BoxOperations;
+import org.sii.siiassignment.model.CollectionBox;
+import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.repository.CollectionBoxR2dbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxR2dbcRepository.BoxForEmptying;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.sii.siiassignment.service.ReactiveSupport.blocking;
+import static org.sii.siiassignment.service.ReactiveSupport.publishAfterCommit;
+import static org.sii.siiassignment.service.ReactiveSupport.retryOn;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveCollectionBoxServiceImpl implements ReactiveCollectionBoxService {
+
+    private final CollectionBoxService collectionBoxService;
+    private final CollectionBoxR2dbcRepository collectionBoxR2dbcRepository;
+    private final ExchangeRateService exchangeRateService;
+    private final TransactionalOperator transactionalOperator;
+    private final ApplicationEventPublisher eventPublisher;
+    @Value("${collection-box.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    private record Emptied(CollectionBoxResponse box, List<Object> events) {
+    }
+
+    @Override
+    public Mono<CollectionBoxResponse> registerCollectionBox() {
+        return blocking(collectionBoxService::registerCollectionBox);
+    }
+
+    @Override
+    public Mono<BatchBoxResponse> registerCollectionBoxes(int count) {
+        return blocking(() -> collectionBoxService.registerCollectionBoxes(count));
+    }
+
+    @Override
+    public Mono<CollectionBoxPage> listCollectionBoxes(Boolean assigned, Boolean empty, UUID eventId, UUID after, int limit) {
+        return blocking(() -> collectionBoxService.listCollectionBoxes(assigned, empty, eventId, after, limit));
+    }
+
+    @Override
+    public Mono<Void> unregisterCollectionBox(UUID boxId) {
+        return blocking(() -> {
+            collectionBoxService.unregisterCollectionBox(boxId);
+            return null;
+        });
+    }
+
+    @Override
+    public Mono<BatchBoxResponse> unregisterCollectionBoxes(List<UUID> boxIds) {
+        return blocking(() -> collectionBoxService.unregisterCollectionBoxes(boxIds));
+    }
+
+    @Override
+    public Mono<CollectionBoxResponse> assignCollectionBoxToEvent(UUID boxId, UUID eventId) {
+        return blocking(() -> collectionBoxService.assignCollectionBoxToEvent(boxId, eventId));
+    }
+
+    @Override
+    public Mono<BatchBoxResponse> assignCollectionBoxesToEvent(List<UUID> boxIds, UUID eventId) {
+        return blocking(() -> collectionBoxService.assignCollectionBoxesToEvent(boxIds, eventId));
+    }
+
+    @Override
+    public Mono<BatchDepositResponse> depositMoneyBatch(List<BatchDepositItem> items) {
+        return blocking(() -> collectionBoxService.depositMoneyBatch(items));
+    }
+
+    /**
+     * Same atomic upsert as {@link CollectionBoxServiceImpl#depositMoneyToCollectionBox}, in an R2DBC transaction.
+     * A deposit that loses the race to create a new currency row is retried.
+     */
+    @Override
+    public Mono<CollectionBoxResponse> depositMoneyToCollectionBox(UUID boxId, DepositMoneyRequest request) {
+        BigDecimal amount = request.getAmount();
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return Mono.error(new InvalidAmountException("Amount must be positive."));
+        }
+        String currency = request.getCurrency();
+
+        return exchangeRateService.rates()
+                .map(rates -> rates.getCurrencies().codeOf(currency))
+                .flatMap(currencyCode -> currencyCode != CurrencyCodes.INVALID
+                        ? transactionalOperator.transactional(deposit(boxId, currency, CurrencyCodes.toMinorUnits(amount, currencyCode)))
+                        : Mono.error(new InvalidCurrencyException("Currency " + currency + " is not supported for collection boxes. " +
+                        "Might be a non-existent currency, use ISO 4217 code.")))
+                .retryWhen(retryOn(DataIntegrityViolationException.class, maxAttempts))
+                .flatMap(box -> publishAfterCommit(eventPublisher,
+                        List.of(BoxOperations.of(BoxOperation.deposit(boxId, currency, amount)))).thenReturn(box));
+    }
+
+    private Mono<CollectionBoxResponse> deposit(UUID boxId, String currency, long minorUnits) {
+        return Mono.defer(() -> collectionBoxR2dbcRepository.depositAmount(boxId, currency, minorUnits)
+                .onErrorResume(DataIntegrityViolationException.class, e -> collectionBoxR2dbcRepository.existsBox(boxId)
+                        .flatMap(exists -> Mono.error(exists ? e : notFound(boxId))))
+                .then(collectionBoxR2dbcRepository.findBox(boxId))
+                .switchIfEmpty(Mono.error(() -> notFound(boxId))));
+    }
+
+    /**
+     * Moves the money from the box to the event's account like {@link CollectionBoxServiceImpl#emptyCollectionBox},
+     * checking the versions of the box and the event explicitly. A concurrent empty, assign or credit makes the
+     * attempt fail and be retried.
+     */
+    @Override
+    public Mono<CollectionBoxResponse> emptyCollectionBox(UUID boxId) {
+        return exchangeRateService.rates()
+                .flatMap(rates -> transactionalOperator.transactional(collectionBoxR2dbcRepository.findBoxForEmptying(boxId)
+                        .switchIfEmpty(Mono.error(() -> notFound(boxId)))
+                        .flatMap(box -> empty(box, rates))))
+                .retryWhen(retryOn(OptimisticLockingFailureException.class, maxAttempts))
+                .flatMap(emptied -> publishAfterCommit(eventPublisher, emptied.events()).thenReturn(emptied.box()));
+    }
+
+    private Mono<Emptied> empty(BoxForEmptying box, RateSnapshot rates) {
+        FundraisingEvent event = box.event();
+        if (event == null) {
+            return Mono.error(new IllegalStateException("Collection box is not assigned to any fundraising event. Cannot transfer money."));
+        }
+        BoxAmounts amounts = new BoxAmounts();
+        for (int i = 0; i < box.amounts().size(); i++) {
+            if (box.amounts().minorUnitsAt(i) != 0) {
+                amounts.add(box.amounts().currencyAt(i), box.amounts().minorUnitsAt(i));
+            }
+        }
+        if (amounts.isEmpty()) {
+            return Mono.just(new Emptied(new CollectionBoxResponse(box.boxId(), event.getId(), box.amounts().toDecimalMap(), true, true), List.of()));
+        }
+
+        int eventCurrencyId = rates.idOf(event.getAccountCurrency());
+        if (eventCurrencyId < 0) {
+            return Mono.error(new InvalidCurrencyException("Unsupported or invalid currency code: " + event.getAccountCurrency()));
+        }
+        BigDecimal credit = BigDecimal.ZERO;
+        List<BoxOperation> withdrawals = new ArrayList<>();
+        for (int i = 0; i < amounts.size(); i++) {
+            String currency = CurrencyCodes.unpack(amounts.currencyAt(i));
+            int boxCurrencyId = rates.idOf(currency);
+            if (boxCurrencyId < 0) {
+                return Mono.error(new InvalidCurrencyException("Unsupported or invalid currency code: " + currency));
+            }
+            BigDecimal amount = CurrencyCodes.toDecimal(amounts.minorUnitsAt(i), amounts.currencyAt(i));
+            credit = credit.add(boxCurrencyId == eventCurrencyId
+                    ? amount
+                    : amount.multiply(rates.rate(boxCurrencyId, eventCurrencyId)).setScale(2, RoundingMode.HALF_UP));
+            withdrawals.add(BoxOperation.withdraw(box.boxId(), event.getId(), currency, amount));
+        }
+
+        FundraisingEvent credited = new FundraisingEvent(event.getId(), event.getName(), event.getAccountCurrency(),
+                event.getAccountBalance().add(credit), event.getVersion() + 1);
+        return collectionBoxR2dbcRepository.incrementBoxVersion(box.boxId(), box.version())
+                .flatMap(updated -> requireUpdated(updated, CollectionBox.class, box.boxId()))
+                .then(collectionBoxR2dbcRepository.creditEvent(event.getId(), event.getVersion(), credit))
+                .flatMap(updated -> requireUpdated(updated, FundraisingEvent.class, event.getId()))
+                .thenMany(Flux.range(0, amounts.size()))
+                .concatMap(i -> collectionBoxR2dbcRepository.withdrawAmount(box.boxId(),
+                                CurrencyCodes.unpack(amounts.currencyAt(i)), amounts.minorUnitsAt(i))
+                        .flatMap(updated -> requireUpdated(updated, CollectionBox.class, box.boxId())))
+                .then(collectionBoxR2dbcRepository.deleteEmptyAmounts(box.boxId()))
+                // Deposits committed meanwhile are still in the box
+                .then(collectionBoxR2dbcRepository.findBox(box.boxId()))
+                .map(emptied -> new Emptied(emptied,
+                        List.of(new FundraisingEventUpdated(credited), new BoxOperations(withdrawals))));
+    }
+
+    private static Mono<Void> requireUpdated(boolean updated, Class<?> entity, UUID id) {
+        return updated ? Mono.empty() : Mono.error(new ObjectOptimisticLockingFailureException(entity, id));
+    }
+
+    private static ResourceNotFoundException notFound(UUID boxId) {
+        return new ResourceNotFoundException("CollectionBox not found with id: " + boxId);
+    }
+}
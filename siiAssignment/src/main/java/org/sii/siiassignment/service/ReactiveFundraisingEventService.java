@@ -0,0 +1,30 @@
+package org.sii.siiassignment.service;
+
+import org.sii.siiassignment.DTO.FundraisingEvent.ConsolidatedReportResponse;
+import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.EmptyEventBoxesResponse;
+import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
+import org.sii.siiassignment.DTO.FundraisingEvent.FundraisingEventResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reactive counterpart of {@link FundraisingEventService} for the {@code reactive} profile. Emptying the boxes of
+ * an event and the reports never block; creating an event delegates to {@link FundraisingEventService} off the
+ * event loop.
+ */
+public interface ReactiveFundraisingEventService {
+
+    Mono<FundraisingEventResponse> createFundraisingEvent(CreateFundraisingEventRequest request);
+
+    /**
+     * @see FundraisingEventService#emptyAllCollectionBoxes(UUID)
+     */
+    Mono<EmptyEventBoxesResponse> emptyAllCollectionBoxes(UUID eventId);
+
+    Mono<List<FinancialReportEntry>> getFinancialReport();
+
+    Mono<ConsolidatedReportResponse> getConsolidatedReport(String currency);
+}
@@ -0,0 +1,135 @@
+package org.sii.siiassignment.service;
+
+import lombok.RequiredArgsConstructor;
+import org.sii.siiassignment.DTO.FundraisingEvent.ConsolidatedReportResponse;
+import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.EmptyEventBoxesResponse;
+import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
+import org.sii.siiassignment.DTO.FundraisingEvent.FundraisingEventResponse;
+import org.sii.siiassignment.exception.InvalidCurrencyException;
+import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.BoxOperations;
+import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.repository.CollectionBoxR2dbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.sii.siiassignment.service.ReactiveSupport.blocking;
+import static org.sii.siiassignment.service.ReactiveSupport.publishAfterCommit;
+import static org.sii.siiassignment.service.ReactiveSupport.retryOn;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveFundraisingEventServiceImpl implements ReactiveFundraisingEventService {
+
+    private final FundraisingEventService fundraisingEventService;
+    private final CollectionBoxR2dbcRepository collectionBoxR2dbcRepository;
+    private final ExchangeRateService exchangeRateService;
+    private final FinancialReportModel financialReportModel;
+    private final TransactionalOperator transactionalOperator;
+    private final ApplicationEventPublisher eventPublisher;
+    @Value("${collection-box.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    private record Emptied(EmptyEventBoxesResponse response, List<Object> events) {
+    }
+
+    @Override
+    public Mono<FundraisingEventResponse> createFundraisingEvent(CreateFundraisingEventRequest request) {
+        return blocking(() -> fundraisingEventService.createFundraisingEvent(request));
+    }
+
+    /**
+     * Same set-based withdrawal as {@link FundraisingEventServiceImpl#emptyAllCollectionBoxes}, in an R2DBC
+     * transaction. The event's version is checked when it is credited, so a concurrent credit makes the attempt
+     * roll back and be retried.
+     */
+    @Override
+    public Mono<EmptyEventBoxesResponse> emptyAllCollectionBoxes(UUID eventId) {
+        return exchangeRateService.rates()
+                .flatMap(rates -> transactionalOperator.transactional(collectionBoxR2dbcRepository.findEvent(eventId)
+                        .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("FundraisingEvent not found with id: " + eventId)))
+                        .flatMap(event -> emptyAll(event, rates))))
+                .retryWhen(retryOn(OptimisticLockingFailureException.class, maxAttempts))
+                .flatMap(emptied -> publishAfterCommit(eventPublisher, emptied.events()).thenReturn(emptied.response()));
+    }
+
+    private Mono<Emptied> emptyAll(FundraisingEvent event, RateSnapshot rates) {
+        int eventCurrencyId = rates.idOf(event.getAccountCurrency());
+        if (eventCurrencyId < 0) {
+            return Mono.error(new InvalidCurrencyException("Unsupported or invalid currency code: " + event.getAccountCurrency()));
+        }
+
+        return collectionBoxR2dbcRepository.withdrawAllForEvent(event.getId()).collectList().flatMap(withdrawn -> {
+            BoxAmounts collected = new BoxAmounts();
+            withdrawn.forEach(change -> collected.add(change.currency(), change.minorUnits()));
+
+            BigDecimal credited = BigDecimal.ZERO;
+            for (int i = 0; i < collected.size(); i++) {
+                String currency = CurrencyCodes.unpack(collected.currencyAt(i));
+                int currencyId = rates.idOf(currency);
+                if (currencyId < 0) {
+                    return Mono.error(new InvalidCurrencyException("Unsupported or invalid currency code: " + currency));
+                }
+                BigDecimal amount = CurrencyCodes.toDecimal(collected.minorUnitsAt(i), collected.currencyAt(i));
+                credited = credited.add(currencyId == eventCurrencyId
+                        ? amount
+                        : amount.multiply(rates.rate(currencyId, eventCurrencyId)).setScale(2, RoundingMode.HALF_UP));
+            }
+
+            List<Object> events = new ArrayList<>();
+            if (!withdrawn.isEmpty()) {
+                events.add(new BoxOperations(withdrawn.stream()
+                        .map(change -> BoxOperation.withdraw(change.boxId(), event.getId(), change.currencyCode(), change.amount()))
+                        .toList()));
+            }
+            if (credited.signum() == 0) {
+                return Mono.just(new Emptied(new EmptyEventBoxesResponse(event.getId(), collected.toDecimalMap(), credited,
+                        event.getAccountCurrency(), event.getAccountBalance()), events));
+            }
+
+            FundraisingEvent updated = new FundraisingEvent(event.getId(), event.getName(), event.getAccountCurrency(),
+                    event.getAccountBalance().add(credited), event.getVersion() + 1);
+            events.add(new FundraisingEventUpdated(updated));
+            EmptyEventBoxesResponse response = new EmptyEventBoxesResponse(event.getId(), collected.toDecimalMap(), credited,
+                    updated.getAccountCurrency(), updated.getAccountBalance());
+            return collectionBoxR2dbcRepository.creditEvent(event.getId(), event.getVersion(), credited)
+                    .flatMap(success -> success
+                            ? Mono.just(new Emptied(response, events))
+                            : Mono.error(new ObjectOptimisticLockingFailureException(FundraisingEvent.class, event.getId())));
+        });
+    }
+
+    /**
+     * Served from the in-memory {@link FinancialReportModel}; read with R2DBC only until the model has been built.
+     */
+    @Override
+    public Mono<List<FinancialReportEntry>> getFinancialReport() {
+        return Mono.justOrEmpty(financialReportModel.current())
+                .map(FinancialReportModel.Snapshot::entries)
+                .switchIfEmpty(collectionBoxR2dbcRepository.findFinancialReport().collectList());
+    }
+
+    @Override
+    public Mono<ConsolidatedReportResponse> getConsolidatedReport(String currency) {
+        return exchangeRateService.rates()
+                .zipWith(getFinancialReport(), (rates, report) -> FundraisingEventServiceImpl.consolidate(report, currency, rates));
+    }
+}
@@ -0,0 +1,50 @@
+package org.sii.siiassignment.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Bridges between the reactive services and the blocking parts of the application.
+ */
+final class ReactiveSupport {
+
+    private ReactiveSupport() {
+    }
+
+    /**
+     * Runs a call to a blocking (JPA or JDBC) service on the bounded elastic scheduler, off the event loop.
+     */
+    static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Publishes application events once the reactive transaction has committed. Listeners may block, e.g. the
+     * journal waiting for its fsync, so they are called off the event loop.
+     */
+    static Mono<Void> publishAfterCommit(ApplicationEventPublisher eventPublisher, List<?> events) {
+        if (events.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> events.forEach(eventPublisher::publishEvent))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    /**
+     * Same policy as the {@code @Retryable} service methods: up to {@code maxAttempts} attempts with a random
+     * backoff of 5 to 50 ms, giving up with the last failure.
+     */
+    static Retry retryOn(Class<? extends Throwable> failure, int maxAttempts) {
+        return Retry.backoff(Math.max(0, maxAttempts - 1), Duration.ofMillis(5))
+                .maxBackoff(Duration.ofMillis(50))
+                .filter(failure::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+}
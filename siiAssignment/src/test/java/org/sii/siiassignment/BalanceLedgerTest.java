@@ -0,0 +1,292 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.model.CollectionBox;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
+import org.sii.siiassignment.repository.CollectionBoxRepository;
+import org.sii.siiassignment.service.BalanceLedger;
+import org.sii.siiassignment.service.DataVersion;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceLedgerTest {
+
+    @Mock
+    private CollectionBoxRepository collectionBoxRepository;
+
+    @Mock
+    private CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private DataVersion dataVersion;
+
+    @InjectMocks
+    private BalanceLedger balanceLedger;
+
+    private static final int EUR = CurrencyCodes.pack("EUR");
+    private static final int PLN = CurrencyCodes.pack("PLN");
+
+    private UUID boxId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(balanceLedger, "enabled", true);
+        ReflectionTestUtils.setField(balanceLedger, "stripeCount", 4);
+        ReflectionTestUtils.invokeMethod(balanceLedger, "createStripes");
+
+        boxId = UUID.randomUUID();
+        CollectionBox box = new CollectionBox();
+        box.setId(boxId);
+        box.setAmounts(BoxAmounts.of(Map.of("EUR", new BigDecimal("5.00"))));
+        lenient().when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(box));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer deposits from memory after loading the box once")
+    void shouldAccumulateDepositsInMemory() {
+        // When
+        balanceLedger.deposit(boxId, EUR, 100);
+        CollectionBoxResponse response = balanceLedger.deposit(boxId, EUR, 200);
+
+        // Then
+        assertEquals(new BigDecimal("8.00"), response.getAmounts().get("EUR"));
+        assertEquals(Map.of("EUR", new BigDecimal("3.00")), balanceLedger.pendingAmounts(boxId).toDecimalMap());
+        verify(collectionBoxRepository, times(1)).findById(boxId);
+        verifyNoInteractions(collectionBoxAmountJdbcRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject deposits into non-existent boxes")
+    void shouldRejectDepositIntoMissingBox() {
+        // Given
+        UUID missingBoxId = UUID.randomUUID();
+        when(collectionBoxRepository.findById(missingBoxId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> balanceLedger.deposit(missingBoxId, EUR, 100));
+        assertTrue(balanceLedger.pendingAmounts(missingBoxId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should persist pending amounts as one batch of increments")
+    void shouldFlushPendingAmounts() {
+        // Given
+        balanceLedger.deposit(boxId, EUR, 100);
+        balanceLedger.deposit(boxId, PLN, 400);
+        runTransactions(true);
+
+        // When
+        balanceLedger.flushAll();
+
+        // Then
+        verify(collectionBoxAmountJdbcRepository).depositAll(argThat(changes -> changes.size() == 2
+                && changes.contains(new AmountChange(boxId, EUR, 100))
+                && changes.contains(new AmountChange(boxId, PLN, 400))));
+        assertTrue(balanceLedger.pendingAmounts(boxId).isEmpty());
+        verify(dataVersion).increment(DataVersion.Scope.COLLECTION_BOXES);
+    }
+
+    @Test
+    @DisplayName("Should keep pending amounts when the flush fails")
+    void shouldRestorePendingAmountsWhenFlushFails() {
+        // Given
+        balanceLedger.deposit(boxId, EUR, 100);
+        runTransactions(false);
+        doThrow(new DataAccessResourceFailureException("database unavailable"))
+                .when(collectionBoxAmountJdbcRepository).depositAll(any());
+
+        // When
+        balanceLedger.flushAll();
+
+        // Then
+        assertEquals(Map.of("EUR", new BigDecimal("1.00")), balanceLedger.pendingAmounts(boxId).toDecimalMap());
+    }
+
+    @Test
+    @DisplayName("Should keep pending amounts when the box is invalidated while a failing flush is in flight")
+    void shouldRestorePendingAmountsOfInvalidatedBox() {
+        // Given
+        balanceLedger.deposit(boxId, EUR, 100);
+        doAnswer(invocation -> {
+            TransactionSynchronizationManager.initSynchronization();
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            // Another transaction changes the box and commits before this one rolls back
+            balanceLedger.invalidateAfterCommit(List.of(boxId));
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // When
+        balanceLedger.flushAll();
+
+        // Then
+        assertEquals(Map.of("EUR", new BigDecimal("1.00")), balanceLedger.pendingAmounts(boxId).toDecimalMap());
+    }
+
+    @Test
+    @DisplayName("Should not hold up deposits into other boxes of the stripe while loading a box")
+    void shouldLoadBoxOutsideStripeLock() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(balanceLedger, "stripeCount", 1);
+        ReflectionTestUtils.invokeMethod(balanceLedger, "createStripes");
+        balanceLedger.deposit(boxId, EUR, 100);
+        UUID slowBoxId = UUID.randomUUID();
+        CollectionBox slowBox = new CollectionBox();
+        slowBox.setId(slowBoxId);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(collectionBoxRepository.findById(slowBoxId)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(slowBox);
+        });
+        CompletableFuture<CollectionBoxResponse> slowDeposit = CompletableFuture.supplyAsync(
+                () -> balanceLedger.deposit(slowBoxId, EUR, 100), runnable -> new Thread(runnable).start());
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        CollectionBoxResponse response = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> balanceLedger.deposit(boxId, EUR, 200));
+        release.countDown();
+
+        // Then
+        assertEquals(new BigDecimal("8.00"), response.getAmounts().get("EUR"));
+        assertEquals(new BigDecimal("1.00"), slowDeposit.get(5, TimeUnit.SECONDS).getAmounts().get("EUR"));
+    }
+
+    @Test
+    @DisplayName("Should count amounts being flushed in the balances it reports")
+    void shouldReportAmountsInFlight() {
+        // Given
+        balanceLedger.deposit(boxId, EUR, 100);
+        runTransactions(true);
+        CollectionBoxResponse[] duringFlush = new CollectionBoxResponse[1];
+        BoxAmounts[] pendingDuringFlush = new BoxAmounts[1];
+        doAnswer(invocation -> {
+            // A deposit arrives while the flush is writing, before its transaction commits
+            duringFlush[0] = balanceLedger.deposit(boxId, EUR, 200);
+            pendingDuringFlush[0] = balanceLedger.pendingAmounts(boxId);
+            return null;
+        }).when(collectionBoxAmountJdbcRepository).depositAll(any());
+
+        // When
+        balanceLedger.flushAll();
+
+        // Then
+        assertEquals(new BigDecimal("8.00"), duringFlush[0].getAmounts().get("EUR"));
+        assertEquals(Map.of("EUR", new BigDecimal("3.00")), pendingDuringFlush[0].toDecimalMap());
+        assertEquals(Map.of("EUR", new BigDecimal("2.00")), balanceLedger.pendingAmounts(boxId).toDecimalMap());
+        assertEquals(new BigDecimal("11.00"), balanceLedger.deposit(boxId, EUR, 300).getAmounts().get("EUR"));
+    }
+
+    @Test
+    @DisplayName("Should never report a lower balance to deposits running concurrently with flushes")
+    void shouldKeepBalancesWhileFlushingConcurrently() throws Exception {
+        // Given
+        runTransactions(true);
+        AtomicInteger flushes = new AtomicInteger();
+        doAnswer(invocation -> {
+            flushes.incrementAndGet();
+            Thread.sleep(1);
+            return null;
+        }).when(collectionBoxAmountJdbcRepository).depositAll(any());
+        AtomicBoolean depositing = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (depositing.get()) {
+                balanceLedger.flushAll();
+            }
+        });
+        flusher.start();
+
+        // When
+        List<BigDecimal> balances = new ArrayList<>();
+        try {
+            while (flushes.get() < 20 && balances.size() < 1_000_000) {
+                balances.add(balanceLedger.deposit(boxId, EUR, 1).getAmounts().get("EUR"));
+            }
+        } finally {
+            depositing.set(false);
+            flusher.join();
+        }
+        balanceLedger.flushAll();
+
+        // Then
+        for (int i = 0; i < balances.size(); i++) {
+            assertEquals(BigDecimal.valueOf(501 + i, 2), balances.get(i), "deposit " + i);
+        }
+        assertTrue(balanceLedger.pendingAmounts(boxId).isEmpty());
+    }
+
+    /**
+     * Makes the transaction template run its callback with transaction synchronization active, then complete it.
+     */
+    private void runTransactions(boolean commit) {
+        doAnswer(invocation -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                invocation.<Consumer<Object>>getArgument(0).accept(null);
+            } catch (RuntimeException e) {
+                completeTransaction(false);
+                throw e;
+            }
+            completeTransaction(commit);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static void completeTransaction(boolean commit) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(commit
+                ? TransactionSynchronization.STATUS_COMMITTED
+                : TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+}
@@ -0,0 +1,83 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sii.siiassignment.exception.InvalidAmountException;
+import org.sii.siiassignment.model.CollectionBox;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoxAmountsTest {
+
+    private static final int EUR = CurrencyCodes.pack("EUR");
+    private static final int JPY = CurrencyCodes.pack("JPY");
+    private static final int PLN = CurrencyCodes.pack("PLN");
+
+    @Test
+    @DisplayName("Should pack currency codes densely and in alphabetical order")
+    void shouldPackCurrencyCodes() {
+        assertEquals(0, CurrencyCodes.pack("AAA"));
+        assertEquals(CurrencyCodes.COUNT - 1, CurrencyCodes.pack("ZZZ"));
+        assertTrue(EUR < JPY && JPY < PLN);
+        assertEquals("PLN", CurrencyCodes.unpack(PLN));
+        assertEquals(CurrencyCodes.INVALID, CurrencyCodes.pack("eur"));
+        assertEquals(CurrencyCodes.INVALID, CurrencyCodes.pack("EURO"));
+        assertEquals(CurrencyCodes.INVALID, CurrencyCodes.pack(null));
+    }
+
+    @Test
+    @DisplayName("Should convert amounts using the minor unit of each currency")
+    void shouldConvertToMinorUnits() {
+        assertEquals(1050, CurrencyCodes.toMinorUnits(new BigDecimal("10.5"), EUR));
+        assertEquals(1000, CurrencyCodes.toMinorUnits(new BigDecimal("1E+3"), JPY));
+        assertEquals(new BigDecimal("10.50"), CurrencyCodes.toDecimal(1050, EUR));
+        assertEquals(new BigDecimal("1050"), CurrencyCodes.toDecimal(1050, JPY));
+        assertThrows(InvalidAmountException.class, () -> CurrencyCodes.toMinorUnits(new BigDecimal("10.50"), JPY));
+        assertThrows(InvalidAmountException.class, () -> CurrencyCodes.toMinorUnits(new BigDecimal("0.001"), EUR));
+    }
+
+    @Test
+    @DisplayName("Should keep balances sorted by currency and ignore zero balances when checking emptiness")
+    void shouldAddAndRemoveBalances() {
+        // Given
+        BoxAmounts amounts = new BoxAmounts();
+
+        // When
+        amounts.add(PLN, 500);
+        amounts.add(EUR, 250);
+        amounts.add(PLN, -500);
+
+        // Then
+        assertEquals(List.of("EUR", "PLN"), List.copyOf(amounts.toDecimalMap().keySet()));
+        assertEquals(250, amounts.get(EUR));
+        assertFalse(amounts.isEmpty());
+
+        amounts.remove(EUR);
+        assertEquals(1, amounts.size());
+        assertTrue(amounts.isEmpty());
+        assertEquals(0, amounts.get(EUR));
+    }
+
+    @Test
+    @DisplayName("Should build the balances of a collection box from its stored minor units")
+    void shouldReadCollectionBoxAmounts() {
+        // Given
+        CollectionBox box = new CollectionBox();
+        ReflectionTestUtils.setField(box, "minorUnits", Map.of("PLN", 12050L, "EUR", -300L));
+
+        // When
+        BoxAmounts amounts = box.getAmounts();
+
+        // Then
+        assertEquals(BoxAmounts.of(Map.of("PLN", new BigDecimal("120.50"), "EUR", new BigDecimal("-3.00"))), amounts);
+        assertSame(amounts, box.getAmounts());
+        assertTrue(new CollectionBox().isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package org.sii.siiassignment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sii.siiassignment.controller.CachedResponses;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.BoxOperations;
+import org.sii.siiassignment.service.DataVersion;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedResponsesTest {
+
+    private final CachedResponses cachedResponses = new CachedResponses(new ObjectMapper());
+
+    @Test
+    @DisplayName("Should serialize a response once and reuse the bytes while the ETag is unchanged")
+    void shouldReuseBodyForSameETag() {
+        // Given
+        AtomicInteger builds = new AtomicInteger();
+        String eTag = CachedResponses.eTag("1-1");
+
+        // When
+        ResponseEntity<byte[]> first = cachedResponses.get("boxes", eTag, () -> {
+            builds.incrementAndGet();
+            return ResponseEntity.ok().header("X-Next-Cursor", "abc").body(List.of("a", "b"));
+        });
+        ResponseEntity<byte[]> second = cachedResponses.get("boxes", eTag, () -> {
+            builds.incrementAndGet();
+            return ResponseEntity.ok(List.of("c"));
+        });
+
+        // Then
+        assertEquals(1, builds.get());
+        assertSame(first.getBody(), second.getBody());
+        assertEquals("[\"a\",\"b\"]", new String(second.getBody()));
+        assertEquals("\"1-1\"", second.getHeaders().getETag());
+        assertEquals("abc", second.getHeaders().getFirst("X-Next-Cursor"));
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should build the response again once the ETag changes")
+    void shouldRebuildBodyForNewETag() {
+        // Given
+        cachedResponses.get("report", CachedResponses.eTag("1-1"), () -> ResponseEntity.ok(List.of("old")));
+
+        // When
+        ResponseEntity<byte[]> response = cachedResponses.get("report", CachedResponses.eTag("1-2"),
+                Mono.just(ResponseEntity.ok(List.of("new")))).block();
+
+        // Then
+        assertNotNull(response);
+        assertEquals("[\"new\"]", new String(response.getBody()));
+        assertEquals("\"1-2\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("Should move only the version of the changed data on")
+    void shouldIncrementVersionOfChangedData() {
+        // Given
+        DataVersion dataVersion = new DataVersion();
+        String boxes = dataVersion.tag(DataVersion.Scope.COLLECTION_BOXES);
+        String events = dataVersion.tag(DataVersion.Scope.FUNDRAISING_EVENTS);
+
+        // When
+        dataVersion.onBoxOperations(BoxOperations.of(BoxOperation.register(UUID.randomUUID())));
+        dataVersion.onBoxOperations(new BoxOperations(List.of()));
+
+        // Then
+        assertEquals(1, dataVersion.current(DataVersion.Scope.COLLECTION_BOXES));
+        assertNotEquals(boxes, dataVersion.tag(DataVersion.Scope.COLLECTION_BOXES));
+        assertEquals(events, dataVersion.tag(DataVersion.Scope.FUNDRAISING_EVENTS));
+    }
+}
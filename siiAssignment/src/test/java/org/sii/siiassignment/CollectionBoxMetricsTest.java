@@ -0,0 +1,59 @@
+package org.sii.siiassignment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.BoxCounts;
+import org.sii.siiassignment.service.CollectionBoxMetrics;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionBoxMetricsTest {
+
+    @Mock
+    private CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CollectionBoxMetrics collectionBoxMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        collectionBoxMetrics = new CollectionBoxMetrics(collectionBoxAmountJdbcRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should report box counts and pending money per currency, dropping currencies no longer held")
+    void shouldRefreshGauges() {
+        // Given
+        when(collectionBoxAmountJdbcRepository.countBoxes()).thenReturn(new BoxCounts(3, 2));
+        when(collectionBoxAmountJdbcRepository.sumAmountsByCurrency())
+                .thenReturn(Map.of("EUR", new BigDecimal("12.50"), "PLN", new BigDecimal("100.00")))
+                .thenReturn(Map.of("PLN", new BigDecimal("40.00")));
+
+        // When
+        collectionBoxMetrics.refresh();
+
+        // Then
+        assertEquals(3, meterRegistry.get("collection.boxes").tag("assigned", "true").gauge().value());
+        assertEquals(2, meterRegistry.get("collection.boxes").tag("assigned", "false").gauge().value());
+        assertEquals(12.5, meterRegistry.get("collection.box.pending.amount").tag("currency", "EUR").gauge().value());
+
+        // When
+        collectionBoxMetrics.refresh();
+
+        // Then
+        assertEquals(40, meterRegistry.get("collection.box.pending.amount").tag("currency", "PLN").gauge().value());
+        assertNull(meterRegistry.find("collection.box.pending.amount").tag("currency", "EUR").gauge());
+    }
+}
@@ -8,24 +8,49 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchBoxResult;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositItem;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResponse;
+import org.sii.siiassignment.DTO.CollectionBox.BatchDepositResult;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxPage;
 import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
 import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxSummaryResponse;
 import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
 import org.sii.siiassignment.exception.CollectionBoxStateException;
 import org.sii.siiassignment.exception.InvalidAmountException;
 import org.sii.siiassignment.exception.InvalidCurrencyException;
+import org.sii.siiassignment.exception.ResourceNotFoundException;
 import org.sii.siiassignment.model.CollectionBox;
 import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.rates.CurrencyRegistry;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
 import org.sii.siiassignment.repository.CollectionBoxRepository;
 import org.sii.siiassignment.repository.FundraisingEventRepository;
+import org.sii.siiassignment.service.BalanceLedger;
 import org.sii.siiassignment.service.CollectionBoxServiceImpl;
+import org.sii.siiassignment.service.DepositCoalescer;
 import org.sii.siiassignment.service.ExchangeRateService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,9 +65,27 @@ class CollectionBoxServiceImplTest {
     @Mock
     private ExchangeRateService exchangeRateService;
 
+    @Mock
+    private CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BalanceLedger balanceLedger;
+
+    @Mock
+    private DepositCoalescer depositCoalescer;
+
     @InjectMocks
     private CollectionBoxServiceImpl collectionBoxService;
 
+    private static final int EUR = CurrencyCodes.pack("EUR");
+    private static final int PLN = CurrencyCodes.pack("PLN");
+
     private UUID boxId;
     private UUID eventId;
     private CollectionBox collectionBox;
@@ -54,7 +97,7 @@ class CollectionBoxServiceImplTest {
         eventId = UUID.randomUUID();
         collectionBox = new CollectionBox();
         collectionBox.setId(boxId);
-        collectionBox.setAmounts(new HashMap<>());
+        collectionBox.setAmounts(new BoxAmounts());
 
         fundraisingEvent = new FundraisingEvent();
         fundraisingEvent.setId(eventId);
@@ -82,6 +125,29 @@ class CollectionBoxServiceImplTest {
             assertFalse(response.isAssigned());
             verify(collectionBoxRepository).save(any(CollectionBox.class));
         }
+
+        @Test
+        @DisplayName("Should register many boxes with a single batch insert")
+        void shouldRegisterManyBoxes() {
+            // When
+            BatchBoxResponse response = collectionBoxService.registerCollectionBoxes(3);
+
+            // Then
+            assertEquals(3, response.getAccepted());
+            List<UUID> boxIds = response.getResults().stream().map(BatchBoxResult::getBoxId).toList();
+            assertEquals(3, Set.copyOf(boxIds).size());
+            verify(collectionBoxAmountJdbcRepository).insertBoxes(boxIds);
+            verify(collectionBoxRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should reject a number of boxes outside the allowed range")
+        void shouldRejectInvalidCount() {
+            // When & Then
+            assertThrows(InvalidAmountException.class, () -> collectionBoxService.registerCollectionBoxes(0));
+            assertThrows(InvalidAmountException.class, () -> collectionBoxService.registerCollectionBoxes(10_001));
+            verifyNoInteractions(collectionBoxAmountJdbcRepository);
+        }
     }
 
     @Nested
@@ -89,30 +155,38 @@ class CollectionBoxServiceImplTest {
     class ListCollectionBoxesTests {
 
         @Test
-        @DisplayName("Should return empty list when no boxes exist")
-        void shouldReturnEmptyListWhenNoBoxes() {
+        @DisplayName("Should return the whole result without a cursor when it fits on one page")
+        void shouldReturnLastPageWithoutCursor() {
             // Given
-            when(collectionBoxRepository.findAll()).thenReturn(Collections.emptyList());
+            List<CollectionBoxSummaryResponse> boxes = List.of(new CollectionBoxSummaryResponse(boxId, false, true));
+            when(collectionBoxAmountJdbcRepository.findSummaries(null, true, null, null, 11)).thenReturn(boxes);
 
             // When
-            List<CollectionBoxSummaryResponse> result = collectionBoxService.listAllCollectionBoxes();
+            CollectionBoxPage page = collectionBoxService.listCollectionBoxes(null, true, null, null, 10);
 
             // Then
-            assertTrue(result.isEmpty());
+            assertEquals(boxes, page.getBoxes());
+            assertNull(page.getNextCursor());
         }
 
         @Test
-        @DisplayName("Should return list of all collection boxes")
-        void shouldReturnListOfAllBoxes() {
+        @DisplayName("Should return the last id on the page as cursor when more boxes exist")
+        void shouldReturnCursorWhenMoreBoxesExist() {
             // Given
-            List<CollectionBox> boxes = Arrays.asList(collectionBox, new CollectionBox());
-            when(collectionBoxRepository.findAll()).thenReturn(boxes);
+            UUID secondId = UUID.randomUUID();
+            List<CollectionBoxSummaryResponse> boxes = List.of(
+                    new CollectionBoxSummaryResponse(boxId, true, false),
+                    new CollectionBoxSummaryResponse(secondId, true, true),
+                    new CollectionBoxSummaryResponse(UUID.randomUUID(), true, true));
+            when(collectionBoxAmountJdbcRepository.findSummaries(true, null, eventId, boxId, 3)).thenReturn(boxes);
 
             // When
-            List<CollectionBoxSummaryResponse> result = collectionBoxService.listAllCollectionBoxes();
+            CollectionBoxPage page = collectionBoxService.listCollectionBoxes(true, null, eventId, boxId, 2);
 
             // Then
-            assertEquals(2, result.size());
+            assertEquals(2, page.getBoxes().size());
+            assertEquals(secondId, page.getNextCursor());
+            verify(collectionBoxRepository, never()).findAll();
         }
     }
 
@@ -141,7 +215,7 @@ class CollectionBoxServiceImplTest {
         @DisplayName("Should throw exception when assigning non-empty box")
         void shouldThrowExceptionWhenAssigningNonEmptyBox() {
             // Given
-            collectionBox.getAmounts().put("EUR", BigDecimal.TEN);
+            collectionBox.getAmounts().add(EUR, 1000);
             when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(collectionBox));
 
             // When & Then
@@ -153,17 +227,21 @@ class CollectionBoxServiceImplTest {
     @Nested
     @DisplayName("Deposit Money Tests")
     class DepositMoneyTests {
+
+        @BeforeEach
+        void setUp() {
+            lenient().when(exchangeRateService.getCurrencyRegistry()).thenReturn(CurrencyRegistry.of(List.of("EUR", "PLN")));
+            lenient().when(transactionTemplate.execute(any()))
+                    .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        }
+
         @Test
         @DisplayName("Should successfully deposit valid amount")
         void shouldDepositValidAmount() {
             // Given
             DepositMoneyRequest request = new DepositMoneyRequest("EUR", new BigDecimal("100.00"));
+            collectionBox.getAmounts().add(EUR, 10000); // state after the upsert
             when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(collectionBox));
-            when(collectionBoxRepository.save(any(CollectionBox.class))).thenReturn(collectionBox);
-
-            Map<String, BigDecimal> ratesMap = new HashMap<>();
-            ratesMap.put("EUR", BigDecimal.ONE);
-            when(exchangeRateService.getRatesCache()).thenReturn(ratesMap);
 
             // When
             CollectionBoxResponse response = collectionBoxService.depositMoneyToCollectionBox(boxId, request);
@@ -171,6 +249,40 @@ class CollectionBoxServiceImplTest {
             // Then
             assertNotNull(response);
             assertEquals(new BigDecimal("100.00"), response.getAmounts().get("EUR"));
+            verify(collectionBoxRepository).depositAmount(boxId, "EUR", 10000);
+            verify(collectionBoxRepository, never()).save(any(CollectionBox.class));
+        }
+
+        @Test
+        @DisplayName("Should throw not found when depositing into non-existent box")
+        void shouldThrowNotFoundForMissingBox() {
+            // Given
+            DepositMoneyRequest request = new DepositMoneyRequest("EUR", BigDecimal.TEN);
+            when(collectionBoxRepository.depositAmount(boxId, "EUR", 1000))
+                    .thenThrow(new DataIntegrityViolationException("FK violation"));
+            when(collectionBoxRepository.existsById(boxId)).thenReturn(false);
+
+            // When & Then
+            assertThrows(ResourceNotFoundException.class,
+                    () -> collectionBoxService.depositMoneyToCollectionBox(boxId, request));
+        }
+
+        @Test
+        @DisplayName("Should hand the deposit to the coalescer when it is enabled")
+        void shouldDepositThroughCoalescer() {
+            // Given
+            DepositMoneyRequest request = new DepositMoneyRequest("EUR", BigDecimal.TEN);
+            CollectionBoxResponse coalesced = new CollectionBoxResponse(boxId, null, Map.of("EUR", BigDecimal.TEN), false, false);
+            when(depositCoalescer.isEnabled()).thenReturn(true);
+            when(depositCoalescer.deposit(boxId, EUR, 1000)).thenReturn(coalesced);
+
+            // When
+            CollectionBoxResponse response = collectionBoxService.depositMoneyToCollectionBox(boxId, request);
+
+            // Then
+            assertSame(coalesced, response);
+            verify(collectionBoxRepository, never()).depositAmount(any(), any(), anyLong());
+            verifyNoInteractions(transactionTemplate);
         }
 
         @Test
@@ -178,11 +290,11 @@ class CollectionBoxServiceImplTest {
         void shouldThrowExceptionForInvalidCurrency() {
             // Given
             DepositMoneyRequest request = new DepositMoneyRequest("INVALID", BigDecimal.TEN);
-            when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(collectionBox));
 
             // When & Then
             assertThrows(InvalidCurrencyException.class,
                     () -> collectionBoxService.depositMoneyToCollectionBox(boxId, request));
+            verify(collectionBoxRepository, never()).depositAmount(any(), any(), anyLong());
         }
 
         @Test
@@ -190,11 +302,138 @@ class CollectionBoxServiceImplTest {
         void shouldThrowExceptionForNegativeAmount() {
             // Given
             DepositMoneyRequest request = new DepositMoneyRequest("EUR", new BigDecimal("-10.00"));
-            when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(collectionBox));
 
             // When & Then
             assertThrows(InvalidAmountException.class,
                     () -> collectionBoxService.depositMoneyToCollectionBox(boxId, request));
+            verify(collectionBoxRepository, never()).depositAmount(any(), any(), anyLong());
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Assign Collection Boxes Tests")
+    class BatchAssignCollectionBoxesTests {
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(collectionBoxService, "batchChunkSize", 500);
+            lenient().when(fundraisingEventRepository.existsById(eventId)).thenReturn(true);
+            lenient().when(transactionTemplate.execute(any()))
+                    .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        }
+
+        @Test
+        @DisplayName("Should assign empty boxes with one update and report every other box separately")
+        void shouldAssignEmptyBoxesAndReportOthers() {
+            // Given
+            UUID fullBoxId = UUID.randomUUID();
+            UUID otherEventBoxId = UUID.randomUUID();
+            UUID missingBoxId = UUID.randomUUID();
+            when(collectionBoxAmountJdbcRepository.findBoxes(any())).thenReturn(Map.of(
+                    boxId, new CollectionBoxResponse(boxId, null, Map.of(), true, false),
+                    fullBoxId, new CollectionBoxResponse(fullBoxId, null, Map.of("EUR", BigDecimal.TEN), false, false),
+                    otherEventBoxId, new CollectionBoxResponse(otherEventBoxId, UUID.randomUUID(), Map.of(), true, true)));
+            when(collectionBoxAmountJdbcRepository.assignEmptyBoxes(List.of(boxId), eventId)).thenReturn(Set.of(boxId));
+
+            // When
+            BatchBoxResponse response = collectionBoxService.assignCollectionBoxesToEvent(
+                    Arrays.asList(boxId, fullBoxId, otherEventBoxId, missingBoxId, null, boxId), eventId);
+
+            // Then
+            assertEquals(2, response.getAccepted());
+            assertEquals(4, response.getRejected());
+            assertEquals(List.of(BatchBoxResult.Status.ACCEPTED, BatchBoxResult.Status.BOX_NOT_EMPTY,
+                            BatchBoxResult.Status.ALREADY_ASSIGNED, BatchBoxResult.Status.BOX_NOT_FOUND,
+                            BatchBoxResult.Status.BOX_NOT_FOUND, BatchBoxResult.Status.ACCEPTED),
+                    response.getResults().stream().map(BatchBoxResult::getStatus).toList());
+            verify(collectionBoxAmountJdbcRepository).assignEmptyBoxes(List.of(boxId), eventId);
+            verify(transactionTemplate).execute(any());
+        }
+
+        @Test
+        @DisplayName("Should report boxes changed between the check and the update as failed")
+        void shouldReportConcurrentlyChangedBoxes() {
+            // Given
+            when(collectionBoxAmountJdbcRepository.findBoxes(any()))
+                    .thenReturn(Map.of(boxId, new CollectionBoxResponse(boxId, null, Map.of(), true, false)));
+            when(collectionBoxAmountJdbcRepository.assignEmptyBoxes(List.of(boxId), eventId)).thenReturn(Set.of());
+
+            // When
+            BatchBoxResponse response = collectionBoxService.assignCollectionBoxesToEvent(List.of(boxId), eventId);
+
+            // Then
+            assertEquals(BatchBoxResult.Status.FAILED, response.getResults().get(0).getStatus());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when the event does not exist")
+        void shouldThrowExceptionWhenEventNotFound() {
+            // Given
+            when(fundraisingEventRepository.existsById(eventId)).thenReturn(false);
+
+            // When & Then
+            assertThrows(ResourceNotFoundException.class,
+                    () -> collectionBoxService.assignCollectionBoxesToEvent(List.of(boxId), eventId));
+            verifyNoInteractions(collectionBoxAmountJdbcRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch Deposit Tests")
+    class BatchDepositTests {
+
+        @BeforeEach
+        void setUp() {
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(
+                    Map.of("EUR", BigDecimal.ONE, "PLN", new BigDecimal("4.3")), 1L));
+        }
+
+        @Test
+        @DisplayName("Should sum deposits per box and currency and reject invalid items")
+        void shouldSumDepositsAndRejectInvalidItems() {
+            // Given
+            UUID otherBoxId = UUID.randomUUID();
+            List<BatchDepositItem> items = List.of(
+                    new BatchDepositItem(boxId, "EUR", new BigDecimal("10.00")),
+                    new BatchDepositItem(otherBoxId, "PLN", new BigDecimal("5.00")),
+                    new BatchDepositItem(boxId, "EUR", new BigDecimal("2.50")),
+                    new BatchDepositItem(boxId, "XXX", BigDecimal.ONE),
+                    new BatchDepositItem(boxId, "EUR", BigDecimal.ZERO));
+            when(transactionTemplate.execute(any()))
+                    .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            when(collectionBoxAmountJdbcRepository.findExistingBoxIds(any())).thenReturn(Set.of(boxId, otherBoxId));
+
+            // When
+            BatchDepositResponse response = collectionBoxService.depositMoneyBatch(items);
+
+            // Then
+            assertEquals(3, response.getAccepted());
+            assertEquals(2, response.getRejected());
+            assertEquals(BatchDepositResult.Status.INVALID_CURRENCY, response.getResults().get(3).getStatus());
+            assertEquals(BatchDepositResult.Status.INVALID_AMOUNT, response.getResults().get(4).getStatus());
+            verify(collectionBoxAmountJdbcRepository).depositAll(List.of(new AmountChange(boxId, EUR, 1250)));
+            verify(collectionBoxAmountJdbcRepository).depositAll(List.of(new AmountChange(otherBoxId, PLN, 500)));
+        }
+
+        @Test
+        @DisplayName("Should report missing boxes without failing the rest of the batch")
+        void shouldReportMissingBoxes() {
+            // Given
+            UUID missingBoxId = UUID.randomUUID();
+            List<BatchDepositItem> items = List.of(
+                    new BatchDepositItem(missingBoxId, "EUR", BigDecimal.ONE),
+                    new BatchDepositItem(boxId, "EUR", BigDecimal.TEN));
+            when(transactionTemplate.execute(any()))
+                    .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            when(collectionBoxAmountJdbcRepository.findExistingBoxIds(any())).thenReturn(Set.of(boxId));
+
+            // When
+            BatchDepositResponse response = collectionBoxService.depositMoneyBatch(items);
+
+            // Then
+            assertEquals(BatchDepositResult.Status.BOX_NOT_FOUND, response.getResults().get(0).getStatus());
+            assertEquals(BatchDepositResult.Status.ACCEPTED, response.getResults().get(1).getStatus());
+            verify(collectionBoxAmountJdbcRepository).depositAll(List.of(new AmountChange(boxId, EUR, 1000)));
         }
     }
 
@@ -211,10 +450,13 @@ class CollectionBoxServiceImplTest {
         @DisplayName("Should successfully empty box with single currency")
         void shouldEmptyBoxWithSingleCurrency() {
             // Given
-            collectionBox.getAmounts().put("EUR", BigDecimal.TEN); // dodajemy trochę pieniędzy do skarbonki
-            when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(collectionBox));
-            when(collectionBoxRepository.save(any(CollectionBox.class))).thenReturn(collectionBox);
+            collectionBox.getAmounts().add(EUR, 1000); // dodajemy trochę pieniędzy do skarbonki
+            when(collectionBoxRepository.findForUpdateById(boxId)).thenReturn(Optional.of(collectionBox));
+            when(collectionBoxRepository.withdrawAmount(boxId, "EUR", 1000)).thenReturn(1);
             when(fundraisingEventRepository.save(any(FundraisingEvent.class))).thenReturn(fundraisingEvent);
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(Map.of("EUR", BigDecimal.ONE), 1L));
+            when(collectionBoxAmountJdbcRepository.findBoxes(List.of(boxId))).thenReturn(Map.of(boxId,
+                    new CollectionBoxResponse(boxId, eventId, new HashMap<>(), true, true)));
 
             // When
             CollectionBoxResponse response = collectionBoxService.emptyCollectionBox(boxId);
@@ -223,6 +465,61 @@ class CollectionBoxServiceImplTest {
             assertTrue(response.isEmpty());
             assertEquals(BigDecimal.ZERO, response.getAmounts().getOrDefault("EUR", BigDecimal.ZERO));
             verify(fundraisingEventRepository).save(any(FundraisingEvent.class));
+            verify(collectionBoxRepository).deleteEmptyAmounts(boxId);
+        }
+
+        @Test
+        @DisplayName("Should report money deposited while the box was being emptied")
+        void shouldReportConcurrentDeposits() {
+            // Given
+            collectionBox.getAmounts().add(EUR, 1000);
+            when(collectionBoxRepository.findForUpdateById(boxId)).thenReturn(Optional.of(collectionBox));
+            when(collectionBoxRepository.withdrawAmount(boxId, "EUR", 1000)).thenReturn(1);
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(Map.of("EUR", BigDecimal.ONE), 1L));
+            Map<String, BigDecimal> remaining = new HashMap<>(Map.of("EUR", new BigDecimal("5.00")));
+            when(collectionBoxAmountJdbcRepository.findBoxes(List.of(boxId))).thenReturn(Map.of(boxId,
+                    new CollectionBoxResponse(boxId, eventId, remaining, false, true)));
+
+            // When
+            CollectionBoxResponse response = collectionBoxService.emptyCollectionBox(boxId);
+
+            // Then
+            assertFalse(response.isEmpty());
+            assertEquals(new BigDecimal("5.00"), response.getAmounts().get("EUR"));
+            assertEquals(0, new BigDecimal("10.00").compareTo(fundraisingEvent.getAccountBalance()));
+        }
+
+        @Test
+        @DisplayName("Should convert every currency into the event currency")
+        void shouldConvertAmountsIntoEventCurrency() {
+            // Given
+            collectionBox.getAmounts().add(EUR, 1000);
+            collectionBox.getAmounts().add(PLN, 4300);
+            when(collectionBoxRepository.findForUpdateById(boxId)).thenReturn(Optional.of(collectionBox));
+            when(collectionBoxRepository.withdrawAmount(eq(boxId), anyString(), anyLong())).thenReturn(1);
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(
+                    Map.of("EUR", BigDecimal.ONE, "PLN", new BigDecimal("4.30")), 1L));
+
+            // When
+            collectionBoxService.emptyCollectionBox(boxId);
+
+            // Then
+            assertEquals(0, new BigDecimal("20.00").compareTo(fundraisingEvent.getAccountBalance()));
+        }
+
+        @Test
+        @DisplayName("Should fail with optimistic locking error when box was emptied concurrently")
+        void shouldFailWhenBoxEmptiedConcurrently() {
+            // Given
+            collectionBox.getAmounts().add(EUR, 1000);
+            when(collectionBoxRepository.findForUpdateById(boxId)).thenReturn(Optional.of(collectionBox));
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(Map.of("EUR", BigDecimal.ONE), 1L));
+            when(collectionBoxRepository.withdrawAmount(boxId, "EUR", 1000)).thenReturn(0);
+
+            // When & Then
+            assertThrows(OptimisticLockingFailureException.class,
+                    () -> collectionBoxService.emptyCollectionBox(boxId));
+            verify(collectionBoxRepository, never()).deleteEmptyAmounts(boxId);
         }
 
         @Test
@@ -230,7 +527,7 @@ class CollectionBoxServiceImplTest {
         void shouldThrowExceptionWhenEmptyingUnassignedBox() {
             // Given
             collectionBox.setFundraisingEvent(null);
-            when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(collectionBox));
+            when(collectionBoxRepository.findForUpdateById(boxId)).thenReturn(Optional.of(collectionBox));
 
             // When & Then
             assertThrows(IllegalStateException.class,
@@ -246,25 +543,52 @@ class CollectionBoxServiceImplTest {
         @DisplayName("Should successfully unregister box")
         void shouldUnregisterBox() {
             // Given
-            when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.of(collectionBox));
+            when(collectionBoxAmountJdbcRepository.deleteBoxes(List.of(boxId))).thenReturn(Set.of(boxId));
 
             // When
             collectionBoxService.unregisterCollectionBox(boxId);
 
             // Then
-            verify(collectionBoxRepository).delete(collectionBox);
-            assertTrue(collectionBox.isEmpty());
+            verify(collectionBoxAmountJdbcRepository).deleteBoxes(List.of(boxId));
+            verify(balanceLedger).evictAfterCommit(List.of(boxId));
+            verifyNoInteractions(collectionBoxRepository);
         }
 
         @Test
         @DisplayName("Should throw exception when box not found")
         void shouldThrowExceptionWhenBoxNotFound() {
             // Given
-            when(collectionBoxRepository.findById(boxId)).thenReturn(Optional.empty());
+            when(collectionBoxAmountJdbcRepository.deleteBoxes(List.of(boxId))).thenReturn(Set.of());
 
             // When & Then
-            assertThrows(RuntimeException.class,
+            assertThrows(ResourceNotFoundException.class,
                     () -> collectionBoxService.unregisterCollectionBox(boxId));
+            verify(balanceLedger, never()).evictAfterCommit(any());
+        }
+
+        @Test
+        @DisplayName("Should unregister many boxes in chunks and report missing boxes and failed chunks")
+        void shouldUnregisterManyBoxes() {
+            // Given
+            UUID missingBoxId = UUID.randomUUID();
+            UUID failingBoxId = UUID.randomUUID();
+            ReflectionTestUtils.setField(collectionBoxService, "batchChunkSize", 2);
+            when(transactionTemplate.execute(any()))
+                    .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+            when(collectionBoxAmountJdbcRepository.deleteBoxes(Set.of(boxId, missingBoxId))).thenReturn(Set.of(boxId));
+            when(collectionBoxAmountJdbcRepository.deleteBoxes(Set.of(failingBoxId)))
+                    .thenThrow(new QueryTimeoutException("timeout"));
+
+            // When
+            BatchBoxResponse response = collectionBoxService.unregisterCollectionBoxes(
+                    List.of(boxId, missingBoxId, failingBoxId));
+
+            // Then
+            assertEquals(1, response.getAccepted());
+            assertEquals(List.of(BatchBoxResult.Status.ACCEPTED, BatchBoxResult.Status.BOX_NOT_FOUND,
+                            BatchBoxResult.Status.FAILED),
+                    response.getResults().stream().map(BatchBoxResult::getStatus).toList());
+            verify(balanceLedger).evictAfterCommit(Set.of(boxId));
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,188 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.exception.DepositTimeoutException;
+import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
+import org.sii.siiassignment.service.DepositCoalescer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepositCoalescerTest {
+
+    @Mock
+    private CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DepositCoalescer depositCoalescer;
+
+    private static final int EUR = CurrencyCodes.pack("EUR");
+
+    private UUID boxId;
+
+    @BeforeEach
+    void setUp() {
+        boxId = UUID.randomUUID();
+        // A long window with a batch of three makes the three deposits of each test one batch.
+        ReflectionTestUtils.setField(depositCoalescer, "enabled", true);
+        ReflectionTestUtils.setField(depositCoalescer, "windowMillis", 5_000L);
+        ReflectionTestUtils.setField(depositCoalescer, "maxBatch", 3);
+        ReflectionTestUtils.setField(depositCoalescer, "workerCount", 1);
+        ReflectionTestUtils.setField(depositCoalescer, "maxAttempts", 1);
+        ReflectionTestUtils.setField(depositCoalescer, "transactionTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.invokeMethod(depositCoalescer, "start");
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(depositCoalescer, "stop");
+    }
+
+    @Test
+    @DisplayName("Should merge concurrent deposits into one increment and return the resulting box to every caller")
+    void shouldCoalesceDepositsIntoSameBox() throws Exception {
+        // Given
+        when(collectionBoxAmountJdbcRepository.findExistingBoxIds(any())).thenReturn(Set.of(boxId));
+        CollectionBoxResponse after = new CollectionBoxResponse(boxId, null,
+                new HashMap<>(Map.of("EUR", new BigDecimal("6.00"))), false, false);
+        when(collectionBoxAmountJdbcRepository.findBoxes(Set.of(boxId))).thenReturn(Map.of(boxId, after));
+
+        // When
+        List<CompletableFuture<CollectionBoxResponse>> responses = depositConcurrently(
+                boxId, new BigDecimal("1.00"), boxId, new BigDecimal("2.00"), boxId, new BigDecimal("3.00"));
+
+        // Then
+        for (CompletableFuture<CollectionBoxResponse> response : responses) {
+            assertEquals(new BigDecimal("6.00"), response.get().getAmounts().get("EUR"));
+        }
+        verify(collectionBoxAmountJdbcRepository, times(1))
+                .depositAll(List.of(new AmountChange(boxId, EUR, 600)));
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Should fail only the deposits into boxes that do not exist")
+    void shouldRejectDepositsIntoMissingBoxes() throws Exception {
+        // Given
+        UUID missingBoxId = UUID.randomUUID();
+        when(collectionBoxAmountJdbcRepository.findExistingBoxIds(any())).thenReturn(Set.of(boxId));
+        when(collectionBoxAmountJdbcRepository.findBoxes(Set.of(boxId))).thenReturn(Map.of(boxId,
+                new CollectionBoxResponse(boxId, null, new HashMap<>(Map.of("EUR", new BigDecimal("2.00"))), false, false)));
+
+        // When
+        List<CompletableFuture<CollectionBoxResponse>> responses = depositConcurrently(
+                boxId, BigDecimal.ONE, missingBoxId, BigDecimal.TEN, boxId, BigDecimal.ONE);
+
+        // Then
+        assertEquals(new BigDecimal("2.00"), responses.get(0).get().getAmounts().get("EUR"));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> responses.get(1).get());
+        assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+        verify(collectionBoxAmountJdbcRepository).depositAll(List.of(new AmountChange(boxId, EUR, 200)));
+    }
+
+    @Test
+    @DisplayName("Should complete every deposit that races with shutdown")
+    void shouldCompleteDepositsRacingWithStop() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(depositCoalescer, "windowMillis", 1L);
+        lenient().when(collectionBoxAmountJdbcRepository.findExistingBoxIds(any())).thenReturn(Set.of(boxId));
+        lenient().when(collectionBoxAmountJdbcRepository.findBoxes(any())).thenReturn(Map.of(boxId,
+                new CollectionBoxResponse(boxId, null, new HashMap<>(), false, false)));
+        List<CompletableFuture<Integer>> depositors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            depositors.add(CompletableFuture.supplyAsync(() -> {
+                int deposited = 0;
+                while (true) {
+                    try {
+                        depositCoalescer.deposit(boxId, EUR, 100);
+                        deposited++;
+                    } catch (IllegalStateException e) {
+                        return deposited;
+                    }
+                }
+            }, runnable -> new Thread(runnable).start()));
+        }
+        Thread.sleep(50);
+
+        // When
+        ReflectionTestUtils.invokeMethod(depositCoalescer, "stop");
+
+        // Then
+        for (CompletableFuture<Integer> depositor : depositors) {
+            assertNotNull(depositor.get(5, TimeUnit.SECONDS));
+        }
+        assertThrows(IllegalStateException.class, () -> depositCoalescer.deposit(boxId, EUR, 100));
+    }
+
+    @Test
+    @DisplayName("Should fail the batch when its worker dies and time out the deposits after it")
+    void shouldNotHangWhenWorkerDies() {
+        // Given
+        ReflectionTestUtils.setField(depositCoalescer, "windowMillis", 1L);
+        ReflectionTestUtils.setField(depositCoalescer, "transactionTimeout", Duration.ofMillis(100));
+        when(collectionBoxAmountJdbcRepository.findExistingBoxIds(any())).thenThrow(new StackOverflowError());
+
+        // When
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> depositCoalescer.deposit(boxId, EUR, 100));
+
+        // Then
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(DepositTimeoutException.class, () -> depositCoalescer.deposit(boxId, EUR, 100)));
+    }
+
+    /**
+     * Deposits each (box, amount) pair in EUR from its own thread.
+     */
+    private List<CompletableFuture<CollectionBoxResponse>> depositConcurrently(Object... boxesAndAmounts) {
+        List<CompletableFuture<CollectionBoxResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < boxesAndAmounts.length; i += 2) {
+            UUID box = (UUID) boxesAndAmounts[i];
+            BigDecimal amount = (BigDecimal) boxesAndAmounts[i + 1];
+            responses.add(CompletableFuture.supplyAsync(() -> depositCoalescer.deposit(box, EUR, CurrencyCodes.toMinorUnits(amount, EUR)),
+                    runnable -> new Thread(runnable).start()));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).exceptionally(e -> null).join();
+        return responses;
+    }
+}
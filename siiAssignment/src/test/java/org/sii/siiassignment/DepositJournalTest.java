@@ -0,0 +1,226 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.DepositJournal;
+import org.sii.siiassignment.journal.FsyncPolicy;
+import org.sii.siiassignment.journal.JournalRecovery;
+import org.sii.siiassignment.journal.JournalState;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.BoxBalance;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DepositJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private DepositJournal journal;
+    private UUID boxId;
+    private UUID eventId;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        boxId = UUID.randomUUID();
+        eventId = UUID.randomUUID();
+        journal = newJournal(1 << 16);
+        journal.open(new JournalState(), 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Should rebuild box state by replaying the journal")
+    void shouldReplayAppendedOperations() throws IOException {
+        // Given
+        journal.append(List.of(
+                BoxOperation.register(boxId),
+                BoxOperation.assign(boxId, eventId),
+                BoxOperation.deposit(boxId, "EUR", new BigDecimal("10.50")),
+                BoxOperation.deposit(boxId, "PLN", new BigDecimal("3"))));
+        journal.append(List.of(BoxOperation.withdraw(boxId, eventId, "EUR", new BigDecimal("10.50"))));
+        journal.close();
+
+        // When
+        DepositJournal.Replay replay = newJournal(1 << 16).replay();
+
+        // Then
+        assertEquals(5, replay.lastSequence());
+        JournalState.Box box = replay.state().boxes().get(boxId);
+        assertEquals(eventId, box.getEventId());
+        assertEquals(Map.of("PLN", new BigDecimal("3.00")), box.getAmounts().toDecimalMap());
+    }
+
+    @Test
+    @DisplayName("Should replay only the entries appended after the latest snapshot")
+    void shouldReplayFromSnapshot() throws IOException {
+        // Given
+        journal.append(List.of(BoxOperation.register(boxId), BoxOperation.deposit(boxId, "EUR", BigDecimal.ONE)));
+        journal.snapshot();
+        journal.append(List.of(BoxOperation.deposit(boxId, "EUR", BigDecimal.TEN)));
+        journal.close();
+
+        // When
+        DepositJournal.Replay replay = newJournal(1 << 16).replay();
+
+        // Then
+        assertEquals(2, replay.snapshot().orElseThrow().sequence());
+        assertEquals(3, replay.lastSequence());
+        assertEquals(Map.of("EUR", new BigDecimal("11.00")), replay.state().boxes().get(boxId).getAmounts().toDecimalMap());
+    }
+
+    @Test
+    @DisplayName("Should roll over to new segments and replay across them")
+    void shouldReplayAcrossSegments() throws IOException {
+        // Given
+        journal.close();
+        journal = newJournal(512);
+        journal.open(new JournalState(), 0);
+        journal.append(List.of(BoxOperation.register(boxId)));
+        for (int i = 0; i < 100; i++) {
+            journal.append(List.of(BoxOperation.deposit(boxId, "EUR", BigDecimal.ONE)));
+        }
+        journal.close();
+
+        // When
+        DepositJournal.Replay replay = newJournal(512).replay();
+
+        // Then
+        assertTrue(segments().size() > 1);
+        assertEquals(101, replay.lastSequence());
+        assertEquals(Map.of("EUR", new BigDecimal("100.00")), replay.state().boxes().get(boxId).getAmounts().toDecimalMap());
+    }
+
+    @Test
+    @DisplayName("Should stop at a torn entry and continue in a new segment after restart")
+    void shouldIgnoreTornEntry() throws IOException {
+        // Given
+        journal.append(List.of(BoxOperation.register(boxId), BoxOperation.deposit(boxId, "EUR", BigDecimal.ONE)));
+        journal.append(List.of(BoxOperation.deposit(boxId, "EUR", BigDecimal.TEN)));
+        journal.close();
+        tearLastEntry(segments().get(0));
+
+        DepositJournal restarted = newJournal(1 << 16);
+        DepositJournal.Replay afterCrash = restarted.replay();
+        restarted.open(afterCrash.state(), afterCrash.lastSequence());
+        restarted.append(List.of(BoxOperation.deposit(boxId, "EUR", BigDecimal.TWO)));
+        restarted.close();
+
+        // When
+        DepositJournal.Replay replay = newJournal(1 << 16).replay();
+
+        // Then
+        assertEquals(2, afterCrash.lastSequence());
+        assertEquals(3, replay.lastSequence());
+        assertEquals(Map.of("EUR", new BigDecimal("3.00")), replay.state().boxes().get(boxId).getAmounts().toDecimalMap());
+    }
+
+    @Test
+    @DisplayName("Should recover from the snapshot without reading the database")
+    void shouldRecoverWithoutDatabase() throws IOException {
+        // Given
+        journal.append(List.of(BoxOperation.register(boxId), BoxOperation.deposit(boxId, "EUR", BigDecimal.ONE)));
+        journal.snapshot();
+        journal.append(List.of(BoxOperation.deposit(boxId, "EUR", BigDecimal.TEN)));
+        journal.close();
+        CollectionBoxAmountJdbcRepository repository = mock(CollectionBoxAmountJdbcRepository.class);
+        journal = newJournal(1 << 16);
+
+        // When
+        new JournalRecovery(journal, repository).recover();
+
+        // Then
+        verifyNoInteractions(repository);
+        journal.append(List.of(BoxOperation.deposit(boxId, "EUR", BigDecimal.TWO)));
+        journal.close();
+        DepositJournal.Replay replay = newJournal(1 << 16).replay();
+        assertEquals(Map.of("EUR", new BigDecimal("13.00")), replay.state().boxes().get(boxId).getAmounts().toDecimalMap());
+    }
+
+    @Test
+    @DisplayName("Should only report boxes that differ from the database when verifying")
+    void shouldVerifyWithoutWritingDatabase() throws IOException {
+        // Given
+        journal.append(List.of(BoxOperation.register(boxId), BoxOperation.deposit(boxId, "EUR", BigDecimal.ONE)));
+        journal.snapshot();
+        journal.close();
+        CollectionBoxAmountJdbcRepository repository = mock(CollectionBoxAmountJdbcRepository.class);
+        doAnswer(invocation -> {
+            // The database is ahead of the journal, as after a failed append
+            invocation.<Consumer<BoxBalance>>getArgument(0).accept(new BoxBalance(boxId, null, CurrencyCodes.pack("EUR"), 300));
+            return null;
+        }).when(repository).findAllBalances(any());
+        journal = newJournal(1 << 16);
+        JournalRecovery recovery = new JournalRecovery(journal, repository);
+        ReflectionTestUtils.setField(recovery, "mode", JournalRecovery.Mode.VERIFY);
+
+        // When
+        recovery.recover();
+
+        // Then
+        verify(repository).findAllBalances(any());
+        verifyNoMoreInteractions(repository);
+    }
+
+    private DepositJournal newJournal(int segmentSize) {
+        DepositJournal newJournal = new DepositJournal();
+        ReflectionTestUtils.setField(newJournal, "enabled", true);
+        ReflectionTestUtils.setField(newJournal, "directory", directory);
+        ReflectionTestUtils.setField(newJournal, "segmentSize", segmentSize);
+        ReflectionTestUtils.setField(newJournal, "fsyncPolicy", FsyncPolicy.GROUP);
+        return newJournal;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(file -> file.getFileName().toString().startsWith("segment-")).sorted().toList());
+        }
+    }
+
+    /**
+     * Flips a byte in the payload of the last entry of the segment, as if the write had been cut short.
+     */
+    private static void tearLastEntry(Path segment) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long position = 0;
+            long last = -1;
+            while (true) {
+                file.seek(position);
+                int length = file.readInt();
+                if (length == 0) {
+                    break;
+                }
+                last = position;
+                position += 8 + length;
+            }
+            file.seek(last + 8 + 20);
+            int value = file.read();
+            file.seek(last + 8 + 20);
+            file.write(value ^ 0xff);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package org.sii.siiassignment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.sii.siiassignment.DTO.ExchangeRate.ExchangeRateStatusResponse;
+import org.sii.siiassignment.controller.ExchangeRateController;
+import org.sii.siiassignment.exception.ExchangeRateException;
+import org.sii.siiassignment.rates.CircuitBreaker;
+import org.sii.siiassignment.rates.RateProviderChain;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.rates.RateSnapshotStore;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExchangeRateServiceTest {
+
+    private static final long CACHE_DURATION = 3600000;
+    private static final long REFRESH_AHEAD = 300000;
+
+    private RateProviderChain chain;
+    private RateSnapshotStore store;
+    private ExchangeRateService service;
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        chain = mock(RateProviderChain.class);
+        store = mock(RateSnapshotStore.class);
+        when(store.load()).thenReturn(Optional.empty());
+        when(chain.getCircuitStates()).thenReturn(Map.of("http", CircuitBreaker.State.CLOSED));
+        service = new ExchangeRateService(chain, store, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "refreshAheadMillis", REFRESH_AHEAD);
+    }
+
+    private static RateSnapshot rates(String pln, long fetchedAt) {
+        return RateSnapshot.of(Map.of("EUR", BigDecimal.ONE, "PLN", new BigDecimal(pln)), fetchedAt);
+    }
+
+    /** Makes every fetch of the chain answer with {@code response}, counting the fetches. */
+    private void answer(Mono<RateProviderChain.Result> response) {
+        when(chain.fetch()).thenReturn(Mono.defer(() -> {
+            fetches.incrementAndGet();
+            return response;
+        }));
+    }
+
+    private void answer(RateSnapshot rates, String provider, boolean fallback) {
+        answer(Mono.just(new RateProviderChain.Result(rates, provider, fallback)));
+    }
+
+    @Nested
+    @DisplayName("Refresh Tests")
+    class RefreshTests {
+
+        private ExecutorService executor;
+
+        @AfterEach
+        void tearDown() {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("Should fetch once for concurrent refreshes")
+        void shouldCollapseConcurrentRefreshes() throws Exception {
+            // Given
+            Sinks.One<RateProviderChain.Result> response = Sinks.one();
+            CountDownLatch fetching = new CountDownLatch(1);
+            when(chain.fetch()).thenReturn(Mono.defer(() -> {
+                fetches.incrementAndGet();
+                fetching.countDown();
+                return response.asMono();
+            }));
+            executor = Executors.newFixedThreadPool(4);
+
+            // When
+            CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(service::refreshRates, executor);
+            assertTrue(fetching.await(5, TimeUnit.SECONDS));
+            List<CompletableFuture<Boolean>> others = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                others.add(CompletableFuture.supplyAsync(service::refreshRates, executor));
+            }
+            for (CompletableFuture<Boolean> other : others) {
+                assertFalse(other.get(5, TimeUnit.SECONDS));
+            }
+            response.tryEmitValue(new RateProviderChain.Result(rates("4.30", System.currentTimeMillis()), "http", false));
+
+            // Then
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, fetches.get());
+            assertEquals(new BigDecimal("4.300000"), service.getExchangeRate("EUR", "PLN"));
+        }
+
+        @Test
+        @DisplayName("Should keep the previous rates when a refresh fails")
+        void shouldKeepRatesOnFailure() {
+            // Given
+            RateSnapshot good = rates("4.30", System.currentTimeMillis());
+            answer(good, "http", false);
+            assertTrue(service.refreshRates());
+            answer(Mono.error(new ExchangeRateException("Failed to fetch exchange rates: http: timeout")));
+
+            // When
+            boolean first = service.refreshRates();
+            boolean second = service.refreshRates();
+
+            // Then
+            assertFalse(first);
+            assertFalse(second);
+            assertSame(good, service.getSnapshot());
+            ExchangeRateStatusResponse status = service.getRefreshStatus();
+            assertEquals(2, status.getConsecutiveFailures());
+            assertEquals(2, status.getTotalFailures());
+            assertEquals("Failed to fetch exchange rates: http: timeout", status.getLastError());
+            assertEquals("http", status.getSource());
+            assertFalse(status.isStale());
+        }
+
+        @Test
+        @DisplayName("Should reset the consecutive failures after a successful refresh")
+        void shouldResetFailuresOnSuccess() {
+            // Given
+            answer(Mono.error(new ExchangeRateException("down")));
+            assertFalse(service.refreshRates());
+            answer(rates("4.30", System.currentTimeMillis()), "http", false);
+
+            // When
+            boolean refreshed = service.refreshRates();
+
+            // Then
+            assertTrue(refreshed);
+            ExchangeRateStatusResponse status = service.getRefreshStatus();
+            assertEquals(0, status.getConsecutiveFailures());
+            assertEquals(1, status.getTotalFailures());
+            assertNull(status.getLastError());
+        }
+
+        @Test
+        @DisplayName("Should fail lookups with the refresh error while no rates are loaded")
+        void shouldFailWithoutRates() {
+            // Given
+            answer(Mono.error(new ExchangeRateException("down")));
+            service.refreshRates();
+
+            // When
+            ExchangeRateException exception = assertThrows(ExchangeRateException.class, service::getSnapshot);
+
+            // Then
+            assertTrue(exception.getMessage().contains("down"));
+            assertNull(service.getRefreshStatus().getSource());
+            assertTrue(service.getRefreshStatus().isStale());
+        }
+
+        @Test
+        @DisplayName("Should save refreshed rates when the snapshot store is enabled")
+        void shouldSaveRates() {
+            // Given
+            RateSnapshot good = rates("4.30", System.currentTimeMillis());
+            answer(good, "http", false);
+            when(store.isEnabled()).thenReturn(true);
+
+            // When
+            boolean refreshed = service.refreshRates();
+
+            // Then
+            assertTrue(refreshed);
+            verify(store).save(good);
+        }
+    }
+
+    @Nested
+    @DisplayName("Scheduled Refresh Tests")
+    class ScheduledRefreshTests {
+
+        @Test
+        @DisplayName("Should load rates on the first check")
+        void shouldLoadInitially() {
+            // Given
+            answer(rates("4.30", System.currentTimeMillis()), "http", false);
+
+            // When
+            service.refreshIfDue();
+
+            // Then
+            assertEquals(1, fetches.get());
+            assertEquals(2, service.getSnapshot().size());
+        }
+
+        @Test
+        @DisplayName("Should not refresh rates that are not about to expire")
+        void shouldSkipFreshRates() {
+            // Given
+            answer(rates("4.30", System.currentTimeMillis() - (CACHE_DURATION - REFRESH_AHEAD) + 10_000), "http", false);
+            service.refreshRates();
+
+            // When
+            service.refreshIfDue();
+
+            // Then
+            assertEquals(1, fetches.get());
+        }
+
+        @Test
+        @DisplayName("Should refresh rates once they are within the refresh-ahead window")
+        void shouldRefreshAhead() {
+            // Given
+            answer(rates("4.30", System.currentTimeMillis() - (CACHE_DURATION - REFRESH_AHEAD)), "http", false);
+            service.refreshRates();
+
+            // When
+            service.refreshIfDue();
+
+            // Then
+            assertEquals(2, fetches.get());
+        }
+
+        @Test
+        @DisplayName("Should refresh fresh rates served by a fallback provider at every check")
+        void shouldRefreshFallbackRates() {
+            // Given
+            answer(rates("4.30", System.currentTimeMillis()), "static", true);
+            service.refreshRates();
+
+            // When
+            service.refreshIfDue();
+            answer(rates("4.31", System.currentTimeMillis()), "http", false);
+            service.refreshIfDue();
+            service.refreshIfDue();
+
+            // Then
+            assertEquals(3, fetches.get());
+            assertEquals("http", service.getRefreshStatus().getSource());
+            assertEquals(new BigDecimal("4.310000"), service.getExchangeRate("EUR", "PLN"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Persisted Rates Tests")
+    class PersistedRatesTests {
+
+        private RateSnapshot persisted;
+
+        @BeforeEach
+        void setUp() {
+            persisted = rates("4.25", System.currentTimeMillis() - 60_000);
+            when(store.load()).thenReturn(Optional.of(persisted));
+            ReflectionTestUtils.invokeMethod(service, "loadPersistedRates");
+        }
+
+        @Test
+        @DisplayName("Should serve the persisted rates before the first refresh")
+        void shouldServePersistedRates() {
+            // Then
+            assertSame(persisted, service.getSnapshot());
+            assertEquals(ExchangeRateService.SNAPSHOT_SOURCE, service.getRefreshStatus().getSource());
+            verify(chain, never()).fetch();
+        }
+
+        @Test
+        @DisplayName("Should keep serving the persisted rates while no provider answers")
+        void shouldKeepPersistedRatesOnFailure() {
+            // Given
+            answer(Mono.error(new ExchangeRateException("down")));
+
+            // When
+            service.refreshIfDue();
+
+            // Then
+            assertEquals(1, fetches.get());
+            assertSame(persisted, service.getSnapshot());
+            assertEquals(ExchangeRateService.SNAPSHOT_SOURCE, service.getRefreshStatus().getSource());
+            assertEquals(1, service.getRefreshStatus().getConsecutiveFailures());
+        }
+
+        @Test
+        @DisplayName("Should replace the persisted rates once a refresh succeeds")
+        void shouldReplacePersistedRatesOnSuccess() {
+            // Given
+            answer(rates("4.30", System.currentTimeMillis()), "http", false);
+
+            // When
+            service.refreshIfDue();
+
+            // Then
+            assertEquals(new BigDecimal("4.300000"), service.getExchangeRate("EUR", "PLN"));
+            assertEquals("http", service.getRefreshStatus().getSource());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report the refresh status over HTTP")
+    void shouldServeStatus() throws Exception {
+        // Given
+        answer(rates("4.30", System.currentTimeMillis()), "http", false);
+        service.refreshRates();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ExchangeRateController(service)).build();
+
+        // When / Then
+        mockMvc.perform(get("/api/exchange-rates/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currencyCount").value(2))
+                .andExpect(jsonPath("$.stale").value(false))
+                .andExpect(jsonPath("$.consecutiveFailures").value(0))
+                .andExpect(jsonPath("$.source").value("http"))
+                .andExpect(jsonPath("$.providers.http").value("CLOSED"));
+    }
+}
@@ -0,0 +1,118 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
+import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.repository.FundraisingEventRepository;
+import org.sii.siiassignment.service.FinancialReportModel;
+import org.sii.siiassignment.service.FundraisingEventUpdated;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FinancialReportModelTest {
+
+    @Mock
+    private FundraisingEventRepository fundraisingEventRepository;
+
+    @InjectMocks
+    private FinancialReportModel financialReportModel;
+
+    private FundraisingEvent fundraisingEvent;
+
+    @BeforeEach
+    void setUp() {
+        fundraisingEvent = event(UUID.randomUUID(), "100.00", 3L);
+    }
+
+    @Test
+    @DisplayName("Should not publish a report until it has been built from the database")
+    void shouldBeEmptyUntilBuilt() {
+        // When
+        financialReportModel.onFundraisingEventUpdated(new FundraisingEventUpdated(fundraisingEvent));
+
+        // Then
+        assertTrue(financialReportModel.current().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply newer balances and ignore stale ones")
+    void shouldApplyUpdatesInVersionOrder() {
+        // Given
+        when(fundraisingEventRepository.findAll()).thenReturn(List.of(fundraisingEvent));
+        when(fundraisingEventRepository.sumAccountBalancesByCurrency())
+                .thenReturn(List.<Object[]>of(new Object[]{"EUR", new BigDecimal("100.00"), 1L}));
+        financialReportModel.rebuild();
+        long builtVersion = financialReportModel.current().orElseThrow().version();
+
+        // When
+        financialReportModel.onFundraisingEventUpdated(new FundraisingEventUpdated(event(fundraisingEvent.getId(), "150.00", 5L)));
+        financialReportModel.onFundraisingEventUpdated(new FundraisingEventUpdated(event(fundraisingEvent.getId(), "120.00", 4L)));
+
+        // Then
+        FinancialReportModel.Snapshot snapshot = financialReportModel.current().orElseThrow();
+        assertEquals(builtVersion + 1, snapshot.version());
+        assertEquals(new BigDecimal("150.00"), snapshot.entries().getFirst().getAmount());
+    }
+
+    @Test
+    @DisplayName("Should publish the changes since the last read with one new snapshot")
+    void shouldPublishChangesOnRead() {
+        // Given
+        when(fundraisingEventRepository.findAll()).thenReturn(List.of(fundraisingEvent));
+        when(fundraisingEventRepository.sumAccountBalancesByCurrency())
+                .thenReturn(List.<Object[]>of(new Object[]{"EUR", new BigDecimal("100.00"), 1L}));
+        financialReportModel.rebuild();
+        FinancialReportModel.Snapshot built = financialReportModel.current().orElseThrow();
+        UUID otherId = UUID.randomUUID();
+
+        // When
+        financialReportModel.onFundraisingEventUpdated(new FundraisingEventUpdated(event(fundraisingEvent.getId(), "150.00", 4L)));
+        financialReportModel.onFundraisingEventUpdated(new FundraisingEventUpdated(event(otherId, "20.00", 0L)));
+        FinancialReportModel.Snapshot first = financialReportModel.current().orElseThrow();
+        FinancialReportModel.Snapshot second = financialReportModel.current().orElseThrow();
+
+        // Then
+        assertEquals(built.version() + 1, first.version());
+        assertSame(first, second);
+        assertEquals(List.of(new BigDecimal("150.00"), new BigDecimal("20.00")),
+                first.entries().stream().map(FinancialReportEntry::getAmount).toList());
+        assertEquals(1, built.entries().size());
+    }
+
+    @Test
+    @DisplayName("Should reload from the database when the startup consistency check fails")
+    void shouldReloadWhenInconsistent() {
+        // Given
+        when(fundraisingEventRepository.findAll()).thenReturn(List.of(fundraisingEvent));
+        when(fundraisingEventRepository.sumAccountBalancesByCurrency())
+                .thenReturn(List.<Object[]>of(new Object[]{"EUR", new BigDecimal("90.00"), 1L}));
+
+        // When
+        financialReportModel.rebuild();
+
+        // Then
+        verify(fundraisingEventRepository, times(2)).findAll();
+    }
+
+    private FundraisingEvent event(UUID id, String balance, long version) {
+        FundraisingEvent event = new FundraisingEvent();
+        event.setId(id);
+        event.setName("Test Event");
+        event.setAccountCurrency("EUR");
+        event.setAccountBalance(new BigDecimal(balance));
+        event.setVersion(version);
+        return event;
+    }
+}
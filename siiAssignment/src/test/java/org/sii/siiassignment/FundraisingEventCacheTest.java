@@ -0,0 +1,104 @@
+package org.sii.siiassignment;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.repository.FundraisingEventRepository;
+import org.sii.siiassignment.service.CollectionBoxService;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.sii.siiassignment.service.FundraisingEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application to check that fundraising events are served from the second-level cache.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:event-cache",
+        "exchange.rate.api.key=",
+        "exchange.rate.providers=static",
+        "exchange.rate.static.rates=EUR=1,PLN=4.3",
+        "exchange.rate.snapshot.enabled=false"
+})
+class FundraisingEventCacheTest {
+
+    @Autowired
+    private FundraisingEventService fundraisingEventService;
+
+    @Autowired
+    private CollectionBoxService collectionBoxService;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private FundraisingEventRepository fundraisingEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private CacheRegionStatistics eventRegion;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        eventRegion = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics(FundraisingEvent.class.getName());
+        long deadline = System.currentTimeMillis() + 10_000;
+        // The refresh scheduled at startup may still be running, in which case this one returns right away
+        while (!exchangeRateService.refreshRates() && exchangeRateService.getRefreshStatus().getSource() == null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    @DisplayName("Should find a cached event without a cache miss")
+    void shouldFindCachedEvent() {
+        // Given
+        UUID eventId = fundraisingEventService.createFundraisingEvent(
+                new CreateFundraisingEventRequest("Cached Event", "PLN")).getId();
+        long hits = eventRegion.getHitCount();
+        long misses = eventRegion.getMissCount();
+
+        // When
+        FundraisingEvent event = fundraisingEventRepository.findById(eventId).orElseThrow();
+
+        // Then
+        assertEquals("Cached Event", event.getName());
+        assertEquals(hits + 1, eventRegion.getHitCount());
+        assertEquals(misses, eventRegion.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Should serve the updated balance from the cache after the transfer commits")
+    void shouldSeeBalanceAfterCommit() {
+        // Given
+        UUID eventId = fundraisingEventService.createFundraisingEvent(
+                new CreateFundraisingEventRequest("Updated Event", "PLN")).getId();
+        UUID boxId = collectionBoxService.registerCollectionBox().getId();
+        collectionBoxService.assignCollectionBoxToEvent(boxId, eventId);
+        collectionBoxService.depositMoneyToCollectionBox(boxId, new DepositMoneyRequest("EUR", new BigDecimal("10.00")));
+        fundraisingEventService.emptyAllCollectionBoxes(eventId);
+        long hits = eventRegion.getHitCount();
+        long misses = eventRegion.getMissCount();
+
+        // When
+        FundraisingEvent event = fundraisingEventRepository.findById(eventId).orElseThrow();
+
+        // Then
+        assertEquals(new BigDecimal("43.00"), event.getAccountBalance());
+        assertEquals(hits + 1, eventRegion.getHitCount());
+        assertEquals(misses, eventRegion.getMissCount());
+    }
+}
@@ -9,15 +9,28 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.sii.siiassignment.DTO.FundraisingEvent.ConsolidatedReportResponse;
 import org.sii.siiassignment.DTO.FundraisingEvent.CreateFundraisingEventRequest;
+import org.sii.siiassignment.DTO.FundraisingEvent.EmptyEventBoxesResponse;
 import org.sii.siiassignment.DTO.FundraisingEvent.FinancialReportEntry;
 import org.sii.siiassignment.DTO.FundraisingEvent.FundraisingEventResponse;
 import org.sii.siiassignment.exception.InvalidCurrencyException;
 import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.journal.BoxOperation;
+import org.sii.siiassignment.journal.BoxOperations;
 import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.rates.CurrencyRegistry;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxAmountJdbcRepository.AmountChange;
 import org.sii.siiassignment.repository.FundraisingEventRepository;
+import org.sii.siiassignment.service.BalanceLedger;
 import org.sii.siiassignment.service.ExchangeRateService;
+import org.sii.siiassignment.service.FinancialReportModel;
 import org.sii.siiassignment.service.FundraisingEventServiceImpl;
+import org.sii.siiassignment.service.FundraisingEventUpdated;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -35,9 +48,24 @@ class FundraisingEventServiceImplTest {
     @Mock
     private ExchangeRateService exchangeRateService;
 
+    @Mock
+    private CollectionBoxAmountJdbcRepository collectionBoxAmountJdbcRepository;
+
+    @Mock
+    private FinancialReportModel financialReportModel;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BalanceLedger balanceLedger;
+
     @InjectMocks
     private FundraisingEventServiceImpl fundraisingEventService;
 
+    private static final int EUR = CurrencyCodes.pack("EUR");
+    private static final int PLN = CurrencyCodes.pack("PLN");
+
     private UUID eventId;
     private FundraisingEvent fundraisingEvent;
     private CreateFundraisingEventRequest createRequest;
@@ -61,14 +89,15 @@ class FundraisingEventServiceImplTest {
     @DisplayName("Create Fundraising Event Tests")
     class CreateFundraisingEventTests {
 
+        @BeforeEach
+        void setUp() {
+            lenient().when(exchangeRateService.getCurrencyRegistry()).thenReturn(CurrencyRegistry.of(List.of("EUR", "PLN")));
+        }
 
         @Test
         @DisplayName("Should successfully create fundraising event with valid data")
         void shouldCreateFundraisingEventWithValidData() {
             // Given
-            Map<String, BigDecimal> ratesCache = new HashMap<>();
-            ratesCache.put("EUR", BigDecimal.ONE);
-            when(exchangeRateService.getRatesCache()).thenReturn(ratesCache);
             when(fundraisingEventRepository.save(any(FundraisingEvent.class)))
                     .thenReturn(fundraisingEvent);
 
@@ -210,6 +239,52 @@ class FundraisingEventServiceImplTest {
             assertEquals("USD", entry2.getCurrency());
         }
 
+        @Test
+        @DisplayName("Should serve the report from the in-memory model without querying the database")
+        void shouldServeReportFromModel() {
+            // Given
+            List<FinancialReportEntry> entries = List.of(new FinancialReportEntry("Event 1", BigDecimal.TEN, "EUR"));
+            when(financialReportModel.current()).thenReturn(Optional.of(new FinancialReportModel.Snapshot(1, entries)));
+
+            // When
+            List<FinancialReportEntry> report = fundraisingEventService.getFinancialReport();
+
+            // Then
+            assertSame(entries, report);
+            verify(fundraisingEventRepository, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("Should convert every balance into the report currency and sum them")
+        void shouldConsolidateReportInOneCurrency() {
+            // Given
+            List<FinancialReportEntry> entries = List.of(
+                    new FinancialReportEntry("Event 1", new BigDecimal("10.00"), "EUR"),
+                    new FinancialReportEntry("Event 2", new BigDecimal("43.00"), "PLN"));
+            when(financialReportModel.current()).thenReturn(Optional.of(new FinancialReportModel.Snapshot(1, entries)));
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(
+                    Map.of("EUR", BigDecimal.ONE, "PLN", new BigDecimal("4.30")), 1L));
+
+            // When
+            ConsolidatedReportResponse report = fundraisingEventService.getConsolidatedReport("EUR");
+
+            // Then
+            assertEquals(new BigDecimal("10.00"), report.getEntries().get(0).getConvertedAmount());
+            assertEquals(new BigDecimal("10.00"), report.getEntries().get(1).getConvertedAmount());
+            assertEquals(new BigDecimal("20.00"), report.getTotal());
+            verify(exchangeRateService, never()).getExchangeRate(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should reject an unsupported report currency")
+        void shouldRejectUnsupportedReportCurrency() {
+            // Given
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(Map.of("EUR", BigDecimal.ONE), 1L));
+
+            // When & Then
+            assertThrows(InvalidCurrencyException.class, () -> fundraisingEventService.getConsolidatedReport("XYZ"));
+        }
+
         @Test
         @DisplayName("Should handle events with zero balance in report")
         void shouldHandleZeroBalanceInReport() {
@@ -227,4 +302,92 @@ class FundraisingEventServiceImplTest {
             assertEquals(BigDecimal.ZERO, entry.getAmount());
         }
     }
+
+    @Nested
+    @DisplayName("Empty All Collection Boxes Tests")
+    class EmptyAllCollectionBoxesTests {
+
+        @Test
+        @DisplayName("Should convert each collected currency once and credit the event once")
+        void shouldCreditEventWithConvertedTotals() {
+            // Given
+            fundraisingEvent.setAccountBalance(new BigDecimal("5.00"));
+            when(fundraisingEventRepository.findById(eventId)).thenReturn(Optional.of(fundraisingEvent));
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(
+                    Map.of("EUR", BigDecimal.ONE, "PLN", new BigDecimal("4.00")), 1L));
+            UUID firstBoxId = UUID.randomUUID();
+            UUID secondBoxId = UUID.randomUUID();
+            when(collectionBoxAmountJdbcRepository.withdrawAllForEvent(eventId)).thenReturn(List.of(
+                    new AmountChange(firstBoxId, EUR, 400),
+                    new AmountChange(secondBoxId, EUR, 600),
+                    new AmountChange(firstBoxId, PLN, 4000)));
+            Map<String, BigDecimal> collected = new LinkedHashMap<>();
+            collected.put("EUR", new BigDecimal("10.00"));
+            collected.put("PLN", new BigDecimal("40.00"));
+
+            // When
+            EmptyEventBoxesResponse response = fundraisingEventService.emptyAllCollectionBoxes(eventId);
+
+            // Then
+            assertEquals(new BigDecimal("20.00"), response.getCreditedAmount());
+            assertEquals(new BigDecimal("25.00"), response.getAccountBalance());
+            assertEquals(collected, response.getCollectedAmounts());
+            verify(fundraisingEventRepository, times(1)).save(fundraisingEvent);
+            verify(eventPublisher).publishEvent(new FundraisingEventUpdated(fundraisingEvent));
+            verify(eventPublisher).publishEvent(new BoxOperations(List.of(
+                    BoxOperation.withdraw(firstBoxId, eventId, "EUR", new BigDecimal("4.00")),
+                    BoxOperation.withdraw(secondBoxId, eventId, "EUR", new BigDecimal("6.00")),
+                    BoxOperation.withdraw(firstBoxId, eventId, "PLN", new BigDecimal("40.00")))));
+        }
+
+        @Test
+        @DisplayName("Should leave the event untouched when its boxes are empty")
+        void shouldNotSaveEventWhenNothingCollected() {
+            // Given
+            when(fundraisingEventRepository.findById(eventId)).thenReturn(Optional.of(fundraisingEvent));
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(Map.of("EUR", BigDecimal.ONE), 1L));
+            when(collectionBoxAmountJdbcRepository.withdrawAllForEvent(eventId)).thenReturn(List.of());
+
+            // When
+            EmptyEventBoxesResponse response = fundraisingEventService.emptyAllCollectionBoxes(eventId);
+
+            // Then
+            assertEquals(BigDecimal.ZERO, response.getCreditedAmount());
+            verify(fundraisingEventRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should flush and invalidate only the event's boxes in the balance ledger")
+        void shouldFlushOnlyEventBoxes() {
+            // Given
+            when(fundraisingEventRepository.findById(eventId)).thenReturn(Optional.of(fundraisingEvent));
+            when(exchangeRateService.getSnapshot()).thenReturn(RateSnapshot.of(Map.of("EUR", BigDecimal.ONE), 1L));
+            when(balanceLedger.isEnabled()).thenReturn(true);
+            UUID boxId = UUID.randomUUID();
+            UUID assignedMeanwhileId = UUID.randomUUID();
+            when(collectionBoxAmountJdbcRepository.findBoxIdsByEvent(eventId)).thenReturn(List.of(boxId));
+            when(collectionBoxAmountJdbcRepository.withdrawAllForEvent(eventId)).thenReturn(List.of(
+                    new AmountChange(assignedMeanwhileId, EUR, 100)));
+
+            // When
+            fundraisingEventService.emptyAllCollectionBoxes(eventId);
+
+            // Then
+            verify(balanceLedger).flush(List.of(boxId));
+            verify(balanceLedger).invalidateAfterCommit(Set.of(boxId, assignedMeanwhileId));
+            verify(balanceLedger, never()).flushAll();
+        }
+
+        @Test
+        @DisplayName("Should throw not found for non-existent event")
+        void shouldThrowNotFoundForMissingEvent() {
+            // Given
+            when(fundraisingEventRepository.findById(eventId)).thenReturn(Optional.empty());
+
+            // When & Then
+            assertThrows(ResourceNotFoundException.class,
+                    () -> fundraisingEventService.emptyAllCollectionBoxes(eventId));
+            verify(collectionBoxAmountJdbcRepository, never()).withdrawAllForEvent(any());
+        }
+    }
 }
\ No newline at end of file
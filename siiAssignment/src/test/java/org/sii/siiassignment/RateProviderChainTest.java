@@ -0,0 +1,378 @@
+package org.sii.siiassignment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sii.siiassignment.exception.ExchangeRateException;
+import org.sii.siiassignment.rates.CircuitBreaker;
+import org.sii.siiassignment.rates.FileRateProvider;
+import org.sii.siiassignment.rates.RateProvider;
+import org.sii.siiassignment.rates.RateProviderChain;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.rates.RateSourceChanged;
+import org.sii.siiassignment.rates.StaticRateProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class RateProviderChainTest {
+
+    private static final RateSnapshot RATES = RateSnapshot.of(Map.of("EUR", BigDecimal.ONE, "PLN", new BigDecimal("4.30")), 1000L);
+
+    /** Provider answering every fetch with {@code response}, counting the fetches. */
+    private static final class FakeProvider implements RateProvider {
+
+        private final String name;
+        private final AtomicInteger fetches = new AtomicInteger();
+        private Mono<RateSnapshot> response;
+
+        FakeProvider(String name, Mono<RateSnapshot> response) {
+            this.name = name;
+            this.response = response;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Duration timeout() {
+            return Duration.ofMillis(50);
+        }
+
+        @Override
+        public Mono<RateSnapshot> fetch() {
+            return Mono.defer(() -> {
+                fetches.incrementAndGet();
+                return response;
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("Provider Chain Tests")
+    class ProviderChainTests {
+
+        private FakeProvider http;
+        private StaticRateProvider fixed;
+
+        @BeforeEach
+        void setUp() {
+            http = new FakeProvider("http", Mono.just(RATES));
+            fixed = new StaticRateProvider("EUR=1,USD=1.08");
+        }
+
+        private RateProviderChain chain(RateProvider... providers) {
+            List<String> order = Arrays.stream(providers).map(RateProvider::name).toList();
+            return new RateProviderChain(List.of(providers), new SimpleMeterRegistry(), order, 2, 60_000);
+        }
+
+        @Test
+        @DisplayName("Should serve the rates of the first provider")
+        void shouldServeFirstProvider() {
+            // Given
+            RateProviderChain chain = chain(http, fixed);
+
+            // When
+            RateProviderChain.Result result = chain.fetch().block();
+
+            // Then
+            assertNotNull(result);
+            assertSame(RATES, result.snapshot());
+            assertEquals("http", result.provider());
+            assertFalse(result.fallback());
+        }
+
+        @Test
+        @DisplayName("Should fall back to the next provider when one fails")
+        void shouldFallBackOnFailure() {
+            // Given
+            http.response = Mono.error(new ExchangeRateException("503"));
+            RateProviderChain chain = chain(http, fixed);
+
+            // When
+            RateProviderChain.Result result = chain.fetch().block();
+
+            // Then
+            assertNotNull(result);
+            assertEquals("static", result.provider());
+            assertTrue(result.fallback());
+            assertTrue(result.snapshot().contains("USD"));
+        }
+
+        @Test
+        @DisplayName("Should give up on a provider after its timeout")
+        void shouldFallBackOnTimeout() {
+            // Given
+            http.response = Mono.never();
+            RateProviderChain chain = chain(http, fixed);
+
+            // When
+            long start = System.nanoTime();
+            RateProviderChain.Result result = chain.fetch().block(Duration.ofSeconds(5));
+
+            // Then
+            assertNotNull(result);
+            assertEquals("static", result.provider());
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        }
+
+        @Test
+        @DisplayName("Should stop calling a provider once its circuit is open")
+        void shouldSkipProviderWithOpenCircuit() {
+            // Given
+            http.response = Mono.never();
+            RateProviderChain chain = chain(http, fixed);
+            chain.fetch().block();
+            chain.fetch().block();
+
+            // When
+            RateProviderChain.Result result = chain.fetch().block();
+
+            // Then
+            assertNotNull(result);
+            assertEquals("static", result.provider());
+            assertEquals(2, http.fetches.get());
+            assertEquals(CircuitBreaker.State.OPEN, chain.getCircuitStates().get("http"));
+        }
+
+        @Test
+        @DisplayName("Should report every provider's error when none has rates")
+        void shouldFailWhenNoProviderHasRates() {
+            // Given
+            http.response = Mono.error(new ExchangeRateException("503"));
+            FakeProvider file = new FakeProvider("file", Mono.empty());
+            RateProviderChain chain = chain(http, file);
+
+            // When
+            ExchangeRateException exception = assertThrows(ExchangeRateException.class, () -> chain.fetch().block());
+
+            // Then
+            assertTrue(exception.getMessage().contains("http: 503"));
+            assertTrue(exception.getMessage().contains("file: no rates"));
+        }
+
+        @Test
+        @DisplayName("Should leave out providers that are not configured")
+        void shouldLeaveOutDisabledProviders() {
+            // Given
+            StaticRateProvider unconfigured = new StaticRateProvider("");
+
+            // When
+            RateProviderChain chain = chain(http, unconfigured);
+
+            // Then
+            assertEquals(List.of("http"), List.copyOf(chain.getCircuitStates().keySet()));
+        }
+
+        @Test
+        @DisplayName("Should reject unknown provider names")
+        void shouldRejectUnknownProviders() {
+            assertThrows(IllegalStateException.class, () ->
+                    new RateProviderChain(List.of(http), new SimpleMeterRegistry(), List.of("http", "ftp"), 2, 60_000));
+        }
+    }
+
+    @Nested
+    @DisplayName("File Provider Tests")
+    class FileProviderTests {
+
+        @TempDir
+        private Path directory;
+        private ApplicationEventPublisher eventPublisher;
+        private FileRateProvider provider;
+
+        private FileRateProvider start(Path file) {
+            provider = new FileRateProvider(new ObjectMapper(), eventPublisher);
+            ReflectionTestUtils.setField(provider, "path", file.toString());
+            ReflectionTestUtils.invokeMethod(provider, "start");
+            return provider;
+        }
+
+        @BeforeEach
+        void setUp() {
+            eventPublisher = mock(ApplicationEventPublisher.class);
+        }
+
+        @AfterEach
+        void tearDown() {
+            if (provider != null) {
+                ReflectionTestUtils.invokeMethod(provider, "stop");
+            }
+        }
+
+        @Test
+        @DisplayName("Should read an ExchangeRate-API response")
+        void shouldReadJson() throws IOException {
+            // Given
+            Path file = Files.writeString(directory.resolve("rates.json"),
+                    "{\"result\":\"success\",\"conversion_rates\":{\"EUR\":1,\"PLN\":4.3}}");
+
+            // When
+            RateSnapshot rates = start(file).fetch().block();
+
+            // Then
+            assertNotNull(rates);
+            assertEquals(new BigDecimal("4.300000"), rates.rate(rates.idOf("EUR"), rates.idOf("PLN")));
+            assertEquals(Files.getLastModifiedTime(file).toMillis(), rates.getFetchedAt());
+        }
+
+        @Test
+        @DisplayName("Should read a CSV file with a header and comments")
+        void shouldReadCsv() throws IOException {
+            // Given
+            Path file = Files.writeString(directory.resolve("rates.csv"), "# rates against EUR\ncurrency,rate\nEUR,1\nUSD,1.08\n");
+
+            // When
+            RateSnapshot rates = start(file).fetch().block();
+
+            // Then
+            assertNotNull(rates);
+            assertEquals(2, rates.size());
+            assertTrue(rates.contains("USD"));
+        }
+
+        @Test
+        @DisplayName("Should fail fetches until the file exists")
+        void shouldFailWithoutFile() {
+            // When
+            FileRateProvider started = start(directory.resolve("missing.json"));
+
+            // Then
+            assertThrows(ExchangeRateException.class, () -> started.fetch().block());
+        }
+
+        @Test
+        @DisplayName("Should reload the file when it changes and keep the last rates if it is invalid")
+        void shouldReloadChangedFile() throws IOException {
+            // Given
+            Path file = Files.writeString(directory.resolve("rates.csv"), "EUR,1\n");
+            start(file);
+
+            // When
+            Files.writeString(file, "EUR,1\nGBP,0.85\n");
+
+            // Then
+            verify(eventPublisher, timeout(10_000)).publishEvent(new RateSourceChanged(FileRateProvider.NAME));
+            assertTrue(provider.fetch().block().contains("GBP"));
+
+            // When
+            Files.writeString(file, "EUR;1\n");
+
+            // Then
+            assertTrue(provider.fetch().block().contains("GBP"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Circuit Breaker Tests")
+    class CircuitBreakerTests {
+
+        private AtomicLong now;
+        private CircuitBreaker breaker;
+
+        @BeforeEach
+        void setUp() {
+            now = new AtomicLong();
+            breaker = new CircuitBreaker(2, 1000, now::get);
+        }
+
+        @Test
+        @DisplayName("Should open after consecutive failures only")
+        void shouldOpenAfterConsecutiveFailures() {
+            // Given
+            breaker.onFailure();
+            breaker.onSuccess();
+            breaker.onFailure();
+            assertTrue(breaker.tryAcquire());
+
+            // When
+            breaker.onFailure();
+
+            // Then
+            assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+            assertFalse(breaker.tryAcquire());
+        }
+
+        @Test
+        @DisplayName("Should let one trial call through after the open period")
+        void shouldAllowTrialAfterOpenPeriod() {
+            // Given
+            breaker.onFailure();
+            breaker.onFailure();
+            now.addAndGet(1000);
+
+            // When
+            boolean trial = breaker.tryAcquire();
+
+            // Then
+            assertTrue(trial);
+            assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+            assertFalse(breaker.tryAcquire());
+        }
+
+        @Test
+        @DisplayName("Should close after a successful trial and reopen after a failed one")
+        void shouldCloseOrReopenAfterTrial() {
+            // Given
+            breaker.onFailure();
+            breaker.onFailure();
+            now.addAndGet(1000);
+            breaker.tryAcquire();
+
+            // When
+            breaker.onFailure();
+
+            // Then
+            assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+            assertFalse(breaker.tryAcquire());
+
+            // When
+            now.addAndGet(1000);
+            breaker.tryAcquire();
+            breaker.onSuccess();
+
+            // Then
+            assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+            assertTrue(breaker.tryAcquire());
+        }
+
+        @Test
+        @DisplayName("Should let the next call through when a trial is cancelled")
+        void shouldReleaseCancelledTrial() {
+            // Given
+            breaker.onFailure();
+            breaker.onFailure();
+            now.addAndGet(1000);
+            breaker.tryAcquire();
+
+            // When
+            breaker.onCancel();
+
+            // Then
+            assertTrue(breaker.tryAcquire());
+        }
+    }
+}
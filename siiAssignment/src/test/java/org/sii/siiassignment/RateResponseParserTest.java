@@ -0,0 +1,121 @@
+package org.sii.siiassignment;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sii.siiassignment.exception.ExchangeRateException;
+import org.sii.siiassignment.rates.RateResponseParser;
+import org.sii.siiassignment.rates.RateSnapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateResponseParserTest {
+
+    private static final String RESPONSE = """
+            {
+              "result": "success",
+              "documentation": "https://www.exchangerate-api.com/docs",
+              "time_last_update_unix": 1760659201,
+              "meta": {"nested": {"conversion_rates": {"XXX": 1}}, "list": [1, 2, {"a": "b"}]},
+              "base_code": "EUR",
+              "conversion_rates": {
+                "EUR": 1,
+                "PLN": 4.2735,
+                "JPY": 162.50,
+                "KWD": 0.3571,
+                "BTC": 0.0000158,
+                "XAU": 4.2e-4,
+                "VES": 1.5E+2,
+                "DOGE": 7.1,
+                "eur": 2,
+                "ZZZ": "n/a"
+              }
+            }
+            """;
+
+    private static RateSnapshot parse(String json) throws IOException {
+        return RateResponseParser.parse(json.getBytes(StandardCharsets.UTF_8), 1000L);
+    }
+
+    @Test
+    @DisplayName("Should read every valid rate and skip the other fields")
+    void shouldReadRates() throws IOException {
+        // When
+        RateSnapshot snapshot = parse(RESPONSE);
+
+        // Then
+        assertEquals(7, snapshot.size());
+        assertEquals(1000L, snapshot.getFetchedAt());
+        assertEquals(new BigDecimal("4.2735"), snapshot.getBaseRates().get("PLN"));
+        assertEquals(new BigDecimal("162.50"), snapshot.getBaseRates().get("JPY"));
+        assertEquals(new BigDecimal("0.0000158"), snapshot.getBaseRates().get("BTC"));
+        assertEquals(0, new BigDecimal("0.00042").compareTo(snapshot.getBaseRates().get("XAU")));
+        assertEquals(0, new BigDecimal("150").compareTo(snapshot.getBaseRates().get("VES")));
+        assertFalse(snapshot.contains("XXX"));
+        assertFalse(snapshot.contains("ZZZ"));
+        assertEquals("EUR", snapshot.currencyOf(0));
+    }
+
+    @Test
+    @DisplayName("Should build the same snapshot as binding the response to a map")
+    void shouldMatchMapBinding() throws IOException {
+        // Given
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode rates = (ObjectNode) objectMapper.readTree(RESPONSE).get("conversion_rates");
+        rates.remove("ZZZ");
+        Map<String, BigDecimal> bound = objectMapper.convertValue(rates, new TypeReference<>() {
+        });
+        RateSnapshot expected = RateSnapshot.of(bound, 1000L);
+
+        // When
+        RateSnapshot snapshot = RateResponseParser.parse(
+                new ByteArrayInputStream(RESPONSE.getBytes(StandardCharsets.UTF_8)), 1000L);
+
+        // Then
+        assertEquals(expected.size(), snapshot.size());
+        for (int from = 0; from < expected.size(); from++) {
+            assertEquals(expected.currencyOf(from), snapshot.currencyOf(from));
+            for (int to = 0; to < expected.size(); to++) {
+                assertEquals(expected.rate(from, to), snapshot.rate(from, to));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep rates with more digits than a long holds")
+    void shouldReadLongRates() throws IOException {
+        // When
+        RateSnapshot snapshot = parse("{\"conversion_rates\":{\"EUR\":1,\"IRR\":48123.12345678901234567}}");
+
+        // Then
+        assertEquals(new BigDecimal("48123.12345678901234567"), snapshot.getBaseRates().get("IRR"));
+    }
+
+    @Test
+    @DisplayName("Should keep the first rate of a repeated currency")
+    void shouldIgnoreRepeatedCurrencies() throws IOException {
+        // When
+        RateSnapshot snapshot = parse("{\"conversion_rates\":{\"EUR\":1,\"PLN\":4.27,\"PLN\":5}}");
+
+        // Then
+        assertEquals(2, snapshot.size());
+        assertEquals(new BigDecimal("4.27"), snapshot.getBaseRates().get("PLN"));
+    }
+
+    @Test
+    @DisplayName("Should fail when the response holds no rates")
+    void shouldFailWithoutRates() {
+        assertThrows(ExchangeRateException.class, () -> parse("{\"result\":\"error\",\"error-type\":\"invalid-key\"}"));
+        assertThrows(ExchangeRateException.class, () -> parse("{\"conversion_rates\":{\"EUR\":0}}"));
+        assertThrows(ExchangeRateException.class, () -> parse("[]"));
+        assertThrows(IOException.class, () -> parse("{\"conversion_rates\":{\"EUR\":"));
+    }
+}
@@ -0,0 +1,133 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.rates.RateSnapshotStore;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateSnapshotStoreTest {
+
+    @TempDir
+    private Path directory;
+    private Path file;
+    private RateSnapshotStore store;
+    private RateSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("rates.snapshot");
+        store = new RateSnapshotStore();
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "path", file);
+        ReflectionTestUtils.setField(store, "maxAgeMillis", 60_000L);
+
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        rates.put("EUR", BigDecimal.ONE);
+        rates.put("PLN", new BigDecimal("4.2735"));
+        rates.put("JPY", new BigDecimal("162.50"));
+        rates.put("BTC", new BigDecimal("0.00001581234567890123456789"));
+        snapshot = RateSnapshot.of(rates, System.currentTimeMillis() - 1000);
+    }
+
+    @Test
+    @DisplayName("Should load the rates it saved")
+    void shouldRoundTripRates() {
+        // Given
+        store.save(snapshot);
+
+        // When
+        Optional<RateSnapshot> loaded = store.load();
+
+        // Then
+        assertTrue(loaded.isPresent());
+        assertEquals(snapshot.getFetchedAt(), loaded.get().getFetchedAt());
+        assertEquals(snapshot.size(), loaded.get().size());
+        assertEquals(0, new BigDecimal("4.2735").compareTo(loaded.get().getBaseRates().get("PLN")));
+        assertEquals(0, new BigDecimal("162.5").compareTo(loaded.get().getBaseRates().get("JPY")));
+        assertEquals(snapshot.rate(snapshot.idOf("PLN"), snapshot.idOf("JPY")),
+                loaded.get().rate(loaded.get().idOf("PLN"), loaded.get().idOf("JPY")));
+    }
+
+    @Test
+    @DisplayName("Should keep 18 significant digits of rates that do not fit in a long")
+    void shouldRoundLongRates() {
+        // Given
+        store.save(snapshot);
+
+        // When
+        BigDecimal loaded = store.load().orElseThrow().getBaseRates().get("BTC");
+
+        // Then
+        assertEquals(new BigDecimal("0.00001581234567890123456789").round(new MathContext(18)), loaded);
+    }
+
+    @Test
+    @DisplayName("Should reject a file with a wrong checksum")
+    void shouldRejectCorruptFile() throws IOException {
+        // Given
+        store.save(snapshot);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[30] ^= 1;
+        Files.write(file, bytes);
+
+        // When
+        Optional<RateSnapshot> loaded = store.load();
+
+        // Then
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated file")
+    void shouldRejectTruncatedFile() throws IOException {
+        // Given
+        store.save(snapshot);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        // When
+        Optional<RateSnapshot> loaded = store.load();
+
+        // Then
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should ignore rates older than the maximum age")
+    void shouldIgnoreOldRates() {
+        // Given
+        store.save(RateSnapshot.of(snapshot.getBaseRates(), System.currentTimeMillis() - 120_000));
+
+        // When
+        Optional<RateSnapshot> loaded = store.load();
+
+        // Then
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should load nothing when no file exists or the store is disabled")
+    void shouldLoadNothingWithoutFile() {
+        assertTrue(store.load().isEmpty());
+
+        ReflectionTestUtils.setField(store, "enabled", false);
+        store.save(snapshot);
+        assertFalse(Files.exists(file));
+        assertTrue(store.load().isEmpty());
+    }
+}
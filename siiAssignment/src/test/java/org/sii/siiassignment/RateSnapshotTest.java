@@ -0,0 +1,85 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sii.siiassignment.money.CurrencyCodes;
+import org.sii.siiassignment.rates.CurrencyRegistry;
+import org.sii.siiassignment.rates.RateSnapshot;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateSnapshotTest {
+
+    private RateSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        rates.put("EUR", BigDecimal.ONE);
+        rates.put("PLN", new BigDecimal("4.30"));
+        rates.put("USD", new BigDecimal("1.08"));
+        snapshot = RateSnapshot.of(rates, 1000L);
+    }
+
+    @Test
+    @DisplayName("Should precompute cross rates between every pair of currencies")
+    void shouldPrecomputeCrossRates() {
+        int eur = snapshot.idOf("EUR");
+        int pln = snapshot.idOf("PLN");
+        int usd = snapshot.idOf("USD");
+
+        assertEquals(new BigDecimal("4.300000"), snapshot.rate(eur, pln));
+        assertEquals(new BigDecimal("0.232558"), snapshot.rate(pln, eur));
+        assertEquals(new BigDecimal("0.251163"), snapshot.rate(pln, usd));
+        assertEquals(BigDecimal.ONE, snapshot.rate(usd, usd));
+    }
+
+    @Test
+    @DisplayName("Should map currencies to dense ids")
+    void shouldMapCurrenciesToDenseIds() {
+        assertEquals(3, snapshot.size());
+        for (int id = 0; id < snapshot.size(); id++) {
+            assertEquals(id, snapshot.idOf(snapshot.currencyOf(id)));
+        }
+        assertEquals(-1, snapshot.idOf("GBP"));
+        assertEquals(-1, snapshot.idOf(null));
+        assertFalse(snapshot.contains("GBP"));
+    }
+
+    @Test
+    @DisplayName("Should ignore missing and non-positive rates")
+    void shouldIgnoreInvalidRates() {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        rates.put("EUR", BigDecimal.ONE);
+        rates.put("XXX", BigDecimal.ZERO);
+        rates.put("YYY", null);
+        rates.put("usd", BigDecimal.TEN);
+
+        RateSnapshot filtered = RateSnapshot.of(rates, 1000L);
+
+        assertEquals(1, filtered.size());
+        assertFalse(filtered.contains("XXX"));
+        assertFalse(filtered.contains("YYY"));
+        assertFalse(filtered.contains("usd"));
+    }
+
+    @Test
+    @DisplayName("Should validate currency codes against the registry of the snapshot")
+    void shouldValidateCurrencyCodes() {
+        CurrencyRegistry currencies = snapshot.getCurrencies();
+
+        assertEquals(CurrencyCodes.pack("PLN"), currencies.codeOf("PLN"));
+        assertEquals(CurrencyCodes.INVALID, currencies.codeOf("GBP"));
+        assertFalse(currencies.contains("pln"));
+        assertFalse(currencies.contains("PLNX"));
+        assertFalse(currencies.contains(null));
+        assertFalse(CurrencyRegistry.EMPTY.contains("EUR"));
+        assertThrows(IllegalArgumentException.class, () -> CurrencyRegistry.of(List.of("EUR", "EUR")));
+    }
+}
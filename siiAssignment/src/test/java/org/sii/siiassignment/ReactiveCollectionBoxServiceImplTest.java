@@ -0,0 +1,195 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sii.siiassignment.DTO.CollectionBox.CollectionBoxResponse;
+import org.sii.siiassignment.DTO.CollectionBox.DepositMoneyRequest;
+import org.sii.siiassignment.exception.InvalidCurrencyException;
+import org.sii.siiassignment.exception.ResourceNotFoundException;
+import org.sii.siiassignment.journal.BoxOperations;
+import org.sii.siiassignment.model.FundraisingEvent;
+import org.sii.siiassignment.money.BoxAmounts;
+import org.sii.siiassignment.rates.RateSnapshot;
+import org.sii.siiassignment.repository.CollectionBoxR2dbcRepository;
+import org.sii.siiassignment.repository.CollectionBoxR2dbcRepository.BoxForEmptying;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.sii.siiassignment.service.FundraisingEventUpdated;
+import org.sii.siiassignment.service.ReactiveCollectionBoxServiceImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCollectionBoxServiceImplTest {
+
+    @Mock
+    private CollectionBoxR2dbcRepository collectionBoxR2dbcRepository;
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ReactiveCollectionBoxServiceImpl reactiveCollectionBoxService;
+
+    private UUID boxId;
+    private UUID eventId;
+
+    @BeforeEach
+    void setUp() {
+        boxId = UUID.randomUUID();
+        eventId = UUID.randomUUID();
+        ReflectionTestUtils.setField(reactiveCollectionBoxService, "maxAttempts", 3);
+        when(exchangeRateService.rates()).thenReturn(Mono.just(RateSnapshot.of(
+                Map.of("EUR", BigDecimal.ONE, "PLN", new BigDecimal("4.00")), 1L)));
+    }
+
+    private void runTransactionsInline() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Nested
+    @DisplayName("Deposit Money Tests")
+    class DepositMoneyTests {
+
+        @Test
+        @DisplayName("Should upsert the amount and publish the deposit after the transaction")
+        void shouldDepositMoney() {
+            // Given
+            runTransactionsInline();
+            CollectionBoxResponse after = new CollectionBoxResponse(boxId, null,
+                    new HashMap<>(Map.of("EUR", new BigDecimal("10.00"))), false, false);
+            when(collectionBoxR2dbcRepository.depositAmount(boxId, "EUR", 1000)).thenReturn(Mono.just(1L));
+            when(collectionBoxR2dbcRepository.findBox(boxId)).thenReturn(Mono.just(after));
+
+            // When
+            CollectionBoxResponse response = reactiveCollectionBoxService
+                    .depositMoneyToCollectionBox(boxId, new DepositMoneyRequest("EUR", BigDecimal.TEN))
+                    .block();
+
+            // Then
+            assertSame(after, response);
+            verify(eventPublisher).publishEvent(any(BoxOperations.class));
+        }
+
+        @Test
+        @DisplayName("Should reject an unsupported currency without touching the database")
+        void shouldRejectUnsupportedCurrency() {
+            // When & Then
+            Mono<CollectionBoxResponse> deposit = reactiveCollectionBoxService
+                    .depositMoneyToCollectionBox(boxId, new DepositMoneyRequest("XYZ", BigDecimal.TEN));
+            assertThrows(InvalidCurrencyException.class, deposit::block);
+            verify(collectionBoxR2dbcRepository, never()).depositAmount(any(), anyString(), anyLong());
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        @DisplayName("Should report a missing box as not found")
+        void shouldRejectMissingBox() {
+            // Given
+            runTransactionsInline();
+            when(collectionBoxR2dbcRepository.depositAmount(boxId, "EUR", 1000)).thenReturn(Mono.just(1L));
+            when(collectionBoxR2dbcRepository.findBox(boxId)).thenReturn(Mono.empty());
+
+            // When & Then
+            Mono<CollectionBoxResponse> deposit = reactiveCollectionBoxService
+                    .depositMoneyToCollectionBox(boxId, new DepositMoneyRequest("EUR", BigDecimal.TEN));
+            assertThrows(ResourceNotFoundException.class, deposit::block);
+            verifyNoInteractions(eventPublisher);
+        }
+    }
+
+    @Nested
+    @DisplayName("Empty Collection Box Tests")
+    class EmptyCollectionBoxTests {
+
+        @Test
+        @DisplayName("Should convert the balances into the event's currency and credit the event")
+        void shouldEmptyBox() {
+            // Given
+            runTransactionsInline();
+            FundraisingEvent event = new FundraisingEvent(eventId, "Charity", "PLN", new BigDecimal("100.00"), 0L);
+            when(collectionBoxR2dbcRepository.findBoxForEmptying(boxId)).thenReturn(Mono.just(new BoxForEmptying(
+                    boxId, 0L, event, BoxAmounts.of(Map.of("EUR", new BigDecimal("10.00"))))));
+            when(collectionBoxR2dbcRepository.incrementBoxVersion(boxId, 0L)).thenReturn(Mono.just(true));
+            when(collectionBoxR2dbcRepository.creditEvent(eq(eventId), eq(0L), any())).thenReturn(Mono.just(true));
+            when(collectionBoxR2dbcRepository.withdrawAmount(boxId, "EUR", 1000)).thenReturn(Mono.just(true));
+            when(collectionBoxR2dbcRepository.deleteEmptyAmounts(boxId)).thenReturn(Mono.just(1L));
+            when(collectionBoxR2dbcRepository.findBox(boxId))
+                    .thenReturn(Mono.just(new CollectionBoxResponse(boxId, eventId, new HashMap<>(), true, true)));
+
+            // When
+            CollectionBoxResponse response = reactiveCollectionBoxService.emptyCollectionBox(boxId).block();
+
+            // Then
+            assertTrue(response.isEmpty());
+            verify(collectionBoxR2dbcRepository).creditEvent(eventId, 0L, new BigDecimal("40.00"));
+            verify(eventPublisher).publishEvent(any(FundraisingEventUpdated.class));
+            verify(eventPublisher).publishEvent(any(BoxOperations.class));
+        }
+
+        @Test
+        @DisplayName("Should retry when the box was changed concurrently")
+        void shouldRetryOnVersionConflict() {
+            // Given
+            runTransactionsInline();
+            FundraisingEvent event = new FundraisingEvent(eventId, "Charity", "EUR", BigDecimal.ZERO, 3L);
+            when(collectionBoxR2dbcRepository.findBoxForEmptying(boxId))
+                    .thenReturn(Mono.just(new BoxForEmptying(boxId, 1L, event, BoxAmounts.of(Map.of("EUR", BigDecimal.ONE)))))
+                    .thenReturn(Mono.just(new BoxForEmptying(boxId, 2L, event, BoxAmounts.of(Map.of("EUR", BigDecimal.ONE)))));
+            when(collectionBoxR2dbcRepository.incrementBoxVersion(boxId, 1L)).thenReturn(Mono.just(false));
+            when(collectionBoxR2dbcRepository.incrementBoxVersion(boxId, 2L)).thenReturn(Mono.just(true));
+            when(collectionBoxR2dbcRepository.creditEvent(eventId, 3L, new BigDecimal("1.00"))).thenReturn(Mono.just(true));
+            when(collectionBoxR2dbcRepository.withdrawAmount(boxId, "EUR", 100)).thenReturn(Mono.just(true));
+            when(collectionBoxR2dbcRepository.deleteEmptyAmounts(boxId)).thenReturn(Mono.just(1L));
+            when(collectionBoxR2dbcRepository.findBox(boxId))
+                    .thenReturn(Mono.just(new CollectionBoxResponse(boxId, eventId, new HashMap<>(), true, true)));
+
+            // When
+            CollectionBoxResponse response = reactiveCollectionBoxService.emptyCollectionBox(boxId).block();
+
+            // Then
+            assertTrue(response.isEmpty());
+            verify(collectionBoxR2dbcRepository, times(2)).findBoxForEmptying(boxId);
+            verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+        }
+
+        @Test
+        @DisplayName("Should refuse to empty a box that is not assigned")
+        void shouldRejectUnassignedBox() {
+            // Given
+            runTransactionsInline();
+            when(collectionBoxR2dbcRepository.findBoxForEmptying(boxId))
+                    .thenReturn(Mono.just(new BoxForEmptying(boxId, 0L, null, new BoxAmounts())));
+
+            // When & Then
+            Mono<CollectionBoxResponse> empty = reactiveCollectionBoxService.emptyCollectionBox(boxId);
+            assertThrows(IllegalStateException.class, empty::block);
+            verifyNoInteractions(eventPublisher);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.sii.siiassignment;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sii.siiassignment.model.TimeOrderedUuidGenerator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    @DisplayName("Should generate version 7 ids that start with the current time in milliseconds")
+    void shouldGenerateVersion7Ids() {
+        // Given
+        long before = System.currentTimeMillis();
+
+        // When
+        UUID id = TimeOrderedUuidGenerator.next();
+
+        // Then
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    @DisplayName("Should generate unique ids in creation order, also within the same millisecond")
+    void shouldGenerateOrderedIds() {
+        // Given
+        List<UUID> ids = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(TimeOrderedUuidGenerator.next());
+        }
+
+        // Then
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        List<UUID> sorted = new ArrayList<>(ids);
+        sorted.sort(Comparator.comparing(UUID::toString));
+        assertEquals(ids, sorted);
+    }
+}
@@ -0,0 +1,85 @@
+package org.sii.siiassignment;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.sii.siiassignment.service.ExchangeRateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Boots the application with {@code spring.threads.virtual.enabled=true} against a local stand-in for the rate API.
+ */
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:virtual-threads",
+        "exchange.rate.api.key=",
+        "exchange.rate.providers=http",
+        "exchange.rate.snapshot.enabled=false"
+})
+class VirtualThreadModeTest {
+
+    private static final byte[] RESPONSE = """
+            {"result": "success", "base_code": "EUR", "conversion_rates": {"EUR": 1, "PLN": 4.30, "USD": 1.08}}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private static HttpServer rateApi;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @DynamicPropertySource
+    static void rateApi(DynamicPropertyRegistry registry) throws IOException {
+        rateApi = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        rateApi.createContext("/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(RESPONSE);
+            }
+        });
+        rateApi.start();
+        registry.add("exchange.rate.api.base-url", () -> "http://localhost:" + rateApi.getAddress().getPort() + "/");
+    }
+
+    @AfterAll
+    static void stopRateApi() {
+        rateApi.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should fetch rates through the rate client in virtual-thread mode")
+    void shouldFetchRatesOnVirtualThreads() throws Exception {
+        // When
+        long deadline = System.currentTimeMillis() + 10_000;
+        // The refresh scheduled at startup may still be running, in which case this one returns right away
+        while (!exchangeRateService.refreshRates() && exchangeRateService.getRefreshStatus().getSource() == null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Then
+        assertEquals("http", exchangeRateService.getRefreshStatus().getSource());
+        assertEquals(0, exchangeRateService.getRefreshStatus().getConsecutiveFailures());
+        assertEquals(new BigDecimal("4.300000"), exchangeRateService.getExchangeRate("EUR", "PLN"));
+        assertTrue(applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get());
+    }
+}